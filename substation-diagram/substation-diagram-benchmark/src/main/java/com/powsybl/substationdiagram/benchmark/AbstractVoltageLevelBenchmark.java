@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.benchmark;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.VoltageLevelGenerator;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.model.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Voltage levels of the benchmarks, generated with two busbars, a busbar section every 20 feeders and
+ * {@link #feederCount} feeders.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractVoltageLevelBenchmark {
+
+    private static final int BUSBAR_COUNT = 2;
+
+    private static final int FEEDER_COUNT_PER_SECTION = 20;
+
+    @Param({"10", "100", "1000"})
+    public int feederCount;
+
+    protected final LayoutParameters layoutParameters = new LayoutParameters(20, 50, 0, 260,
+                                                                             25, 20,
+                                                                             50, 250, 40,
+                                                                             30, true, true);
+
+    protected VoltageLevel createVoltageLevel() {
+        Network network = NetworkFactory.create("benchmark", "test");
+        return new VoltageLevelGenerator(BUSBAR_COUNT, 1 + feederCount / FEEDER_COUNT_PER_SECTION, feederCount)
+                .generate(network, "vl");
+    }
+
+    /**
+     * Graph with its cells detected and its blocks organized, ready to be laid out
+     */
+    protected static Graph createOrganizedGraph(VoltageLevel vl) {
+        Graph graph = Graph.create(vl);
+        new PositionVoltageLevelLayoutFactory().create(graph);
+        return graph;
+    }
+}
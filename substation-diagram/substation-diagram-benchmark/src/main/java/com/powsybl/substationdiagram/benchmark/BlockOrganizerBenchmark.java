@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.benchmark;
+
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.BlockOrganizer;
+import com.powsybl.substationdiagram.layout.ImplicitCellDetector;
+import com.powsybl.substationdiagram.layout.PositionFromExtension;
+import com.powsybl.substationdiagram.model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Blocks organization modifies the graph, so the cells of a new graph are detected before each invocation.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class BlockOrganizerBenchmark extends AbstractVoltageLevelBenchmark {
+
+    private VoltageLevel vl;
+
+    private Graph graph;
+
+    @Setup
+    public void setUp() {
+        vl = createVoltageLevel();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpGraph() {
+        graph = Graph.create(vl);
+        new ImplicitCellDetector().detectCells(graph);
+    }
+
+    @Benchmark
+    public boolean organize() {
+        return new BlockOrganizer(new PositionFromExtension(), true).organize(graph);
+    }
+}
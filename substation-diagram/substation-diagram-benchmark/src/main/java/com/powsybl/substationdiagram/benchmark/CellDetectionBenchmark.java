@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.benchmark;
+
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.CellDetector;
+import com.powsybl.substationdiagram.layout.ImplicitCellDetector;
+import com.powsybl.substationdiagram.layout.PatternCellDetector;
+import com.powsybl.substationdiagram.model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Cells detection modifies the graph, so a new graph is created before each invocation.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class CellDetectionBenchmark extends AbstractVoltageLevelBenchmark {
+
+    private VoltageLevel vl;
+
+    private CellDetector implicitCellDetector;
+
+    private CellDetector patternCellDetector;
+
+    private Graph graph;
+
+    @Setup
+    public void setUp() {
+        vl = createVoltageLevel();
+        implicitCellDetector = new ImplicitCellDetector();
+        patternCellDetector = new PatternCellDetector("/pattern.xml");
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpGraph() {
+        graph = Graph.create(vl);
+    }
+
+    @Benchmark
+    public Graph implicitCellDetector() {
+        implicitCellDetector.detectCells(graph);
+        return graph;
+    }
+
+    @Benchmark
+    public Graph patternCellDetector() {
+        patternCellDetector.detectCells(graph);
+        return graph;
+    }
+}
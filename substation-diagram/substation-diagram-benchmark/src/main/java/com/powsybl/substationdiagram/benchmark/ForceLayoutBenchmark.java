@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.benchmark;
+
+import com.powsybl.substationdiagram.layout.force.ForceVoltageLevelLayout;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class ForceLayoutBenchmark extends AbstractVoltageLevelBenchmark {
+
+    private ForceVoltageLevelLayout layout;
+
+    @Setup
+    public void setUp() {
+        layout = new ForceVoltageLevelLayout(Graph.create(createVoltageLevel()));
+    }
+
+    @Benchmark
+    public GraphCoordinates calculateCoordinates() {
+        return layout.calculateCoordinates(layoutParameters);
+    }
+}
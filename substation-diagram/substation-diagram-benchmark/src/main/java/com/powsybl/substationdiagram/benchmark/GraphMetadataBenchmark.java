@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.benchmark;
+
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayout;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class GraphMetadataBenchmark extends AbstractVoltageLevelBenchmark {
+
+    private GraphMetadata metadata;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        GraphCoordinates coordinates = new PositionVoltageLevelLayout(createOrganizedGraph(createVoltageLevel()))
+                .calculateCoordinates(layoutParameters);
+        metadata = new SVGWriter(ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"), layoutParameters)
+                .write(coordinates, new StringWriter());
+        json = writeJson();
+    }
+
+    @Benchmark
+    public String writeJson() {
+        StringWriter writer = new StringWriter();
+        metadata.writeJson(writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public GraphMetadata parseJson() {
+        return GraphMetadata.parseJson(new StringReader(json));
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.benchmark;
+
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayout;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.StringWriter;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class SvgWriterBenchmark extends AbstractVoltageLevelBenchmark {
+
+    @Param({"false", "true"})
+    public boolean streaming;
+
+    private GraphCoordinates coordinates;
+
+    private SVGWriter svgWriter;
+
+    @Setup
+    public void setUp() {
+        coordinates = new PositionVoltageLevelLayout(createOrganizedGraph(createVoltageLevel()))
+                .calculateCoordinates(layoutParameters);
+        ComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
+        svgWriter = new SVGWriter(componentLibrary, layoutParameters)
+                .setStreaming(streaming);
+    }
+
+    @Benchmark
+    public GraphMetadata write() {
+        return svgWriter.write(coordinates, new StringWriter());
+    }
+}
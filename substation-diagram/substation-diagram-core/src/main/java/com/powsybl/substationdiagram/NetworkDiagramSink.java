@@ -0,0 +1,21 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+/**
+ * Receives the diagrams generated by a {@link NetworkDiagramWriter}, one voltage level at a time.
+ * Implementations may be called concurrently from several threads.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+@FunctionalInterface
+public interface NetworkDiagramSink {
+
+    void accept(String voltageLevelId, String svg, String metadata);
+}
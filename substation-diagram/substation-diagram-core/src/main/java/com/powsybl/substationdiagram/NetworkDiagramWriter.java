@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayout;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayouts;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.metrics.DiagramListener;
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseRecorder;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Generate the diagrams of all the voltage levels of a network, spreading the voltage levels over an executor.
+ * <p>
+ * Each voltage level is handled by its own task: graph creation, layout and SVG writing. The resulting SVG and
+ * metadata are handed to a {@link NetworkDiagramSink} as soon as they are ready, so only the graphs of the voltage
+ * levels being processed are kept in memory. Graph creation reads the network and is serialized on it, as IIDM
+ * networks are not safe for concurrent access; layout and SVG writing run in parallel.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class NetworkDiagramWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkDiagramWriter.class);
+
+    private final ComponentLibrary componentLibrary;
+
+    private final LayoutParameters layoutParameters;
+
+    private final Supplier<VoltageLevelLayoutFactory> layoutFactorySupplier;
+
+    private final boolean useName;
+
+    private final Executor executor;
+
+    private DiagramListener listener = DiagramListener.NONE;
+
+    public NetworkDiagramWriter(ComponentLibrary componentLibrary, LayoutParameters layoutParameters) {
+        this(componentLibrary, layoutParameters, PositionVoltageLevelLayoutFactory::new, false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param layoutFactorySupplier called once per voltage level, as layout factories may hold state
+     * @param executor              executor running the voltage level tasks
+     */
+    public NetworkDiagramWriter(ComponentLibrary componentLibrary, LayoutParameters layoutParameters,
+                                Supplier<VoltageLevelLayoutFactory> layoutFactorySupplier, boolean useName,
+                                Executor executor) {
+        this.componentLibrary = Objects.requireNonNull(componentLibrary);
+        this.layoutParameters = new LayoutParameters(Objects.requireNonNull(layoutParameters));
+        this.layoutFactorySupplier = Objects.requireNonNull(layoutFactorySupplier);
+        this.useName = useName;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public DiagramListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set the listener receiving the metrics of the phases of each voltage level. The voltage levels being handled
+     * concurrently, the listener has to be thread safe.
+     */
+    public NetworkDiagramWriter setListener(DiagramListener listener) {
+        this.listener = Objects.requireNonNull(listener);
+        return this;
+    }
+
+    public void write(Network network, NetworkDiagramSink sink) {
+        Objects.requireNonNull(network);
+        Objects.requireNonNull(sink);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (VoltageLevel vl : network.getVoltageLevels()) {
+            futures.add(CompletableFuture.runAsync(() -> write(network, vl, sink), executor));
+        }
+        LOGGER.info("Writing diagrams of {} voltage levels...", futures.size());
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write the diagrams in a directory: one SVG file and one JSON metadata file per voltage level,
+     * named after the voltage level id.
+     */
+    public void write(Network network, Path dir) {
+        Objects.requireNonNull(dir);
+        write(network, (voltageLevelId, svg, metadata) -> {
+            try {
+                Files.write(dir.resolve(voltageLevelId + ".svg"), svg.getBytes(StandardCharsets.UTF_8));
+                Files.write(dir.resolve(voltageLevelId + "_metadata.json"), metadata.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void write(Network network, VoltageLevel vl, NetworkDiagramSink sink) {
+        Graph graph;
+        String voltageLevelId;
+        synchronized (network) {
+            voltageLevelId = vl.getId();
+            graph = Graph.create(vl, useName, listener);
+        }
+
+        PhaseRecorder recorder = graph.getPhaseRecorder();
+        VoltageLevelLayout layout = layoutFactorySupplier.get().create(graph);
+        GraphCoordinates coordinates = recorder.record(Phase.COORDINATES, graph,
+                () -> VoltageLevelLayouts.calculateCoordinates(layout, graph, layoutParameters));
+
+        try (StringWriter svgWriter = new StringWriter();
+             Writer metadataWriter = new StringWriter()) {
+            GraphMetadata metadata = recorder.record(Phase.SVG_WRITING, graph,
+                    () -> new SVGWriter(componentLibrary, layoutParameters).write(coordinates, svgWriter));
+            recorder.record(Phase.METADATA_WRITING, graph, () -> metadata.writeJson(metadataWriter));
+            sink.accept(voltageLevelId, svgWriter.toString(), metadataWriter.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -11,8 +11,13 @@ import com.powsybl.substationdiagram.layout.LayoutParameters;
 import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
 import com.powsybl.substationdiagram.layout.VoltageLevelLayout;
 import com.powsybl.substationdiagram.layout.VoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayouts;
 import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.metrics.DiagramListener;
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseRecorder;
 import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
 import com.powsybl.substationdiagram.svg.GraphMetadata;
 import com.powsybl.substationdiagram.svg.SVGWriter;
 import org.slf4j.Logger;
@@ -35,11 +40,14 @@ public final class SubstationDiagram {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SubstationDiagram.class);
 
+    private final String voltageLevelId;
+
     private final Graph graph;
 
     private final VoltageLevelLayout layout;
 
-    private SubstationDiagram(Graph graph, VoltageLevelLayout layout) {
+    private SubstationDiagram(String voltageLevelId, Graph graph, VoltageLevelLayout layout) {
+        this.voltageLevelId = Objects.requireNonNull(voltageLevelId);
         this.graph = Objects.requireNonNull(graph);
         this.layout = Objects.requireNonNull(layout);
     }
@@ -49,13 +57,45 @@ public final class SubstationDiagram {
     }
 
     public static SubstationDiagram build(VoltageLevel vl, VoltageLevelLayoutFactory layoutFactory, boolean useName) {
+        return build(vl, layoutFactory, useName, DiagramListener.NONE);
+    }
+
+    /**
+     * Build the diagram, the listener receiving the metrics of each phase: graph build, preprocessing, cell
+     * detection and blocks organization.
+     */
+    public static SubstationDiagram build(VoltageLevel vl, VoltageLevelLayoutFactory layoutFactory, boolean useName,
+                                          DiagramListener listener) {
         Objects.requireNonNull(vl);
         Objects.requireNonNull(layoutFactory);
+        Objects.requireNonNull(listener);
 
-        Graph graph = Graph.create(vl, useName);
+        Graph graph = Graph.create(vl, useName, listener);
         VoltageLevelLayout layout = layoutFactory.create(graph);
 
-        return new SubstationDiagram(graph, layout);
+        return new SubstationDiagram(vl.getId(), graph, layout);
+    }
+
+    /**
+     * Get the diagram from the cache, or build it and put it in the cache if the voltage level has been modified
+     * since the previous build, or has not been built yet.
+     */
+    public static SubstationDiagram build(VoltageLevel vl, VoltageLevelLayoutFactory layoutFactory, boolean useName,
+                                          SubstationDiagramCache cache) {
+        Objects.requireNonNull(vl);
+        Objects.requireNonNull(layoutFactory);
+        Objects.requireNonNull(cache);
+
+        return cache.get(vl, layoutFactory, useName, () -> build(vl, layoutFactory, useName));
+    }
+
+    /**
+     * Calculate the coordinates of the diagram. The graph is not modified, so a diagram from a cache can be laid out
+     * concurrently, unless its layout only implements {@link VoltageLevelLayout#run(LayoutParameters)}.
+     */
+    public GraphCoordinates calculateCoordinates(LayoutParameters layoutParameters) {
+        Objects.requireNonNull(layoutParameters);
+        return VoltageLevelLayouts.calculateCoordinates(layout, graph, layoutParameters);
     }
 
     public void writeSvg(ComponentLibrary componentLibrary, LayoutParameters layoutParameters, Path svgFile) {
@@ -81,26 +121,43 @@ public final class SubstationDiagram {
 
     public void writeSvg(ComponentLibrary componentLibrary, LayoutParameters layoutParameters, Writer svgWriter,
                          Writer metadataWriter, Writer graphWriter) {
+        writeSvg(componentLibrary, layoutParameters, svgWriter, metadataWriter, graphWriter, DiagramListener.NONE);
+    }
+
+    /**
+     * Write the diagram, the listener receiving the metrics of the coordinates calculation, of the SVG writing and
+     * of the metadata writing.
+     */
+    public void writeSvg(ComponentLibrary componentLibrary, LayoutParameters layoutParameters, Writer svgWriter,
+                         Writer metadataWriter, Writer graphWriter, DiagramListener listener) {
         Objects.requireNonNull(componentLibrary);
         Objects.requireNonNull(layoutParameters);
         Objects.requireNonNull(svgWriter);
         Objects.requireNonNull(metadataWriter);
+        Objects.requireNonNull(listener);
+
+        // not the recorder of the graph, as a diagram from a cache can be written concurrently with other listeners
+        PhaseRecorder recorder = new PhaseRecorder(voltageLevelId, listener);
 
-        // calculate coordinate
-        layout.run(layoutParameters);
+        // calculate coordinate, the graph is not modified so a diagram from a cache can be written concurrently
+        GraphCoordinates coordinates = recorder.record(Phase.COORDINATES, graph,
+                () -> VoltageLevelLayouts.calculateCoordinates(layout, graph, layoutParameters));
 
         // write graph debug file
         if (graphWriter != null) {
-            graph.whenSerializingUsingJsonAnyGetterThenCorrect(graphWriter);
+            synchronized (graph) {
+                coordinates.apply();
+                graph.whenSerializingUsingJsonAnyGetterThenCorrect(graphWriter);
+            }
         }
 
         // write SVG file
         LOGGER.info("Writing SVG and JSON metadata files...");
 
-        GraphMetadata metadata = new SVGWriter(componentLibrary, layoutParameters)
-                .write(graph, svgWriter);
+        GraphMetadata metadata = recorder.record(Phase.SVG_WRITING, graph,
+                () -> new SVGWriter(componentLibrary, layoutParameters).write(coordinates, svgWriter));
 
         // write metadata file
-        metadata.writeJson(metadataWriter);
+        recorder.record(Phase.METADATA_WRITING, graph, () -> metadata.writeJson(metadataWriter));
     }
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayoutFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Least recently used cache of the diagrams built by {@link SubstationDiagram#build(VoltageLevel, VoltageLevelLayoutFactory, boolean, SubstationDiagramCache)},
+ * so that the cells detection and the blocks organization are not done again as long as the topology of the
+ * voltage level is not modified.
+ * <p>
+ * Diagrams are keyed by the voltage level id, a fingerprint of the voltage level content, the cache key of the layout
+ * factory (see {@link VoltageLevelLayoutFactory#getCacheKey()}) and the use of names. A modified voltage level gets
+ * a new key, the diagram of its previous state is evicted when the cache is full.
+ * <p>
+ * The fingerprint being a 64 bits hash along with an element count, a collision between two states of a voltage level
+ * with the same element count silently returns the diagram of the other state. This is unlikely enough not to
+ * compare the whole topology on each lookup.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class SubstationDiagramCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubstationDiagramCache.class);
+
+    private static final class Key {
+
+        private final String voltageLevelId;
+
+        private final VoltageLevelFingerprint fingerprint;
+
+        private final Object layoutFactoryKey;
+
+        private final boolean useName;
+
+        private Key(String voltageLevelId, VoltageLevelFingerprint fingerprint, Object layoutFactoryKey, boolean useName) {
+            this.voltageLevelId = voltageLevelId;
+            this.fingerprint = fingerprint;
+            this.layoutFactoryKey = layoutFactoryKey;
+            this.useName = useName;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fingerprint.equals(other.fingerprint)
+                    && layoutFactoryKey.equals(other.layoutFactoryKey)
+                    && useName == other.useName
+                    && voltageLevelId.equals(other.voltageLevelId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(voltageLevelId, fingerprint, layoutFactoryKey, useName);
+        }
+    }
+
+    private final int maxSize;
+
+    private final Map<Key, SubstationDiagram> diagrams;
+
+    public SubstationDiagramCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new PowsyblException("Invalid cache size: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        diagrams = new LinkedHashMap<Key, SubstationDiagram>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SubstationDiagram> eldest) {
+                return size() > SubstationDiagramCache.this.maxSize;
+            }
+        };
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int size() {
+        return diagrams.size();
+    }
+
+    public synchronized void clear() {
+        diagrams.clear();
+    }
+
+    SubstationDiagram get(VoltageLevel vl, VoltageLevelLayoutFactory layoutFactory, boolean useName,
+                          Supplier<SubstationDiagram> builder) {
+        Key key = new Key(vl.getId(), VoltageLevelFingerprint.compute(vl), layoutFactory.getCacheKey(), useName);
+        synchronized (this) {
+            SubstationDiagram diagram = diagrams.get(key);
+            if (diagram != null) {
+                LOGGER.debug("Diagram of '{}' found in cache", vl.getId());
+                return diagram;
+            }
+        }
+        // built outside of the lock, not to block the other voltage levels
+        SubstationDiagram diagram = builder.get();
+        synchronized (this) {
+            SubstationDiagram cached = diagrams.putIfAbsent(key, diagram);
+            return cached != null ? cached : diagram;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.*;
+import com.rte_france.powsybl.iidm.network.extensions.cvg.BusbarSectionPosition;
+import com.rte_france.powsybl.iidm.network.extensions.cvg.ConnectablePosition;
+
+/**
+ * 64 bits hash (FNV-1a) of everything a voltage level graph is built from: the equipments in their visit order,
+ * with their ids, names, component type and position extensions, the switches with their nodes and the internal
+ * connections, along with the count of these elements as a cheap secondary check. Two voltage levels with the same
+ * fingerprint give the same graph, a hash collision between two voltage levels with the same id and element count
+ * being the only way to get the graph of another topology.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+final class VoltageLevelFingerprint extends DefaultTopologyVisitor {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    private int elementCount;
+
+    private VoltageLevelFingerprint() {
+    }
+
+    static VoltageLevelFingerprint compute(VoltageLevel vl) {
+        VoltageLevelFingerprint fingerprint = new VoltageLevelFingerprint();
+        fingerprint.addVoltageLevel(vl);
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof VoltageLevelFingerprint)) {
+            return false;
+        }
+        VoltageLevelFingerprint other = (VoltageLevelFingerprint) obj;
+        return hash == other.hash && elementCount == other.elementCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    private void addVoltageLevel(VoltageLevel vl) {
+        add(vl.getId()).add(vl.getTopologyKind().ordinal());
+        switch (vl.getTopologyKind()) {
+            case BUS_BREAKER:
+                for (Bus b : vl.getBusBreakerView().getBuses()) {
+                    addElement('B').add(b.getId()).add(b.getName());
+                }
+                vl.visitEquipments(this);
+                break;
+            case NODE_BREAKER:
+                vl.visitEquipments(this);
+                VoltageLevel.NodeBreakerView view = vl.getNodeBreakerView();
+                for (Switch sw : view.getSwitches()) {
+                    addElement('S').add(sw.getId()).add(sw.getName()).add(sw.getKind().ordinal())
+                            .add(view.getNode1(sw.getId())).add(view.getNode2(sw.getId()));
+                }
+                view.getInternalConnectionStream().forEach(internalConnection ->
+                        addElement('I').add(internalConnection.getNode1()).add(internalConnection.getNode2()));
+                break;
+            default:
+                throw new AssertionError("Unknown topology kind: " + vl.getTopologyKind());
+        }
+    }
+
+    private VoltageLevelFingerprint add(int i) {
+        hash = (hash ^ i) * PRIME;
+        return this;
+    }
+
+    private VoltageLevelFingerprint add(char c) {
+        return add((int) c);
+    }
+
+    private VoltageLevelFingerprint addElement(char tag) {
+        elementCount++;
+        return add(tag);
+    }
+
+    private VoltageLevelFingerprint add(boolean b) {
+        return add(b ? 1 : 0);
+    }
+
+    private VoltageLevelFingerprint add(String str) {
+        if (str == null) {
+            return add(-1);
+        }
+        for (int i = 0; i < str.length(); i++) {
+            add(str.charAt(i));
+        }
+        // length as a separator, so that consecutive strings cannot be confused
+        return add(str.length());
+    }
+
+    private void addConnectable(char tag, Identifiable identifiable) {
+        addElement(tag).add(identifiable.getId()).add(identifiable.getName());
+    }
+
+    private void addTerminal(Terminal terminal) {
+        if (terminal.getVoltageLevel().getTopologyKind() == TopologyKind.NODE_BREAKER) {
+            add(terminal.getNodeBreakerView().getNode());
+        } else {
+            Bus bus = terminal.getBusBreakerView().getConnectableBus();
+            add(bus.getId()).add(bus.getName());
+        }
+    }
+
+    private void addFeeder(ConnectablePosition.Feeder feeder) {
+        if (feeder == null) {
+            add(-1);
+        } else {
+            add(feeder.getName()).add(feeder.getOrder()).add(feeder.getDirection().ordinal());
+        }
+    }
+
+    private ConnectablePosition getPosition(Connectable connectable) {
+        return (ConnectablePosition) connectable.getExtension(ConnectablePosition.class);
+    }
+
+    private void addBranchFeeder(ConnectablePosition position, boolean sideOne) {
+        if (position == null) {
+            addFeeder(null);
+        } else {
+            addFeeder(sideOne ? position.getFeeder1() : position.getFeeder2());
+        }
+    }
+
+    private void addInjection(char tag, Injection injection) {
+        addConnectable(tag, injection);
+        addTerminal(injection.getTerminal());
+        ConnectablePosition position = getPosition(injection);
+        addFeeder(position != null ? position.getFeeder() : null);
+    }
+
+    @Override
+    public void visitBusbarSection(BusbarSection busbarSection) {
+        addConnectable('b', busbarSection);
+        addTerminal(busbarSection.getTerminal());
+        BusbarSectionPosition extension = busbarSection.getExtension(BusbarSectionPosition.class);
+        if (extension == null) {
+            add(-1);
+        } else {
+            add(extension.getSectionIndex()).add(extension.getBusbarIndex());
+        }
+    }
+
+    @Override
+    public void visitLoad(Load load) {
+        addInjection('l', load);
+    }
+
+    @Override
+    public void visitGenerator(Generator generator) {
+        addInjection('g', generator);
+    }
+
+    @Override
+    public void visitShuntCompensator(ShuntCompensator sc) {
+        addInjection('s', sc);
+        add(sc.getbPerSection() >= 0);
+    }
+
+    @Override
+    public void visitDanglingLine(DanglingLine danglingLine) {
+        addInjection('d', danglingLine);
+    }
+
+    @Override
+    public void visitHvdcConverterStation(HvdcConverterStation<?> converterStation) {
+        addInjection('h', converterStation);
+    }
+
+    @Override
+    public void visitStaticVarCompensator(StaticVarCompensator staticVarCompensator) {
+        addInjection('v', staticVarCompensator);
+    }
+
+    @Override
+    public void visitTwoWindingsTransformer(TwoWindingsTransformer transformer, TwoWindingsTransformer.Side side) {
+        addConnectable('t', transformer);
+        add(side.ordinal()).add(transformer.getPhaseTapChanger() != null);
+        addTerminal(transformer.getTerminal(side));
+        addBranchFeeder(getPosition(transformer), side == TwoWindingsTransformer.Side.ONE);
+    }
+
+    @Override
+    public void visitLine(Line line, Line.Side side) {
+        addConnectable('L', line);
+        add(side.ordinal());
+        addTerminal(line.getTerminal(side));
+        addBranchFeeder(getPosition(line), side == Line.Side.ONE);
+    }
+
+    @Override
+    public void visitThreeWindingsTransformer(ThreeWindingsTransformer transformer, ThreeWindingsTransformer.Side side) {
+        addConnectable('T', transformer);
+        add(side.ordinal());
+        addTerminal(transformer.getTerminal(side));
+        ConnectablePosition position = getPosition(transformer);
+        if (position == null) {
+            addFeeder(null);
+        } else {
+            switch (side) {
+                case ONE:
+                    addFeeder(position.getFeeder1());
+                    break;
+                case TWO:
+                    addFeeder(position.getFeeder2());
+                    break;
+                case THREE:
+                    addFeeder(position.getFeeder3());
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+    }
+}
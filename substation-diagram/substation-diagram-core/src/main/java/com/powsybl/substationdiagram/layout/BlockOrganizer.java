@@ -6,14 +6,24 @@
  */
 package com.powsybl.substationdiagram.layout;
 
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseRecorder;
 import com.powsybl.substationdiagram.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
+ * Organize the cells of a graph into blocks and position these blocks.
+ * <p>
+ * In parallel mode, the phases working on one cell at a time (block decomposition, intern cell rationalization,
+ * dimensions calculation) are spread over the fork-join pool of the caller, the common pool by default. The phases
+ * touching several cells (stackable blocks, position finding, subsections, intern cell lanes, bus node positions) stay
+ * sequential and wait for the end of the previous per-cell phase, so that the result is the same in both modes.
+ *
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
  * @author Nicolas Duchene
  * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
@@ -26,6 +36,8 @@ public class BlockOrganizer {
 
     private final boolean stack;
 
+    private final boolean parallel;
+
     public BlockOrganizer() {
         this(new PositionFromExtension(), true);
     }
@@ -39,8 +51,21 @@ public class BlockOrganizer {
     }
 
     public BlockOrganizer(PositionFinder positionFinder, boolean stack) {
+        this(positionFinder, stack, false);
+    }
+
+    public BlockOrganizer(PositionFinder positionFinder, boolean stack, boolean parallel) {
         this.positionFinder = Objects.requireNonNull(positionFinder);
         this.stack = stack;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Cells of the graph, to be handled independently of each other
+     */
+    private Stream<Cell> cellStream(Graph graph) {
+        Set<Cell> cells = graph.getCells();
+        return parallel ? cells.parallelStream() : cells.stream();
     }
 
     /**
@@ -49,8 +74,16 @@ public class BlockOrganizer {
      * @return true if the Extension enabled to place the whole graph
      */
     public boolean organize(Graph graph) {
+        PhaseRecorder recorder = graph.getPhaseRecorder();
+        recorder.record(Phase.BLOCK_DECOMPOSITION, graph, () -> decomposeBlocks(graph));
+        recorder.record(Phase.POSITION_FINDING, graph, () -> findPositions(graph));
+        recorder.record(Phase.SUBSECTIONS, graph, () -> organizeSubSections(graph));
+        return true;
+    }
+
+    private void decomposeBlocks(Graph graph) {
         LOGGER.info("Organizing graph cells into blocks");
-        graph.getCells().stream()
+        cellStream(graph)
                 .filter(cell -> cell.getType().equals(Cell.CellType.EXTERN)
                         || cell.getType().equals(Cell.CellType.INTERN)
                         || cell.getType().equals(Cell.CellType.INTERNBOUND))
@@ -60,24 +93,29 @@ public class BlockOrganizer {
                         ((InternCell) cell).rationalizeOrganization();
                     }
                 });
-        graph.getCells().stream()
+        cellStream(graph)
                 .filter(cell -> cell.getType() == Cell.CellType.SHUNT)
                 .forEach(cell -> new CellBlockDecomposer().determineBlocks(cell));
 
         if (stack) {
             determinePreliminaryStackableBlocks(graph);
         }
+    }
+
+    private void findPositions(Graph graph) {
         positionFinder.buildLayout(graph);
 
         graph.getCells().stream()
                 .filter(c -> c.getType() == Cell.CellType.INTERN || c.getType() == Cell.CellType.INTERNBOUND)
                 .forEach(c -> ((InternCell) c).postPositioningSettings());
+    }
 
+    private void organizeSubSections(Graph graph) {
         SubSections subSections = new SubSections(graph);
         subSections.handleSpanningBusBar();
         LOGGER.debug("Subsections {}", subSections);
 
-        graph.getCells().stream()
+        cellStream(graph)
                 .filter(cell -> cell.getType().equals(Cell.CellType.EXTERN)
                         || cell.getType().equals(Cell.CellType.INTERN)
                         || cell.getType().equals(Cell.CellType.INTERNBOUND))
@@ -85,8 +123,6 @@ public class BlockOrganizer {
         determineBlockPositions(graph, subSections);
 
         manageInternCellOverlaps(graph);
-
-        return true;
     }
 
     /**
@@ -256,6 +292,11 @@ public class BlockOrganizer {
         }
     }
 
+    /**
+     * Manages the overlaps of non flat intern cells: the cells are bundled into lanes of non overlapping cells, which
+     * are balanced on TOP and BOTTOM, at increasing vertical positions. This could be improved by having various
+     * vertical positions per lane.
+     */
     private void manageInternCellOverlaps(Graph graph) {
         List<InternCell> cellsToHandle = graph.getCells().stream()
                 .filter(cell -> cell.getType() == Cell.CellType.INTERN
@@ -263,113 +304,15 @@ public class BlockOrganizer {
                         && ((InternCell) cell).getCentralBlock() != null)
                 .map(cell -> (InternCell) cell)
                 .collect(Collectors.toList());
-        Lane lane = new Lane(cellsToHandle);
-        lane.run();
-    }
-
-    /**
-     * The class lane manages the overlaps of internCells.
-     * After bundleToCompatibleLanes each lane contents non overlapping cells
-     * arrangeLane at this stage balance the lanes on TOP and BOTTOM this could be improved by having various VPos per lane
-     */
-    private class Lane {
-        HashMap<InternCell, ArrayList<InternCell>> incompatibilities;
-        Lane nextLane;
-        List<Lane> lanes;
-
-        Lane(List<InternCell> cells) {
-            lanes = new ArrayList<>();
-            lanes.add(this);
-            incompatibilities = new HashMap<>();
-            cells.forEach(this::addCell);
-        }
-
-        Lane(InternCell cell, List<Lane> lanes) {
-            this.lanes = lanes;
-            lanes.add(this);
-            incompatibilities = new HashMap<>();
-            addCell(cell);
-        }
-
-        void run() {
-            bundleToCompatibleLanes();
-            arrangeLanes();
-        }
-
-        private void addCell(InternCell cell) {
-            incompatibilities.put(cell, new ArrayList<>());
-        }
-
-        private void bundleToCompatibleLanes() {
-            while (identifyIncompatibilities()) {
-                shiftIncompatibilities();
+        List<List<InternCell>> lanes = LaneAllocator.allocate(cellsToHandle,
+                cell -> cell.getSideHPos(Side.LEFT), cell -> cell.getSideHPos(Side.RIGHT));
+        for (int i = 0; i < lanes.size(); i++) {
+            Cell.Direction direction = i % 2 == 0 ? Cell.Direction.TOP : Cell.Direction.BOTTOM;
+            int v = 1 + i / 2;
+            for (InternCell cell : lanes.get(i)) {
+                cell.setDirection(direction);
+                cell.getRootPosition().setV(v);
             }
         }
-
-        private boolean identifyIncompatibilities() {
-            boolean hasIncompatibility = false;
-            for (Map.Entry<InternCell, ArrayList<InternCell>> entry : incompatibilities.entrySet()) {
-                InternCell internCellA = entry.getKey();
-                entry.getValue().clear();
-                int hAmin = internCellA.getSideHPos(Side.LEFT);
-                int hAmax = internCellA.getSideHPos(Side.RIGHT);
-
-                for (InternCell internCellB : incompatibilities.keySet()) {
-                    if (!internCellA.equals(internCellB)) {
-                        int hBmin = internCellB.getSideHPos(Side.LEFT);
-                        int hBmax = internCellB.getSideHPos(Side.RIGHT);
-                        if (hAmax > hBmin && hBmax > hAmin) {
-                            entry.getValue().add(internCellB);
-                            hasIncompatibility = true;
-                        }
-                    }
-                }
-            }
-            return hasIncompatibility;
-        }
-
-        private void shiftIncompatibilities() {
-            Map.Entry<InternCell, ArrayList<InternCell>> entry = incompatibilities.entrySet().stream()
-                    .filter(e -> !e.getValue().isEmpty())
-                    .max(Comparator.comparingInt(e -> e.getValue().size())).orElse(null);
-
-            if (entry != null) {
-                InternCell cell = entry.getKey();
-                incompatibilities.remove(cell);
-                if (nextLane == null) {
-                    nextLane = new Lane(cell, lanes);
-                } else {
-                    nextLane.addCell(cell);
-                    nextLane.bundleToCompatibleLanes();
-                }
-            }
-        }
-
-        private void arrangeLanes() {
-            int i = 0;
-            for (Lane lane : lanes) {
-                final int j = i % 2;
-                final int newV = 1 + i / 2;
-                lane.incompatibilities.keySet()
-                        .forEach(c -> {
-                            c.setDirection(j == 0 ? Cell.Direction.TOP : Cell.Direction.BOTTOM);
-                            c.getRootPosition().setV(newV);
-                        });
-                i++;
-            }
-        }
-
-        public String toString() {
-            StringBuilder str = new StringBuilder(incompatibilities.toString() + "\n\n");
-            if (nextLane != null) {
-                str.append(nextLane.toString());
-            }
-            return new String(str);
-        }
-
-        public int size() {
-            return incompatibilities.size();
-        }
-
     }
 }
@@ -6,12 +6,13 @@
  */
 package com.powsybl.substationdiagram.layout;
 
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.substationdiagram.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Contain function to dispose components of cells based on Hierarchical Layout
@@ -24,6 +25,16 @@ public class CellBlockDecomposer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CellBlockDecomposer.class);
 
+    /**
+     * Object shared by the nodes similar to a feeder node, see {@link Node#checkNodeSimilarity(Node)}
+     */
+    private static final Object FEEDER_SIMILARITY = new Object();
+
+    /**
+     * Object shared by the bus nodes, see {@link Node#checkNodeSimilarity(Node)}
+     */
+    private static final Object BUS_SIMILARITY = new Object();
+
     /**
      * Search layout.block and build layout.block hierarchy by merging blocks together; also
      * list blocks connected to busbar
@@ -51,7 +62,7 @@ public class CellBlockDecomposer {
     private void determineComplexCell(Cell cell) {
 
         List<PrimaryBlock> blocksConnectedToBusbar = new ArrayList<>();
-        List<Node> alreadyTreated = new ArrayList<>();
+        Set<Node> alreadyTreated = new HashSet<>();
         List<Block> blocks = new ArrayList<>();
         Node currentNode = cell.getBusNodes().get(0);
 
@@ -78,11 +89,7 @@ public class CellBlockDecomposer {
         blocks.forEach(b -> addBlockOrganised(organisedBlocks, b));
 
         // Merge blocks to obtain a hierarchy of blocks
-        while (organisedBlocks.size() != 1) {
-            searchParallelMerge(organisedBlocks, cell);
-            searchChainMerge(organisedBlocks, cell);
-        }
-        cell.blocksSetting(organisedBlocks.get(0), blocksConnectedToBusbar);
+        cell.blocksSetting(new BlockReduction(cell, organisedBlocks).reduce(), blocksConnectedToBusbar);
     }
 
     private void addBlockOrganised(List<Block> blocks, Block b) {
@@ -94,69 +101,228 @@ public class CellBlockDecomposer {
     }
 
     /**
-     * Search possibility to merge two blocks into a chain layout.block and do the merging
-     *
-     * @param blocks list of blocks we can merge
-     * @param cell   current cell
+     * Object equal for the nodes similar to each other
      */
-    private void searchChainMerge(List<Block> blocks, Cell cell) {
-        boolean chainEnded = false;
-        int i = 0;
-        while (i < blocks.size() && !chainEnded) {
-            for (int j = i + 1; j < blocks.size(); j++) {
-                Block b1 = blocks.get(i);
-                Block b2 = blocks.get(j);
-                LOGGER.trace(" Blocks compared : {} & {}", b1, b2);
-                Node commonNode = compareBlockPath(b1, b2);
-                LOGGER.trace(" Common node : {}", commonNode);
-                if (commonNode != null
-                        && ((FicticiousNode) commonNode).getCardinality()
-                        == (b1.getCardinality(commonNode) + b2.getCardinality(commonNode))) {
-                    SerialBlock b = new SerialBlock(b1, b2, commonNode);
-                    b1.setParentBlock(b);
-                    b2.setParentBlock(b);
-                    blocks.remove(b1);
-                    blocks.remove(b2);
-                    b.setCell(cell);
-                    blocks.add(b);
-                    chainEnded = true;
-                    break;
-                }
+    private static Object getSimilarity(Node node) {
+        if (node.similarToAFeederNode(node)) {
+            return FEEDER_SIMILARITY;
+        }
+        if (node instanceof BusNode) {
+            return BUS_SIMILARITY;
+        }
+        return node;
+    }
+
+    /**
+     * Similarity of the ending nodes of a block: the blocks with equal keys can be merged into a parallel block
+     */
+    private static final class ParallelKey {
+
+        private final Object similarity1;
+
+        private final Object similarity2;
+
+        private ParallelKey(Block block) {
+            similarity1 = getSimilarity(block.getStartingNode());
+            similarity2 = getSimilarity(block.getEndingNode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ParallelKey) {
+                ParallelKey other = (ParallelKey) obj;
+                return (similarity1.equals(other.similarity1) && similarity2.equals(other.similarity2))
+                        || (similarity1.equals(other.similarity2) && similarity2.equals(other.similarity1));
             }
-            i++;
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return similarity1.hashCode() + similarity2.hashCode();
         }
     }
 
     /**
-     * Search possibility to merge some blocks into a parallel layout.block and do the merging
-     *
-     * @param blocks list of blocks we can merge
-     * @param cell   current cell
+     * Two blocks which can be merged into a serial block, the first one being before the second one in the list
+     */
+    private static final class ChainPair {
+
+        private final Block block1;
+
+        private final int rank1;
+
+        private final Block block2;
+
+        private final int rank2;
+
+        private final Node commonNode;
+
+        private ChainPair(Block block1, int rank1, Block block2, int rank2, Node commonNode) {
+            this.block1 = block1;
+            this.rank1 = rank1;
+            this.block2 = block2;
+            this.rank2 = rank2;
+            this.commonNode = commonNode;
+        }
+    }
+
+    /**
+     * Reduction of a list of blocks into a single block. Until one block remains, all the blocks similar to each
+     * other are merged into parallel blocks, then the first two blocks of the list that can be chained are merged
+     * into a serial block. Merged blocks are appended at the end of the list.
+     * <p>
+     * Rather than scanning the whole list for each merge, the blocks are indexed by ending node and by similarity of
+     * their ending nodes, and the pairs of blocks that can be chained are kept sorted by their ranks in the list. A
+     * merge only checks the blocks sharing an ending node with the new block: the blocks of the list are not modified,
+     * so the other pairs stay as they are.
      */
-    private void searchParallelMerge(List<Block> blocks, Cell cell) {
-        List<List<Block>> blocksBundlesToMerge = new ArrayList<>();
-        Node commonNode;
-        int i = 0;
-        while (i < blocks.size()) {
-            List<Block> blocksBundle = new ArrayList<>();
-            for (int j = i + 1; j < blocks.size(); j++) {
-                commonNode = compareBlockParallel(blocks.get(i), blocks.get(j));
-                if (commonNode != null) {
-                    blocksBundle.add(blocks.get(j));
+    private final class BlockReduction {
+
+        private final Cell cell;
+
+        private final TreeMap<Integer, Block> blocksByRank = new TreeMap<>();
+
+        private final Map<Block, Integer> ranks = new HashMap<>();
+
+        private int nextRank = 0;
+
+        private final Map<Node, Set<Block>> blocksByNode = new HashMap<>();
+
+        private final Map<ParallelKey, TreeMap<Integer, Block>> blocksByParallelKey = new HashMap<>();
+
+        /**
+         * Keys shared by several blocks since the last parallel merge
+         */
+        private final Set<ParallelKey> parallelKeysToMerge = new HashSet<>();
+
+        private final TreeSet<ChainPair> chainPairs = new TreeSet<>(Comparator.<ChainPair>comparingInt(pair -> pair.rank1)
+                .thenComparingInt(pair -> pair.rank2));
+
+        private final Map<Block, Set<ChainPair>> chainPairsByBlock = new HashMap<>();
+
+        private BlockReduction(Cell cell, List<Block> blocks) {
+            this.cell = cell;
+            blocks.forEach(this::add);
+        }
+
+        private Set<Node> getEndingNodes(Block block) {
+            return new LinkedHashSet<>(Arrays.asList(block.getStartingNode(), block.getEndingNode()));
+        }
+
+        private void add(Block block) {
+            int rank = nextRank++;
+            blocksByRank.put(rank, block);
+            ranks.put(block, rank);
+
+            // the blocks sharing an ending node are all before the new block in the list
+            Set<Node> endingNodes = getEndingNodes(block);
+            Set<Block> neighbours = new LinkedHashSet<>();
+            for (Node node : endingNodes) {
+                neighbours.addAll(blocksByNode.getOrDefault(node, Collections.emptySet()));
+            }
+            for (Block neighbour : neighbours) {
+                Node commonNode = compareBlockPath(neighbour, block);
+                if (commonNode != null
+                        && ((FicticiousNode) commonNode).getCardinality()
+                        == (neighbour.getCardinality(commonNode) + block.getCardinality(commonNode))) {
+                    ChainPair pair = new ChainPair(neighbour, ranks.get(neighbour), block, rank, commonNode);
+                    chainPairs.add(pair);
+                    chainPairsByBlock.computeIfAbsent(neighbour, b -> new HashSet<>()).add(pair);
+                    chainPairsByBlock.computeIfAbsent(block, b -> new HashSet<>()).add(pair);
                 }
             }
-            if (blocksBundle.isEmpty()) {
-                i++;
-            } else {
-                blocksBundle.add(blocks.get(i));
-                blocks.removeAll(blocksBundle);
-                blocksBundlesToMerge.add(blocksBundle);
+            for (Node node : endingNodes) {
+                blocksByNode.computeIfAbsent(node, n -> new HashSet<>()).add(block);
+            }
+
+            ParallelKey key = new ParallelKey(block);
+            TreeMap<Integer, Block> similarBlocks = blocksByParallelKey.computeIfAbsent(key, k -> new TreeMap<>());
+            similarBlocks.put(rank, block);
+            if (similarBlocks.size() > 1) {
+                parallelKeysToMerge.add(key);
             }
         }
-        for (List<Block> blocksBundle : blocksBundlesToMerge) {
-            ParallelBlock bPar = new ParallelBlock(blocksBundle);
-            bPar.setCell(cell);
-            blocks.add(bPar);
+
+        /**
+         * Remove a block from the list, before it is merged as its ending nodes may change
+         */
+        private void remove(Block block) {
+            int rank = ranks.remove(block);
+            blocksByRank.remove(rank);
+            for (Node node : getEndingNodes(block)) {
+                blocksByNode.get(node).remove(block);
+            }
+            ParallelKey key = new ParallelKey(block);
+            TreeMap<Integer, Block> similarBlocks = blocksByParallelKey.get(key);
+            similarBlocks.remove(rank);
+            if (similarBlocks.isEmpty()) {
+                blocksByParallelKey.remove(key);
+            }
+            for (ChainPair pair : chainPairsByBlock.getOrDefault(block, Collections.emptySet())) {
+                chainPairs.remove(pair);
+                Block other = pair.block1 == block ? pair.block2 : pair.block1;
+                chainPairsByBlock.get(other).remove(pair);
+            }
+            chainPairsByBlock.remove(block);
+        }
+
+        Block reduce() {
+            while (blocksByRank.size() > 1) {
+                boolean merged = mergeParallelBlocks();
+                merged |= mergeChainedBlocks();
+                if (!merged) {
+                    throw new PowsyblException("Blocks of cell " + cell.getFullId() + " cannot be merged: " + blocksByRank.values());
+                }
+            }
+            return blocksByRank.firstEntry().getValue();
+        }
+
+        /**
+         * Merge all the blocks similar to each other into parallel blocks
+         */
+        private boolean mergeParallelBlocks() {
+            // bundles in the order of their first block in the list
+            List<List<Block>> bundles = parallelKeysToMerge.stream()
+                    .map(blocksByParallelKey::get)
+                    .filter(similarBlocks -> similarBlocks != null && similarBlocks.size() > 1)
+                    .sorted(Comparator.comparingInt(TreeMap::firstKey))
+                    .map(similarBlocks -> new ArrayList<>(similarBlocks.values()))
+                    .collect(Collectors.toList());
+            parallelKeysToMerge.clear();
+
+            List<Block> parallelBlocks = new ArrayList<>();
+            for (List<Block> bundle : bundles) {
+                // as when scanning the list, the first block is put after the blocks similar to it
+                bundle.add(bundle.remove(0));
+                bundle.forEach(this::remove);
+                ParallelBlock bPar = new ParallelBlock(bundle);
+                bPar.setCell(cell);
+                parallelBlocks.add(bPar);
+            }
+            parallelBlocks.forEach(this::add);
+            return !bundles.isEmpty();
+        }
+
+        /**
+         * Merge the first two blocks of the list that can be chained into a serial block
+         */
+        private boolean mergeChainedBlocks() {
+            if (chainPairs.isEmpty()) {
+                return false;
+            }
+            ChainPair pair = chainPairs.first();
+            Block b1 = pair.block1;
+            Block b2 = pair.block2;
+            LOGGER.trace(" Blocks chained : {} & {} on {}", b1, b2, pair.commonNode);
+            remove(b1);
+            remove(b2);
+            SerialBlock b = new SerialBlock(b1, b2, pair.commonNode);
+            b1.setParentBlock(b);
+            b2.setParentBlock(b);
+            b.setCell(cell);
+            add(b);
+            return true;
         }
     }
 
@@ -184,31 +350,6 @@ public class CellBlockDecomposer {
         return null;
     }
 
-    /**
-     * Compare two blocks to see if they are parallel
-     *
-     * @param block1 layout.block
-     * @param block2 layout.block
-     * @return true if the two blocks are similar : same start and end
-     */
-    private Node compareBlockParallel(Block block1, Block block2) {
-        Node s1 = block1.getStartingNode();
-        Node e1 = block1.getEndingNode();
-        Node s2 = block2.getStartingNode();
-        Node e2 = block2.getEndingNode();
-
-        if ((s1.checkNodeSimilarity(s2) && e1.checkNodeSimilarity(e2))
-                || (s1.checkNodeSimilarity(e2) && e1.checkNodeSimilarity(s2))) {
-            if (s1.equals(s2) || s1.equals(e2)) {
-                return s1;
-            } else {
-                return e1;
-            }
-        } else {
-            return null;
-        }
-    }
-
     /**
      * Search for primary layout.block
      * a primary layout.block is made of BUS|FICTICIOUS|FEEDER|SHUNT - n* SWITCH - BUS|FICTICIOUS|FEEDER|SHUNT
@@ -220,7 +361,7 @@ public class CellBlockDecomposer {
      * @param blocks         blocks
      */
     private void rElaboratePrimaryBlocks(Cell cell, Node currentNode, Node parentNode,
-                                         List<Node> alreadyTreated,
+                                         Set<Node> alreadyTreated,
                                          List<Node> blockNodes,
                                          List<Block> blocks) {
         Node currentNode2 = currentNode;
@@ -229,8 +370,8 @@ public class CellBlockDecomposer {
         alreadyTreated.add(currentNode2);
         blockNodes.add(currentNode2);
         while (currentNode2.getType() == Node.NodeType.SWITCH) {
-            Node nextNode = currentNode2.getAdjacentNodes().get(
-                    currentNode2.getAdjacentNodes().get(0).equals(parentNode2) ? 1 : 0);
+            Node nextNode = currentNode2.getAdjacentNode(
+                    currentNode2.getAdjacentNode(0).equals(parentNode2) ? 1 : 0);
             parentNode2 = currentNode2;
             currentNode2 = nextNode;
             if (currentNode2.getType() != Node.NodeType.BUS) {
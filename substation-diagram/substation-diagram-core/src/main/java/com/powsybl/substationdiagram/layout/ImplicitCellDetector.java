@@ -6,13 +6,20 @@
  */
 package com.powsybl.substationdiagram.layout;
 
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseRecorder;
 import com.powsybl.substationdiagram.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +31,9 @@ public class ImplicitCellDetector implements CellDetector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImplicitCellDetector.class);
 
+    private static final Set<Node.NodeType> SHUNT_BRANCH_STOP_TYPES = EnumSet.of(Node.NodeType.BUS,
+                                                                                  Node.NodeType.FEEDER,
+                                                                                  Node.NodeType.SHUNT);
 
     /**
      * internCell detection : an internal cell is composed of nodes connecting BUSes without connecting DEPARTure.
@@ -39,32 +49,43 @@ public class ImplicitCellDetector implements CellDetector {
      */
     @Override
     public void detectCells(Graph graph) {
+        PhaseRecorder recorder = graph.getPhaseRecorder();
+        recorder.record(Phase.PREPROCESSING, graph, () -> preprocess(graph));
+        recorder.record(Phase.CELL_DETECTION, graph, () -> detectPreprocessedCells(graph));
+    }
+
+    /**
+     * Rewrite the graph so that each feeder and each bus is reached through a single node
+     */
+    private static void preprocess(Graph graph) {
         graph.extendFeederWithMultipleSwitches();
         graph.extendFirstOutsideNode();
         graph.substituteSingularFictitiousByFeederNode();
         graph.substituteFictitiousNodesMirroringBusNodes();
         graph.extendBreakerConnectedToBus();
         graph.extendFeederConnectedToBus();
+    }
 
+    private void detectPreprocessedCells(Graph graph) {
         LOGGER.info("Detecting cells...");
 
-        List<Node> allocatedNodes = new ArrayList<>();
+        BitSet allocatedNodes = new BitSet(graph.getNodeIndexBound());
         // **************INTERN CELL*******************
-        List<Node.NodeType> exclusionTypes = new ArrayList<>();
-        exclusionTypes.add(Node.NodeType.FEEDER);
-        List<Node.NodeType> stopTypes = new ArrayList<>();
-        stopTypes.add(Node.NodeType.BUS);
+        Set<Node.NodeType> exclusionTypes = EnumSet.of(Node.NodeType.FEEDER);
+        Set<Node.NodeType> stopTypes = EnumSet.of(Node.NodeType.BUS);
         genericDetectCell(graph, stopTypes, exclusionTypes, true, allocatedNodes);
 
         // ****************EXTERN AND SHUNT CELLS******
         stopTypes.add(Node.NodeType.FEEDER);
-        genericDetectCell(graph, stopTypes, new ArrayList<>(), false, allocatedNodes);
+        genericDetectCell(graph, stopTypes, EnumSet.noneOf(Node.NodeType.class), false, allocatedNodes);
+        int[] localIndexes = new int[graph.getNodeIndexBound()];
+        Arrays.fill(localIndexes, -1);
         for (Cell cell : graph.getCells().stream()
                 .filter(cell -> cell.getType() == Cell.CellType.UNDEFINED)
                 .collect(Collectors.toList())) {
 
             //*****************EXTERN CELL
-            if (!typeExternCellReturnFalseIfShunt(graph, cell)) {
+            if (!typeExternCellReturnFalseIfShunt(cell, localIndexes)) {
                 //*****************SHUNT CELL
                 //in that case the cell is splitted into 2 EXTERN Cells and 1 SHUNT CELL
                 detectAndTypeShunt(graph, cell);
@@ -79,72 +100,103 @@ public class ImplicitCellDetector implements CellDetector {
      * @param typeStops      is the types of node that stops the exploration
      * @param exclusionTypes is the types when reached considers the exploration unsuccessful
      * @param isCellIntern   when the exploration is for the identification of internCell enables to instanciate InternCell class instead of Cell
-     * @param allocatedNodes is the list of nodes already allocated to a cell.
+     * @param allocatedNodes is the set of the indexes of the nodes already allocated to a cell.
      **/
     private void genericDetectCell(Graph graph,
-                                   List<Node.NodeType> typeStops,
-                                   List<Node.NodeType> exclusionTypes,
+                                   Set<Node.NodeType> typeStops,
+                                   Set<Node.NodeType> exclusionTypes,
                                    boolean isCellIntern,
-                                   List<Node> allocatedNodes) {
-        graph.getNodeBuses().forEach(bus -> {
-            List<BusNode> visitedBus = new ArrayList<>();
-            visitedBus.add(bus);
+                                   BitSet allocatedNodes) {
+        BitSet visitedNodes = new BitSet(graph.getNodeIndexBound());
+        graph.getNodeBuses().forEach(bus ->
             bus.getAdjacentNodes().forEach(adj -> {
                 List<Node> cellNodes = new ArrayList<>();
-                List<Node> visitedNodes = new ArrayList<>(allocatedNodes);
-                visitedNodes.addAll(visitedBus);
-                boolean searchOK = rDelimitedExploration(adj, typeStops, exclusionTypes, cellNodes, visitedNodes);
+                visitedNodes.clear();
+                visitedNodes.or(allocatedNodes);
+                visitedNodes.set(bus.getIndex());
+                boolean searchOK = delimitedExploration(adj, typeStops, exclusionTypes, cellNodes, visitedNodes);
                 if (searchOK && !cellNodes.isEmpty()) {
                     cellNodes.add(adj);
                     cellNodes.add(bus);
                     Cell cell = isCellIntern ? new InternCell(graph) : new Cell(graph);
                     cell.setNodes(cellNodes);
-                    allocatedNodes.addAll(cellNodes);
-                    // remove the BusNodes from allocatedNode for a BusNode can be part of many cells
-                    allocatedNodes.removeAll(
-                            cellNodes.stream()
-                                    .filter(node -> node.getType() == Node.NodeType.BUS)
-                                    .collect(Collectors.toList()));
+                    // the BusNodes are not allocated for a BusNode can be part of many cells
+                    cellNodes.stream()
+                            .filter(node -> node.getType() != Node.NodeType.BUS)
+                            .forEach(node -> allocatedNodes.set(node.getIndex()));
                 }
-            });
-        });
+            })
+        );
+    }
+
+    /**
+     * State of the exploration from a node: the adjacent nodes not explored yet when the node is reached,
+     * and the position of the next one to visit.
+     */
+    private static final class ExplorationStep {
+
+        private final Node node;
+
+        private final List<Node> nodesToVisit = new ArrayList<>();
+
+        private int next = 0;
+
+        private ExplorationStep(Node node, BitSet exploredNodes) {
+            this.node = node;
+            exploredNodes.set(node.getIndex());
+            for (int i = 0; i < node.getAdjacentEdgeCount(); i++) {
+                Node adj = node.getAdjacentNode(i);
+                if (!exploredNodes.get(adj.getIndex())) {
+                    nodesToVisit.add(adj);
+                }
+            }
+        }
     }
 
     /**
+     * Depth first exploration, with an explicit stack to support long chains of nodes.
+     * The nodes are added to the result when all the branches from them have been explored, as in a recursive
+     * exploration.
+     *
      * @param node           the starting point for the exploration
      * @param typeStops      is the types of node that stops the exploration
      * @param exclusionTypes is the types when reached considers the exploration unsuccessful
      * @param nodesResult    the resulting list of nodes
-     * @param exploredNodes  nodes already visited
+     * @param exploredNodes  indexes of the nodes already visited
      * @return true if no exclusionType found
      **/
-    private boolean rDelimitedExploration(Node node,
-                                          List<Node.NodeType> typeStops,
-                                          List<Node.NodeType> exclusionTypes,
-                                          List<Node> nodesResult,
-                                          List<Node> exploredNodes) {
+    private boolean delimitedExploration(Node node,
+                                         Set<Node.NodeType> typeStops,
+                                         Set<Node.NodeType> exclusionTypes,
+                                         List<Node> nodesResult,
+                                         BitSet exploredNodes) {
 
-        if (exploredNodes.contains(node)) {
+        if (exploredNodes.get(node.getIndex())) {
             return true;
         }
-        exploredNodes.add(node);
         // the node match the pattern if all the branches from its adjacent nodes reaches a typeStop node without reaching an exclusionTypes node
-        List<Node> nodesToVisit = new ArrayList<>(node.getAdjacentNodes());
-        nodesToVisit.removeAll(exploredNodes);
-        if (nodesToVisit.isEmpty()) {
-            return true;
-        }
-        for (Node n : nodesToVisit) {
+        Deque<ExplorationStep> steps = new ArrayDeque<>();
+        steps.push(new ExplorationStep(node, exploredNodes));
+        while (!steps.isEmpty()) {
+            ExplorationStep step = steps.peek();
+            if (step.next == step.nodesToVisit.size()) {
+                steps.pop();
+                if (!steps.isEmpty()) {
+                    nodesResult.add(step.node);
+                }
+                continue;
+            }
+            Node n = step.nodesToVisit.get(step.next++);
             if (exclusionTypes.contains(n.getType())) {
                 return false;
             } else if (typeStops.contains(n.getType())) {
                 nodesResult.add(n);
-                exploredNodes.add(n);
-            } else if (rDelimitedExploration(n, typeStops, exclusionTypes, nodesResult,
-                    exploredNodes)) {
+                exploredNodes.set(n.getIndex());
+            } else if (exploredNodes.get(n.getIndex())) {
+                // reached meanwhile through another branch
                 nodesResult.add(n);
             } else {
-                return false;
+                steps.push(new ExplorationStep(n, exploredNodes));
             }
         }
         return true;
@@ -153,53 +205,207 @@ public class ImplicitCellDetector implements CellDetector {
     /**
      * set Cell.type to Extern if the cell analysed is an external one, and return true in that case, else false (suspected shunt)
      *
-     * @param cell : the cell to analyse
+     * @param cell         : the cell to analyse
+     * @param localIndexes : array indexed by graph node index, filled with -1, used to number the cell nodes
      **/
-    private boolean typeExternCellReturnFalseIfShunt(Graph graph, Cell cell) {
-        /*Explore the graph of the candidate cell. Remove successively one node, assess if it splits the graph into n>1 branches
-        if so, then check if each component is exclusively reaching FEEDER or exclusively reaching BUS
-        And verify you have at least one of them
+    private boolean typeExternCellReturnFalseIfShunt(Cell cell, int[] localIndexes) {
+        /*Explore the graph of the candidate cell. Look for a node which, once removed, splits the graph into n>1 branches
+        each one exclusively reaching FEEDER or exclusively reaching BUS, with at least one of them.
         Return true in that case else false meaning there is one shunt
         */
+        List<Node> nodes = new ArrayList<>();
         for (Node n : cell.getNodes()) {
-            List<Node> nodes = new ArrayList<>(cell.getNodes());
-            nodes.remove(n);
-            List<List<Node>> connexComponents = graph.getConnexComponents(nodes);
-            if (checkExternComponents(connexComponents)) {
+            if (localIndexes[n.getIndex()] == -1) {
+                localIndexes[n.getIndex()] = nodes.size();
+                nodes.add(n);
+            }
+        }
+        try {
+            if (new CutNodeAnalysis(nodes, localIndexes).hasExternCutNode()) {
                 cell.setType(Cell.CellType.EXTERN);
                 return true;
             }
+            return false;
+        } finally {
+            nodes.forEach(n -> localIndexes[n.getIndex()] = -1);
         }
-        return false;
     }
 
     /**
-     * @param connexComponents components partition to analyse
-     * @return true if this partition reflects an extern cell
+     * Branches obtained by removing each node of a cell, computed for all the nodes in a single depth first search
+     * (Tarjan articulation points): a child subtree w of v in the DFS tree is a separate branch once v is removed
+     * if no back edge from the subtree of w goes above v.
+     * For each branch we only need to know if it reaches FEEDER and/or BUS nodes.
      */
-    private boolean checkExternComponents(List<List<Node>> connexComponents) {
-        if (connexComponents.size() > 1) {
-            boolean hasDepartBranch = false;
-            boolean hasBusBranch = false;
-            boolean hasMixBranch = false;
-            for (List<Node> nodesConnex : connexComponents) {
-                List<Node.NodeType> types = nodesConnex.stream()
-                        .map(Node::getType)
-                        .distinct().filter(t -> t == Node.NodeType.FEEDER || t == Node.NodeType.BUS)
-                        .collect(Collectors.toList());
-                if (types.size() == 2) {
-                    hasMixBranch = true;
-                } else if (types.isEmpty()) {
-                    return false;
-                } else if (types.get(0).equals(Node.NodeType.FEEDER)) {
-                    hasDepartBranch = true;
+    private static final class CutNodeAnalysis {
+
+        private static final int NONE = 0;
+        private static final int DEPART = 1;
+        private static final int BUS = 2;
+        private static final int MIX = 3;
+
+        private final List<Node> nodes;
+        private final int[] localIndexes;
+
+        private final int[] disc;
+        private final int[] low;
+        private final int[] parent;
+        private final int[] parentEdge;
+        private final int[] nextAdjacent;
+        private final int[] component;
+
+        // node counts of the DFS subtree of each node
+        private final int[] subSize;
+        private final int[] subFeeders;
+        private final int[] subBuses;
+
+        // node counts of the subtrees separated from each node, and kinds of these subtrees
+        private final int[] sepSize;
+        private final int[] sepFeeders;
+        private final int[] sepBuses;
+        private final int[] sepBranchCount;
+        private final boolean[][] sepKinds;
+
+        // node counts of each connected component, and number of components of each kind
+        private final int[] compSize;
+        private final int[] compFeeders;
+        private final int[] compBuses;
+        private final int[] compKindCounts = new int[4];
+        private int compCount = 0;
+
+        CutNodeAnalysis(List<Node> nodes, int[] localIndexes) {
+            this.nodes = nodes;
+            this.localIndexes = localIndexes;
+            int size = nodes.size();
+            disc = new int[size];
+            low = new int[size];
+            parent = new int[size];
+            parentEdge = new int[size];
+            nextAdjacent = new int[size];
+            component = new int[size];
+            subSize = new int[size];
+            subFeeders = new int[size];
+            subBuses = new int[size];
+            sepSize = new int[size];
+            sepFeeders = new int[size];
+            sepBuses = new int[size];
+            sepBranchCount = new int[size];
+            sepKinds = new boolean[size][4];
+            compSize = new int[size];
+            compFeeders = new int[size];
+            compBuses = new int[size];
+            Arrays.fill(disc, -1);
+        }
+
+        private static int kind(int feeders, int buses) {
+            return (feeders > 0 ? DEPART : NONE) | (buses > 0 ? BUS : NONE);
+        }
+
+        private int isFeeder(int v) {
+            return nodes.get(v).getType() == Node.NodeType.FEEDER ? 1 : 0;
+        }
+
+        private int isBus(int v) {
+            return nodes.get(v).getType() == Node.NodeType.BUS ? 1 : 0;
+        }
+
+        boolean hasExternCutNode() {
+            for (int root = 0; root < nodes.size(); root++) {
+                if (disc[root] == -1) {
+                    explore(root);
+                }
+            }
+            for (int v = 0; v < nodes.size(); v++) {
+                if (isExternCutNode(v)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void visit(int v, int p, int edgeIndex, int time) {
+            disc[v] = time;
+            low[v] = time;
+            parent[v] = p;
+            parentEdge[v] = edgeIndex;
+            component[v] = compCount;
+            subSize[v] = 1;
+            subFeeders[v] = isFeeder(v);
+            subBuses[v] = isBus(v);
+        }
+
+        private void explore(int root) {
+            int[] stack = new int[nodes.size()];
+            int top = 0;
+            int time = 0;
+            visit(root, -1, -1, time++);
+            stack[top++] = root;
+            while (top > 0) {
+                int v = stack[top - 1];
+                Node node = nodes.get(v);
+                if (nextAdjacent[v] < node.getAdjacentEdgeCount()) {
+                    Edge edge = node.getAdjacentEdge(nextAdjacent[v]++);
+                    int w = localIndexes[edge.getOtherNode(node).getIndex()];
+                    if (w == -1 || edge.getIndex() == parentEdge[v]) {
+                        // outside of the cell, or going back through the DFS tree edge
+                        continue;
+                    }
+                    if (disc[w] == -1) {
+                        visit(w, v, edge.getIndex(), time++);
+                        stack[top++] = w;
+                    } else {
+                        low[v] = Math.min(low[v], disc[w]);
+                    }
                 } else {
-                    hasBusBranch = true;
+                    top--;
+                    int p = parent[v];
+                    if (p != -1) {
+                        low[p] = Math.min(low[p], low[v]);
+                        subSize[p] += subSize[v];
+                        subFeeders[p] += subFeeders[v];
+                        subBuses[p] += subBuses[v];
+                        if (low[v] >= disc[p]) {
+                            sepSize[p] += subSize[v];
+                            sepFeeders[p] += subFeeders[v];
+                            sepBuses[p] += subBuses[v];
+                            sepBranchCount[p]++;
+                            sepKinds[p][kind(subFeeders[v], subBuses[v])] = true;
+                        }
+                    }
                 }
             }
-            return hasBusBranch && hasDepartBranch && !hasMixBranch;
+            compSize[compCount] = subSize[root];
+            compFeeders[compCount] = subFeeders[root];
+            compBuses[compCount] = subBuses[root];
+            compKindCounts[kind(subFeeders[root], subBuses[root])]++;
+            compCount++;
+        }
+
+        /**
+         * @return true if removing the node v gives a partition reflecting an extern cell
+         */
+        private boolean isExternCutNode(int v) {
+            int c = component[v];
+            boolean[] kinds = Arrays.copyOf(sepKinds[v], 4);
+            int branchCount = sepBranchCount[v] + compCount - 1;
+
+            // what remains of the component of v, above v in the DFS tree
+            int remainingSize = compSize[c] - 1 - sepSize[v];
+            if (remainingSize > 0) {
+                branchCount++;
+                kinds[kind(compFeeders[c] - isFeeder(v) - sepFeeders[v], compBuses[c] - isBus(v) - sepBuses[v])] = true;
+            }
+
+            // the other components are not modified
+            int ownKind = kind(compFeeders[c], compBuses[c]);
+            for (int k = 0; k < 4; k++) {
+                if (compKindCounts[k] - (k == ownKind ? 1 : 0) > 0) {
+                    kinds[k] = true;
+                }
+            }
+
+            return branchCount > 1 && !kinds[NONE] && kinds[DEPART] && kinds[BUS] && !kinds[MIX];
         }
-        return false;
     }
 
     /**
@@ -207,13 +413,12 @@ public class ImplicitCellDetector implements CellDetector {
      **/
     private void detectAndTypeShunt(Graph graph, Cell cell) {
 
-        List<Node> externalNodes = graph.getNodes()
-                .stream()
-                .filter(node -> !cell.getNodes().contains(node))
-                .collect(Collectors.toList());
+        BitSet externalNodes = new BitSet(graph.getNodeIndexBound());
+        externalNodes.set(0, graph.getNodeIndexBound());
+        cell.getNodes().forEach(node -> externalNodes.clear(node.getIndex()));
 
         for (Node n : cell.getNodes().stream()
-                .filter(n -> n.getAdjacentNodes().size() > 2).collect(Collectors.toList())) {
+                .filter(n -> n.getAdjacentEdgeCount() > 2).collect(Collectors.toList())) {
             // optimisation : a Shunt node has necessarily 3 ore more adjacent nodes
 
             List<Node> cellNodesExtern1 = checkCandidateShuntNode(n, externalNodes);
@@ -255,10 +460,7 @@ public class ImplicitCellDetector implements CellDetector {
         }
     }
 
-    private List<Node> checkCandidateShuntNode(Node n, List<Node> externalNodes) {
-        List<Node.NodeType> kindToFilter = Arrays.asList(Node.NodeType.BUS,
-                Node.NodeType.FEEDER,
-                Node.NodeType.SHUNT);
+    private List<Node> checkCandidateShuntNode(Node n, BitSet externalNodes) {
         /*
         the node n is candidate to be a SHUNT node if there is
         (i) at least one branch exclusively reaching BUSes
@@ -268,46 +470,42 @@ public class ImplicitCellDetector implements CellDetector {
         and returned in the cellNodesExtern
          */
 
-        List<Node> visitedNodes = new ArrayList<>(externalNodes);
-        visitedNodes.add(n); //removal of the node to explore branches from it
+        BitSet visitedNodes = (BitSet) externalNodes.clone();
+        visitedNodes.set(n.getIndex()); //removal of the node to explore branches from it
 
         List<Node> cellNodesExtern = new ArrayList<>();
         boolean hasDepartBranch = false;
         boolean hasBusBranch = false;
         boolean hasMixBranch = false;
 
-        List<Node> adjList = new ArrayList<>(n.getAdjacentNodes());
-        adjList.removeAll(visitedNodes);
+        List<Node> adjList = n.getAdjacentNodes();
+        adjList.removeIf(adj -> visitedNodes.get(adj.getIndex()));
         for (Node adj : adjList) {
-            if (!visitedNodes.contains(adj)) {
+            if (!visitedNodes.get(adj.getIndex())) {
                 List<Node> resultNodes = new ArrayList<>();
-                rDelimitedExploration(adj,
-                        kindToFilter,
-                        new ArrayList<>(),
+                delimitedExploration(adj,
+                        SHUNT_BRANCH_STOP_TYPES,
+                        EnumSet.noneOf(Node.NodeType.class),
                         resultNodes,
                         visitedNodes);
                 resultNodes.add(adj);
 
-                List<Node.NodeType> types = resultNodes.stream() // what are the types of terminal node of the branch
+                Set<Node.NodeType> types = EnumSet.noneOf(Node.NodeType.class); // what are the types of terminal node of the branch
+                resultNodes.stream()
                         .map(Node::getType)
-                        .distinct().filter(kindToFilter::contains)
-                        .collect(Collectors.toList());
+                        .filter(SHUNT_BRANCH_STOP_TYPES::contains)
+                        .forEach(types::add);
 
                 if (types.size() > 1) {
                     hasMixBranch = true;
-                } else {
-                    hasBusBranch |= types.get(0).equals(Node.NodeType.BUS);
-                    hasDepartBranch |= types.get(0).equals(Node.NodeType.FEEDER);
-
-                    if (types.get(0).equals(Node.NodeType.BUS) || types.get(0).equals(Node.NodeType.FEEDER)) {
-                        cellNodesExtern.addAll(resultNodes);
-                    }
+                } else if (types.contains(Node.NodeType.BUS) || types.contains(Node.NodeType.FEEDER)) {
+                    hasBusBranch |= types.contains(Node.NodeType.BUS);
+                    hasDepartBranch |= types.contains(Node.NodeType.FEEDER);
+                    cellNodesExtern.addAll(resultNodes);
                 }
-                visitedNodes.removeAll(resultNodes
-                        .stream()
-                        .filter(m -> m.getType().equals(Node.NodeType.BUS))
-                        .collect(Collectors.toList()));
-
+                resultNodes.stream()
+                        .filter(m -> m.getType() == Node.NodeType.BUS)
+                        .forEach(m -> visitedNodes.clear(m.getIndex()));
             }
         }
         return (hasBusBranch && hasDepartBranch && hasMixBranch) ? cellNodesExtern : null;
@@ -320,10 +518,10 @@ public class ImplicitCellDetector implements CellDetector {
                 .filter(node -> !cellNodesExtern1.contains(node))
                 .findAny().orElse(null);
         if (currentNode != null) {
-            while (currentNode.getAdjacentNodes().size() == 2) {
+            while (currentNode.getAdjacentEdgeCount() == 2) {
                 shuntCellNodes.add(currentNode);
-                currentNode = shuntCellNodes.contains(currentNode.getAdjacentNodes().get(0))
-                        ? currentNode.getAdjacentNodes().get(1) : currentNode.getAdjacentNodes().get(0);
+                currentNode = shuntCellNodes.contains(currentNode.getAdjacentNode(0))
+                        ? currentNode.getAdjacentNode(1) : currentNode.getAdjacentNode(0);
             }
             shuntCellNodes.add(currentNode);
             currentNode.setType(Node.NodeType.SHUNT);
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Allocates items spanning horizontal intervals to lanes, so that the items of a lane do not overlap.
+ * <p>
+ * Intervals are half open: two items overlap if each one starts before the end of the other, items only touching
+ * each other can share a lane. The items are swept by increasing start, each one taking the free lane of lowest
+ * index, which uses the minimum number of lanes, the maximum number of items overlapping at a position, in
+ * O(n log n).
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+final class LaneAllocator {
+
+    private LaneAllocator() {
+    }
+
+    /**
+     * @return the lanes, as the lists of their items ordered by start
+     */
+    static <T> List<List<T>> allocate(List<T> items, ToIntFunction<T> start, ToIntFunction<T> end) {
+        Objects.requireNonNull(items);
+        Objects.requireNonNull(start);
+        Objects.requireNonNull(end);
+
+        int n = items.size();
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = start.applyAsInt(items.get(i));
+            ends[i] = end.applyAsInt(items.get(i));
+            order[i] = i;
+        }
+        // by start, then by end so that an empty interval is freed before a longer one starting at the same position
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> starts[i]).thenComparingInt(i -> ends[i]));
+
+        List<List<T>> lanes = new ArrayList<>();
+        int[] laneEnds = new int[n];
+        // lanes whose last item is not ended yet, by end of this item
+        PriorityQueue<Integer> busyLanes = new PriorityQueue<>(Comparator.comparingInt(lane -> laneEnds[lane]));
+        PriorityQueue<Integer> freeLanes = new PriorityQueue<>();
+        for (int i : order) {
+            while (!busyLanes.isEmpty() && laneEnds[busyLanes.peek()] <= starts[i]) {
+                freeLanes.add(busyLanes.poll());
+            }
+            int lane;
+            if (freeLanes.isEmpty()) {
+                lane = lanes.size();
+                lanes.add(new ArrayList<>());
+            } else {
+                lane = freeLanes.poll();
+            }
+            lanes.get(lane).add(items.get(i));
+            laneEnds[lane] = ends[i];
+            busyLanes.add(lane);
+        }
+        return lanes;
+    }
+}
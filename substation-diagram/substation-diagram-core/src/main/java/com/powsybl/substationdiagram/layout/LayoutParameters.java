@@ -185,4 +185,30 @@ public class LayoutParameters {
         this.showInternalNodes = showInternalNodes;
         return this;
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(translateX, translateY, initialXBus, initialYBus, verticalSpaceBus, horizontalBusPadding,
+                            cellWidth, externCellHeight, internCellHeight, stackHeight, showGrid, showInternalNodes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LayoutParameters) {
+            LayoutParameters other = (LayoutParameters) obj;
+            return Double.compare(other.translateX, translateX) == 0
+                    && Double.compare(other.translateY, translateY) == 0
+                    && Double.compare(other.initialXBus, initialXBus) == 0
+                    && Double.compare(other.initialYBus, initialYBus) == 0
+                    && Double.compare(other.verticalSpaceBus, verticalSpaceBus) == 0
+                    && Double.compare(other.horizontalBusPadding, horizontalBusPadding) == 0
+                    && Double.compare(other.cellWidth, cellWidth) == 0
+                    && Double.compare(other.externCellHeight, externCellHeight) == 0
+                    && Double.compare(other.internCellHeight, internCellHeight) == 0
+                    && Double.compare(other.stackHeight, stackHeight) == 0
+                    && other.showGrid == showGrid
+                    && other.showInternalNodes == showInternalNodes;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import com.powsybl.substationdiagram.library.ComponentType;
+import com.powsybl.substationdiagram.model.BusNode;
+import com.powsybl.substationdiagram.model.FeederNode;
+import com.powsybl.substationdiagram.model.FicticiousNode;
+import com.powsybl.substationdiagram.model.Node;
+import com.powsybl.substationdiagram.model.SwitchNode;
+import generated.EdgePattern;
+import generated.NodePattern;
+import generated.Patterns.Pattern;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Search plan of a pattern, compiled once from its description.
+ * <p>
+ * The nodes of the pattern reached from its first node without going through a BusbarSection or a Cell node are
+ * matched by a depth first search (VF2 like): they are ordered so that each one is adjacent to an already matched
+ * node, starting from the most selective one, and the candidates for a node are the graph nodes adjacent to the
+ * node matched to its predecessor. Candidates are pruned on their kind, their degree and their adjacency to the
+ * other nodes already matched.
+ * BusbarSection and Cell nodes are terminals: they are matched independently for each pattern node they are
+ * connected to, among the graph nodes adjacent to it, the first suitable one being kept. As in the former
+ * recursive search, a BusbarSection node matches any bus node, several of them possibly matching the same bus,
+ * and a Cell node matches a node of a cell already found, each graph node being matched by at most one Cell node.
+ * <p>
+ * The matches differ from the ones of the former recursive search on two points, both intended:
+ * <ul>
+ *     <li>the edges between two nodes of the pattern reached by different paths (cycles) are checked, the
+ *     former search only checked the edges of a spanning tree of the pattern,</li>
+ *     <li>a graph node of a cell found by a previous match of the same pattern is never matched again, the
+ *     former search still used it as first node of a match, the node then belonging to two cells.</li>
+ * </ul>
+ * On the patterns of {@code pattern.xml} and the usual voltage level topologies, both searches detect the same
+ * cells.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+final class PatternMatcher {
+
+    /**
+     * Kinds of pattern nodes, the non terminal ones from the most to the least selective
+     */
+    enum Kind {
+        EQ(EnumSet.complementOf(EnumSet.of(ComponentType.BUSBAR_SECTION, ComponentType.BREAKER,
+                                           ComponentType.DISCONNECTOR, ComponentType.LOAD_BREAK_SWITCH))),
+        NODE(EnumSet.of(ComponentType.NODE)),
+        SWITCH(EnumSet.of(ComponentType.BREAKER, ComponentType.DISCONNECTOR, ComponentType.LOAD_BREAK_SWITCH,
+                          ComponentType.NODE)),
+        BUSBAR_SECTION(EnumSet.of(ComponentType.BUSBAR_SECTION)),
+        CELL(EnumSet.allOf(ComponentType.class));
+
+        /**
+         * Component types of the graph nodes this kind can match
+         */
+        private final Set<ComponentType> componentTypes;
+
+        Kind(Set<ComponentType> componentTypes) {
+            this.componentTypes = componentTypes;
+        }
+
+        static Kind fromPattern(String kind) {
+            switch (kind) {
+                case "EQ":
+                    return EQ;
+                case "Node":
+                    return NODE;
+                case "Switch":
+                    return SWITCH;
+                case "BusbarSection":
+                    return BUSBAR_SECTION;
+                case "Cell":
+                    return CELL;
+                default:
+                    return null;
+            }
+        }
+
+        boolean isTerminal() {
+            return this == BUSBAR_SECTION || this == CELL;
+        }
+
+        boolean matches(Node node) {
+            switch (this) {
+                case EQ:
+                    return node instanceof FeederNode;
+                case NODE:
+                    return node instanceof FicticiousNode;
+                case SWITCH:
+                    return node instanceof SwitchNode;
+                case BUSBAR_SECTION:
+                    return node instanceof BusNode;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    private final Pattern pattern;
+
+    private final boolean matchable;
+
+    // per pattern node to match, in the search order
+    private Kind[] kinds;
+    private int[] degrees;
+    private boolean[] exactDegrees;
+    private int[] predecessors;
+    private int[][] backNeighbours;
+    private Kind[][] terminalKinds;
+    private int[][] terminalDegrees;
+
+    PatternMatcher(Pattern pattern) {
+        this.pattern = Objects.requireNonNull(pattern);
+        this.matchable = compile();
+    }
+
+    Pattern getPattern() {
+        return pattern;
+    }
+
+    boolean isMatchable() {
+        return matchable;
+    }
+
+    private boolean compile() {
+        List<NodePattern> nodes = pattern.getNode();
+        Map<String, Integer> nodeIndexes = new HashMap<>();
+        Kind[] patternKinds = new Kind[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            nodeIndexes.put(nodes.get(i).getId(), i);
+            patternKinds[i] = Kind.fromPattern(nodes.get(i).getKind());
+            if (patternKinds[i] == null) {
+                return false;
+            }
+        }
+        List<List<Integer>> adjacency = new ArrayList<>();
+        nodes.forEach(n -> adjacency.add(new ArrayList<>()));
+        for (EdgePattern e : pattern.getEdge()) {
+            Integer source = nodeIndexes.get(e.getSource());
+            Integer target = nodeIndexes.get(e.getTarget());
+            if (source == null || target == null) {
+                return false;
+            }
+            adjacency.get(source).add(target);
+            adjacency.get(target).add(source);
+        }
+        if (nodes.isEmpty() || patternKinds[0].isTerminal()) {
+            return false;
+        }
+
+        // non terminal nodes reached from the first node of the pattern
+        List<Integer> inner = new ArrayList<>();
+        BitSet reached = new BitSet(nodes.size());
+        inner.add(0);
+        reached.set(0);
+        for (int i = 0; i < inner.size(); i++) {
+            for (int adj : adjacency.get(inner.get(i))) {
+                if (!reached.get(adj) && !patternKinds[adj].isTerminal()) {
+                    reached.set(adj);
+                    inner.add(adj);
+                }
+            }
+        }
+
+        // search order: the most selective kind first, then the node the most connected to the already ordered ones
+        Comparator<Integer> byDegree = Comparator.comparingInt(i -> -adjacency.get(i).size());
+        int[] order = new int[inner.size()];
+        int[] positions = new int[nodes.size()];
+        order[0] = inner.stream()
+                .min(Comparator.<Integer>comparingInt(i -> patternKinds[i].ordinal()).thenComparing(byDegree))
+                .orElseThrow(AssertionError::new);
+        BitSet ordered = new BitSet(nodes.size());
+        ordered.set(order[0]);
+        for (int k = 1; k < order.length; k++) {
+            order[k] = inner.stream()
+                    .filter(i -> !ordered.get(i))
+                    .min(Comparator.<Integer>comparingInt(i -> -(int) adjacency.get(i).stream().filter(ordered::get).count())
+                            .thenComparing(byDegree))
+                    .orElseThrow(AssertionError::new);
+            ordered.set(order[k]);
+        }
+        for (int k = 0; k < order.length; k++) {
+            positions[order[k]] = k;
+        }
+
+        kinds = new Kind[order.length];
+        degrees = new int[order.length];
+        exactDegrees = new boolean[order.length];
+        predecessors = new int[order.length];
+        backNeighbours = new int[order.length][];
+        terminalKinds = new Kind[order.length][];
+        terminalDegrees = new int[order.length][];
+        for (int k = 0; k < order.length; k++) {
+            int i = order[k];
+            kinds[k] = patternKinds[i];
+            degrees[k] = adjacency.get(i).size();
+            exactDegrees[k] = !nodes.get(i).isShuntPossible();
+            predecessors[k] = -1;
+            List<Integer> back = new ArrayList<>();
+            List<Integer> terminals = new ArrayList<>();
+            for (int adj : adjacency.get(i)) {
+                if (patternKinds[adj].isTerminal()) {
+                    terminals.add(adj);
+                } else if (positions[adj] < k && !back.contains(positions[adj])) {
+                    back.add(positions[adj]);
+                }
+            }
+            if (k > 0) {
+                predecessors[k] = back.stream().min(Integer::compare).orElseThrow(AssertionError::new);
+                back.remove(Integer.valueOf(predecessors[k]));
+            }
+            backNeighbours[k] = back.stream().mapToInt(Integer::intValue).toArray();
+            terminalKinds[k] = terminals.stream().map(t -> patternKinds[t]).toArray(Kind[]::new);
+            terminalDegrees[k] = terminals.stream()
+                    .mapToInt(t -> nodes.get(t).isShuntPossible() || patternKinds[t] == Kind.CELL ? -1 : adjacency.get(t).size())
+                    .toArray();
+        }
+        return true;
+    }
+
+    /**
+     * Candidates for the first node of the search, in the order of the graph nodes
+     *
+     * @param nodesByComponentType the graph nodes indexed by component type
+     */
+    List<Node> getStartCandidates(Map<ComponentType, List<Node>> nodesByComponentType) {
+        List<Node> candidates = new ArrayList<>();
+        if (matchable) {
+            for (ComponentType type : kinds[0].componentTypes) {
+                for (Node node : nodesByComponentType.getOrDefault(type, Collections.emptyList())) {
+                    if (kinds[0].matches(node)) {
+                        candidates.add(node);
+                    }
+                }
+            }
+            candidates.sort(Comparator.comparingInt(Node::getIndex));
+        }
+        return candidates;
+    }
+
+    /**
+     * Search the pattern with its first node matched to a given graph node
+     *
+     * @param start        graph node to match to the first node of the search
+     * @param nodesHandled indexes of the graph nodes of the cells already found, the nodes of the match are added to it
+     * @return the nodes of the match, or null if the pattern is not found
+     */
+    List<Node> match(Node start, BitSet nodesHandled) {
+        if (!matchable) {
+            return null;
+        }
+        Node[] mapping = new Node[kinds.length];
+        Node[][] terminals = new Node[kinds.length][];
+        BitSet used = new BitSet();
+        if (!isCandidate(0, start, mapping, terminals, used, nodesHandled)) {
+            return null;
+        }
+        mapping[0] = start;
+        used.set(start.getIndex());
+        if (!extend(1, mapping, terminals, used, nodesHandled)) {
+            return null;
+        }
+
+        List<Node> nodesCell = new ArrayList<>();
+        for (int k = 0; k < mapping.length; k++) {
+            nodesCell.add(mapping[k]);
+            nodesHandled.set(mapping[k].getIndex());
+            for (Node terminal : terminals[k]) {
+                if (!nodesCell.contains(terminal)) {
+                    nodesCell.add(terminal);
+                }
+            }
+        }
+        return nodesCell;
+    }
+
+    private boolean extend(int k, Node[] mapping, Node[][] terminals, BitSet used, BitSet nodesHandled) {
+        if (k == mapping.length) {
+            return true;
+        }
+        Node predecessor = mapping[predecessors[k]];
+        for (int i = 0; i < predecessor.getAdjacentEdgeCount(); i++) {
+            Node candidate = predecessor.getAdjacentNode(i);
+            if (isCandidate(k, candidate, mapping, terminals, used, nodesHandled)) {
+                mapping[k] = candidate;
+                used.set(candidate.getIndex());
+                if (extend(k + 1, mapping, terminals, used, nodesHandled)) {
+                    return true;
+                }
+                used.clear(candidate.getIndex());
+            }
+        }
+        mapping[k] = null;
+        return false;
+    }
+
+    private boolean isCandidate(int k, Node node, Node[] mapping, Node[][] terminals, BitSet used, BitSet nodesHandled) {
+        if (!kinds[k].matches(node) || nodesHandled.get(node.getIndex()) || used.get(node.getIndex())) {
+            return false;
+        }
+        int degree = node.getAdjacentEdgeCount();
+        if (degree < degrees[k] || exactDegrees[k] && degree != degrees[k]) {
+            return false;
+        }
+        for (int back : backNeighbours[k]) {
+            if (!isAdjacent(node, mapping[back])) {
+                return false;
+            }
+        }
+        terminals[k] = matchTerminals(k, node, terminals, nodesHandled);
+        return terminals[k] != null;
+    }
+
+    private Node[] matchTerminals(int k, Node node, Node[][] terminals, BitSet nodesHandled) {
+        Node[] matched = new Node[terminalKinds[k].length];
+        for (int t = 0; t < matched.length; t++) {
+            for (int i = 0; i < node.getAdjacentEdgeCount() && matched[t] == null; i++) {
+                Node adj = node.getAdjacentNode(i);
+                if (isTerminalCandidate(terminalKinds[k][t], terminalDegrees[k][t], adj, nodesHandled)
+                        && !contains(matched, adj)
+                        && (terminalKinds[k][t] != Kind.CELL || !isCellTerminal(k, adj, terminals))) {
+                    matched[t] = adj;
+                }
+            }
+            if (matched[t] == null) {
+                return null;
+            }
+        }
+        return matched;
+    }
+
+    private static boolean isTerminalCandidate(Kind kind, int degree, Node node, BitSet nodesHandled) {
+        if (kind == Kind.CELL) {
+            // a node of a cell already found
+            return nodesHandled.get(node.getIndex());
+        }
+        return kind.matches(node) && (degree == -1 || node.getAdjacentEdgeCount() == degree);
+    }
+
+    /**
+     * Check if a graph node is already matched to a Cell node of the pattern before the position k of the search
+     */
+    private boolean isCellTerminal(int k, Node node, Node[][] terminals) {
+        for (int j = 0; j < k; j++) {
+            for (int t = 0; t < terminals[j].length; t++) {
+                if (terminalKinds[j][t] == Kind.CELL && terminals[j][t] == node) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(Node[] nodes, Node node) {
+        for (Node n : nodes) {
+            if (n == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAdjacent(Node node1, Node node2) {
+        Node from = node1.getAdjacentEdgeCount() <= node2.getAdjacentEdgeCount() ? node1 : node2;
+        Node to = from == node1 ? node2 : node1;
+        for (int i = 0; i < from.getAdjacentEdgeCount(); i++) {
+            if (from.getAdjacentNode(i) == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +27,7 @@ public class PositionFree implements PositionFinder {
     private Graph graph;
     private Map<BusNode, Integer> nodeToNb;
     private Map<VerticalBusConnectionPattern, List<Cell>> vbcpToCells;
+    private VbcpIndex vbcpIndex;
     private List<HorizontalChain> hChains;
     private Map<BusNode, NodeBelonging> busToBelonging;
     private List<ConnectedCluster> connectedClusters;
@@ -35,8 +37,13 @@ public class PositionFree implements PositionFinder {
     private static final Cell.Direction DEFAULTDIRECTION = Cell.Direction.TOP;
 
     public PositionFree() {
+        init();
+    }
+
+    private void init() {
         nodeToNb = new HashMap<>();
-        vbcpToCells = new HashMap<>();
+        // in insertion order, so that the layout does not depend on the hash codes of the bus nodes
+        vbcpToCells = new LinkedHashMap<>();
         busToBelonging = new HashMap<>();
         connectedClusters = new ArrayList<>();
     }
@@ -44,8 +51,10 @@ public class PositionFree implements PositionFinder {
     @Override
     public void buildLayout(Graph graph) {
         LOGGER.info("start BuildLayout");
+        init();
         this.graph = graph;
         indexBusPosition();
+        vbcpIndex = new VbcpIndex(nodeToNb.size());
         initVbpcToCell();
         organizeWithInternCells();
 //
@@ -89,25 +98,26 @@ public class PositionFree implements PositionFinder {
                 .forEach(cell -> addBusNodeSet(cell.getBusNodes(), cell));
     }
 
+    /**
+     * Add the cell to the first pattern, in insertion order, including its bus nodes, or replace the first pattern
+     * included in its bus nodes
+     */
     private void addBusNodeSet(List<BusNode> busNodes, Cell cell) {
-        VerticalBusConnectionPattern vbcp = new VerticalBusConnectionPattern(busNodes);
-        VerticalBusConnectionPattern targetBcp = null;
-        for (Map.Entry<VerticalBusConnectionPattern, List<Cell>> entry : vbcpToCells.entrySet()) {
-            VerticalBusConnectionPattern vbcp1 = entry.getKey();
-            List<Cell> cells = entry.getValue();
-            if (vbcp.isIncludedIn(vbcp1)) {
-                targetBcp = vbcp1;
-            } else if (vbcp1.isIncludedIn(vbcp)) {
-                vbcpToCells.remove(vbcp1);
-                vbcpToCells.put(vbcp, cells);
-                targetBcp = vbcp;
-            }
-            if (targetBcp != null) {
-                break;
-            }
-        }
-        if (targetBcp == null) {
+        VerticalBusConnectionPattern vbcp = new VerticalBusConnectionPattern(nodeToNb, busNodes);
+        VerticalBusConnectionPattern including = vbcpIndex.findIncluding(vbcp);
+        VerticalBusConnectionPattern included = vbcpIndex.findIncluded(vbcp);
+        VerticalBusConnectionPattern targetBcp;
+        if (including != null && (included == null || including.rank <= included.rank)) {
+            targetBcp = including;
+        } else if (included != null) {
+            List<Cell> cells = vbcpToCells.remove(included);
+            vbcpIndex.remove(included);
+            vbcpToCells.put(vbcp, cells);
+            vbcpIndex.add(vbcp);
+            targetBcp = vbcp;
+        } else {
             vbcpToCells.put(vbcp, new ArrayList<>());
+            vbcpIndex.add(vbcp);
             targetBcp = vbcp;
         }
 
@@ -143,14 +153,14 @@ public class PositionFree implements PositionFinder {
 
         List<InternCell> verticalCells = structuringInternCells.stream()
                 .filter(internCell ->
-                        new VerticalBusConnectionPattern(internCell.getBusNodes()).isIncludedIn(vbcpToCells.keySet()) != null)
+                        vbcpIndex.findIncluding(new VerticalBusConnectionPattern(nodeToNb, internCell.getBusNodes())) != null)
                 .collect(Collectors.toList());
         structuringInternCells.removeAll(verticalCells);
         return structuringInternCells;
     }
 
     private List<HorizontalChain> chainNodeBusesWithFlatCells(List<InternCell> flatCells) {
-        Map<BusNode, List<InternCell>> bus2flatCells = new HashMap<>();
+        Map<BusNode, List<InternCell>> bus2flatCells = new LinkedHashMap<>();
         flatCells.forEach(cell ->
                 cell.getBusNodes().forEach(busNode -> {
                     bus2flatCells.putIfAbsent(busNode, new ArrayList<>());
@@ -165,8 +175,9 @@ public class PositionFree implements PositionFinder {
         //this sorting is to ensure that in most cases (non circular chain) the first bus of a chain is connected to
         // a single flat cell and constitutes one extremity of the chain.
 
-        Set<BusNode> remainingBus = new HashSet<>(graph.getNodeBuses());
-        remainingBus.removeAll(busConnectedToFlatCell);
+        List<BusNode> remainingBus = graph.getNodeBuses().stream()
+                .filter(bus -> !bus2flatCells.containsKey(bus))
+                .collect(Collectors.toList());
 
         while (!busConnectedToFlatCell.isEmpty()) {
             BusNode bus = busConnectedToFlatCell.get(0);
@@ -213,9 +224,9 @@ public class PositionFree implements PositionFinder {
     }
 
     private void buildConnexClusters() {
-        List<BusNode> remainingBuses = graph.getNodeBuses();
+        Set<BusNode> remainingBuses = new LinkedHashSet<>(graph.getNodeBuses());
         while (!remainingBuses.isEmpty()) {
-            connectedClusters.add(new ConnectedCluster(remainingBuses.get(0), remainingBuses));
+            connectedClusters.add(new ConnectedCluster(remainingBuses.iterator().next(), remainingBuses));
         }
     }
 
@@ -248,18 +259,31 @@ public class PositionFree implements PositionFinder {
         }
     }
 
-    private class VerticalBusConnectionPattern {
+    /**
+     * Set of bus nodes, also encoded as a bitset of their numbers given by {@link #indexBusPosition()}
+     */
+    static class VerticalBusConnectionPattern {
+        private final Map<BusNode, Integer> nodeToNb;
         private Set<BusNode> busNodeSet;
+        private BitSet busNbs;
+
+        /**
+         * Insertion rank in the index, -1 if not indexed
+         */
+        private int rank = -1;
 
-        VerticalBusConnectionPattern(List<BusNode> busNodees) {
+        VerticalBusConnectionPattern(Map<BusNode, Integer> nodeToNb, List<BusNode> busNodees) {
+            this.nodeToNb = Objects.requireNonNull(nodeToNb);
             busNodeSet = new TreeSet<>(Comparator.comparingInt(n -> nodeToNb.get(n)));
             busNodeSet.addAll(busNodees);
+            busNbs = new BitSet(nodeToNb.size() + 1);
+            busNodeSet.forEach(busNode -> busNbs.set(nodeToNb.get(busNode)));
         }
 
         @Override
         public boolean equals(Object o) {
             if (o instanceof VerticalBusConnectionPattern) {
-                return busNodeSet.equals(((VerticalBusConnectionPattern) o).busNodeSet);
+                return busNbs.equals(((VerticalBusConnectionPattern) o).busNbs);
             } else {
                 return false;
             }
@@ -267,31 +291,25 @@ public class PositionFree implements PositionFinder {
 
         @Override
         public int hashCode() {
-            return busNodeSet.hashCode();
+            return busNbs.hashCode();
         }
 
         boolean isIncludedIn(VerticalBusConnectionPattern vbcp2) {
-            Iterator<BusNode> it1 = busNodeSet.iterator();
-            Iterator<BusNode> it2 = vbcp2.getBusNodeSet().iterator();
-            boolean match = true;
-            while (it1.hasNext() && match) {
-                BusNode n1 = it1.next();
-                match = false;
-                while (it2.hasNext() && !match) {
-                    BusNode n2 = it2.next();
-                    match = n2 == n1;
-                }
-            }
-            return match;
+            BitSet notIncluded = (BitSet) busNbs.clone();
+            notIncluded.andNot(vbcp2.busNbs);
+            return notIncluded.isEmpty();
         }
 
-        VerticalBusConnectionPattern isIncludedIn(Set<VerticalBusConnectionPattern> busConnectionPatterns) {
-            for (VerticalBusConnectionPattern candidateBCPIncluser : busConnectionPatterns) {
-                if (isIncludedIn(candidateBCPIncluser)) {
-                    return candidateBCPIncluser;
-                }
-            }
-            return null;
+        boolean contains(BusNode busNode) {
+            Integer nb = nodeToNb.get(busNode);
+            return nb != null && busNbs.get(nb);
+        }
+
+        /**
+         * Number of the first bus node, 0 if none
+         */
+        int getFirstNb() {
+            return Math.max(busNbs.nextSetBit(0), 0);
         }
 
         Set<BusNode> getBusNodeSet() {
@@ -299,6 +317,67 @@ public class PositionFree implements PositionFinder {
         }
     }
 
+    /**
+     * Index of the vertical bus connection patterns by bus number: the patterns including a pattern are among the
+     * patterns containing any of its buses, the patterns included in a pattern are among the patterns whose first bus
+     * is one of its buses. As the patterns have few buses, inclusion is tested on few candidates, with bitset
+     * operations.
+     */
+    static class VbcpIndex {
+        private final List<Set<VerticalBusConnectionPattern>> vbcpsByNb = new ArrayList<>();
+        private final List<Set<VerticalBusConnectionPattern>> vbcpsByFirstNb = new ArrayList<>();
+        private final Set<VerticalBusConnectionPattern> vbcps = new LinkedHashSet<>();
+        private int nextRank = 0;
+
+        VbcpIndex(int busCount) {
+            // bus numbers start at 1, index 0 is for the patterns without bus
+            for (int nb = 0; nb <= busCount; nb++) {
+                vbcpsByNb.add(new HashSet<>());
+                vbcpsByFirstNb.add(new HashSet<>());
+            }
+        }
+
+        void add(VerticalBusConnectionPattern vbcp) {
+            vbcp.rank = nextRank++;
+            vbcps.add(vbcp);
+            vbcp.busNbs.stream().forEach(nb -> vbcpsByNb.get(nb).add(vbcp));
+            vbcpsByFirstNb.get(vbcp.getFirstNb()).add(vbcp);
+        }
+
+        void remove(VerticalBusConnectionPattern vbcp) {
+            vbcps.remove(vbcp);
+            vbcp.busNbs.stream().forEach(nb -> vbcpsByNb.get(nb).remove(vbcp));
+            vbcpsByFirstNb.get(vbcp.getFirstNb()).remove(vbcp);
+        }
+
+        private VerticalBusConnectionPattern first(Collection<VerticalBusConnectionPattern> candidates,
+                                                   Predicate<VerticalBusConnectionPattern> filter) {
+            return candidates.stream().filter(filter)
+                    .min(Comparator.comparingInt(candidate -> candidate.rank))
+                    .orElse(null);
+        }
+
+        /**
+         * First indexed pattern including the given one, null if none
+         */
+        VerticalBusConnectionPattern findIncluding(VerticalBusConnectionPattern vbcp) {
+            Collection<VerticalBusConnectionPattern> candidates = vbcp.busNbs.isEmpty() ? vbcps
+                    : vbcpsByNb.get(vbcp.busNbs.stream().boxed()
+                            .min(Comparator.comparingInt(nb -> vbcpsByNb.get(nb).size()))
+                            .orElseThrow(IllegalStateException::new));
+            return first(candidates, vbcp::isIncludedIn);
+        }
+
+        /**
+         * First indexed pattern included in the given one, null if none
+         */
+        VerticalBusConnectionPattern findIncluded(VerticalBusConnectionPattern vbcp) {
+            List<VerticalBusConnectionPattern> candidates = new ArrayList<>(vbcpsByFirstNb.get(0));
+            vbcp.busNbs.stream().forEach(nb -> candidates.addAll(vbcpsByFirstNb.get(nb)));
+            return first(candidates, candidate -> candidate.isIncludedIn(vbcp));
+        }
+    }
+
     private class HorizontalChain {
         List<BusNode> busNodes;
         int v;
@@ -356,8 +435,8 @@ public class PositionFree implements PositionFinder {
         List<VerticalBusConnectionPattern> vbcps;
         List<HorizontalChain> hChains;
 
-        ConnectedCluster(BusNode startingNode, List<BusNode> remainingBuses) {
-            buses = new HashSet<>();
+        ConnectedCluster(BusNode startingNode, Set<BusNode> remainingBuses) {
+            buses = new LinkedHashSet<>();
             rBuild(startingNode, remainingBuses);
             vbcps = buses.stream().flatMap(bus -> bus.vbcps.stream()).distinct().collect(Collectors.toList());
             hChains = buses.stream().map(bus -> bus.hChain).distinct().collect(Collectors.toList());
@@ -366,10 +445,9 @@ public class PositionFree implements PositionFinder {
             organizeHChainsVertically();
         }
 
-        private void rBuild(BusNode startingNode, List<BusNode> remainingBuses) {
-            if (remainingBuses.contains(startingNode)) {
+        private void rBuild(BusNode startingNode, Set<BusNode> remainingBuses) {
+            if (remainingBuses.remove(startingNode)) {
                 buses.add(busToBelonging.get(startingNode));
-                remainingBuses.remove(startingNode);
                 NodeBelonging nodeBelonging = busToBelonging.get(startingNode);
                 List<BusNode> busToHandle = nodeBelonging.vbcps.stream()
                         .flatMap(vbcp -> vbcp.busNodeSet.stream()).collect(Collectors.toList());
@@ -392,14 +470,16 @@ public class PositionFree implements PositionFinder {
                     .map(nodeBelonging -> nodeBelonging.hChain).collect(Collectors.toList());
         }
 
-        private BusNode intersectionNode(Collection<BusNode> busNodes1, Collection<BusNode> busNodes2) {
-            List<BusNode> intersectionList = new ArrayList<>(busNodes1);
-            intersectionList.retainAll(busNodes2);
-            if (intersectionList.isEmpty()) {
-                return null;
-            } else {
-                return intersectionList.get(0);
+        /**
+         * Position in the chain of its first bus node belonging to the pattern, -1 if none
+         */
+        private int intersectionPosition(HorizontalChain chain, VerticalBusConnectionPattern vbcp) {
+            for (int i = 0; i < chain.busNodes.size(); i++) {
+                if (vbcp.contains(chain.busNodes.get(i))) {
+                    return i;
+                }
             }
+            return -1;
         }
 
         // don't use it as a comparator : if 2 vbcp have no commonChains, the result is "equals",
@@ -411,8 +491,8 @@ public class PositionFree implements PositionFinder {
                 return 0;
             }
             for (HorizontalChain chain : commonChains) {
-                int index1 = chain.getPosition(intersectionNode(chain.busNodes, vbcp1.busNodeSet));
-                int index2 = chain.getPosition(intersectionNode(chain.busNodes, vbcp2.busNodeSet));
+                int index1 = intersectionPosition(chain, vbcp1);
+                int index2 = intersectionPosition(chain, vbcp2);
                 if (index1 != -1 && index2 != -1 && index1 != index2) {
                     return index1 - index2;
                 }
@@ -8,13 +8,22 @@ package com.powsybl.substationdiagram.layout;
 
 import com.powsybl.substationdiagram.model.Cell;
 import com.powsybl.substationdiagram.model.Graph;
-import com.powsybl.substationdiagram.model.Node;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.model.GraphCoordinatesBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
+ * Calculate the coordinates of a graph organized by a {@link BlockOrganizer}.
+ * <p>
+ * In parallel mode, the coordinates of the blocks of the cells are calculated concurrently on the fork-join pool of
+ * the caller, once the bus nodes are positioned; the shunt cells, positioned from the extern cells they link, are
+ * handled once all the other cells are.
+ *
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
  * @author Nicolas Duchene
  * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
@@ -25,37 +34,48 @@ public class PositionVoltageLevelLayout implements VoltageLevelLayout {
 
     private final Graph graph;
 
+    private final boolean parallel;
+
     public PositionVoltageLevelLayout(Graph graph) {
+        this(graph, false);
+    }
+
+    public PositionVoltageLevelLayout(Graph graph, boolean parallel) {
         this.graph = Objects.requireNonNull(graph);
+        this.parallel = parallel;
     }
 
     /**
      * Calculate real coordinate of busNode and blocks connected to busbar
      */
     @Override
-    public void run(LayoutParameters layoutParam) {
+    public GraphCoordinates calculateCoordinates(LayoutParameters layoutParam) {
         LOGGER.info("Running voltage level layout");
-        calculateBusNodeCoord(graph, layoutParam);
-        calculateCellCoord(graph, layoutParam);
-        graph.getNodes().stream()
-                .filter(node -> node.getType() != Node.NodeType.BUS)
-                .forEach(Node::finalizeCoord);
+        GraphCoordinatesBuilder coordinates = new GraphCoordinatesBuilder(graph);
+        calculateBusNodeCoord(graph, layoutParam, coordinates);
+        calculateCellCoord(graph, layoutParam, coordinates);
+        return coordinates.build();
+    }
+
+    private void calculateBusNodeCoord(Graph graph, LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        graph.getNodeBuses().forEach(nb -> nb.calculateCoord(layoutParam, coordinates));
     }
 
-    private void calculateBusNodeCoord(Graph graph, LayoutParameters layoutParam) {
-        graph.getNodeBuses().forEach(nb -> nb.calculateCoord(layoutParam));
+    private Stream<Cell> cellStream(Graph graph) {
+        Set<Cell> cells = graph.getCells();
+        return parallel ? cells.parallelStream() : cells.stream();
     }
 
-    private void calculateCellCoord(Graph graph, LayoutParameters layoutParam) {
-        graph.getCells().stream()
+    private void calculateCellCoord(Graph graph, LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        cellStream(graph)
                 .filter(cell -> cell.getType() == Cell.CellType.EXTERN
                         || cell.getType() == Cell.CellType.INTERN
                         || cell.getType() == Cell.CellType.INTERNBOUND)
                 .forEach(cell ->
-                                 cell.getRootBlock().calculateCoord(layoutParam));
-        graph.getCells().stream()
+                                 cell.getRootBlock().calculateCoord(layoutParam, coordinates));
+        cellStream(graph)
                 .filter(cell -> cell.getType() == Cell.CellType.SHUNT)
                 .forEach(cell ->
-                                 cell.getRootBlock().calculateCoord(layoutParam));
+                                 cell.getRootBlock().calculateCoord(layoutParam, coordinates));
     }
 }
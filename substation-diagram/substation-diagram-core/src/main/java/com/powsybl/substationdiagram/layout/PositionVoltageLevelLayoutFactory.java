@@ -8,6 +8,7 @@ package com.powsybl.substationdiagram.layout;
 
 import com.powsybl.substationdiagram.model.Graph;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -23,6 +24,8 @@ public class PositionVoltageLevelLayoutFactory implements VoltageLevelLayoutFact
 
     private boolean stack = true;
 
+    private boolean parallel = false;
+
     public PositionVoltageLevelLayoutFactory() {
         this(new ImplicitCellDetector(), new PositionFromExtension());
     }
@@ -40,14 +43,45 @@ public class PositionVoltageLevelLayoutFactory implements VoltageLevelLayoutFact
         this.stack = stack;
     }
 
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Organize the blocks and calculate the coordinates of the cells in parallel, see {@link BlockOrganizer}
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public VoltageLevelLayout create(Graph graph) {
         // detect cells
         cellDetector.detectCells(graph);
 
         // build blocks from cells
-        new BlockOrganizer(positionFinder, stack).organize(graph);
+        new BlockOrganizer(positionFinder, stack, parallel).organize(graph);
 
-        return new PositionVoltageLevelLayout(graph);
+        return new PositionVoltageLevelLayout(graph, parallel);
+    }
+
+    /**
+     * Cell detector or position finder key: its type when it has no configuration, itself otherwise, as a pattern cell
+     * detector depends on its patterns
+     */
+    private static Object getComponentKey(Object component) {
+        if (component instanceof ImplicitCellDetector || component instanceof PositionFromExtension
+                || component instanceof PositionFree) {
+            return component.getClass();
+        }
+        return component;
+    }
+
+    /**
+     * Type and configuration of the factory
+     */
+    @Override
+    public Object getCacheKey() {
+        return Arrays.asList(getClass(), getComponentKey(cellDetector), getComponentKey(positionFinder), stack, parallel);
     }
 }
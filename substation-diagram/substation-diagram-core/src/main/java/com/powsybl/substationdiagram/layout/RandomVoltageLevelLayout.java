@@ -7,6 +7,8 @@
 package com.powsybl.substationdiagram.layout;
 
 import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.model.GraphCoordinatesBuilder;
 import com.powsybl.substationdiagram.model.Node;
 import com.powsybl.substationdiagram.model.BusNode;
 
@@ -36,13 +38,15 @@ public class RandomVoltageLevelLayout implements VoltageLevelLayout {
     }
 
     @Override
-    public void run(LayoutParameters layoutParam) {
+    public GraphCoordinates calculateCoordinates(LayoutParameters layoutParam) {
+        GraphCoordinatesBuilder coordinates = new GraphCoordinatesBuilder(graph);
         for (Node node : graph.getNodes()) {
-            node.setX(random.nextDouble() * width);
-            node.setY(random.nextDouble() * height);
+            coordinates.setX(node, random.nextDouble() * width);
+            coordinates.setY(node, random.nextDouble() * height);
             if (node instanceof BusNode) {
-                ((BusNode) node).setPxWidth(50);
+                coordinates.setPxWidth((BusNode) node, 50);
             }
         }
+        return coordinates.build();
     }
 }
@@ -30,7 +30,19 @@ class SubSections {
     @JsonIgnore
     private static final Logger LOGGER = LoggerFactory.getLogger(SubSections.class);
     @JsonIgnore
-    private Map<SubSectionIndexes, HorizontalSubSection> subsectionMap;
+    private SortedMap<SubSectionIndexes, HorizontalSubSection> subsectionMap;
+
+    /**
+     * Subsections being built, before their merging and ordering
+     */
+    @JsonIgnore
+    private final Map<SubSectionIndexes, HorizontalSubSection> subsections = new HashMap<>();
+
+    /**
+     * Subsections being built, for each busbar vertical position and each index of section at this position
+     */
+    @JsonIgnore
+    private final List<Map<Integer, List<SubSectionIndexes>>> subsectionsBySection = new ArrayList<>();
 
     private static final String STR_SIDE = "\t side ";
 
@@ -48,9 +60,10 @@ class SubSections {
         private int order;
 
         HorizontalSubSection() {
-            cells = new HashSet<>();
+            // sorted, so that the cells are placed in the same order whatever their hash codes
+            cells = new TreeSet<>();
             externCells = new TreeSet<>();
-            internCells = new HashSet<>();
+            internCells = new TreeSet<>();
             busNodes = new HashSet<>();
             cellToSideMap = new HashMap<>();
             order = -1;
@@ -129,16 +142,16 @@ class SubSections {
         }
 
         Set<Cell> getCells() {
-            return new HashSet<>(cells);
+            return new TreeSet<>(cells);
         }
 
         Set<InternCell> getInternCells() {
-            return new HashSet<>(internCells);
+            return new TreeSet<>(internCells);
         }
 
         Set<InternCell> getSideInternCells(Side side) {
             return internCells.stream().filter(cell -> cellToSideMap.get(cell) == side)
-                    .collect(Collectors.toSet());
+                    .collect(Collectors.toCollection(TreeSet::new));
         }
 
         Map<InternCell, Side> getCellToSideMap() {
@@ -176,7 +189,7 @@ class SubSections {
 
         boolean asSameNonZeroIndexes(SubSectionIndexes ssI) {
             for (int i = 0; i < size; i++) {
-                int index = ssI.getIndexes()[i];
+                int index = ssI.indexes[i];
                 if (index != 0 && index != indexes[i]) {
                     return false;
                 }
@@ -195,7 +208,7 @@ class SubSections {
 
         @Override
         public int hashCode() {
-            return super.hashCode();
+            return Arrays.hashCode(indexes);
         }
 
         @Override
@@ -207,8 +220,8 @@ class SubSections {
         public int compareTo(@Nonnull SubSectionIndexes o) {
             boolean hasBoth0 = false;
             for (int i = 0; i < size; i++) {
-                if (indexes[i] != 0 && o.getIndexes()[i] != 0) {
-                    int index = o.getIndexes()[i];
+                if (indexes[i] != 0 && o.indexes[i] != 0) {
+                    int index = o.indexes[i];
                     if (indexes[i] != index) {
                         return indexes[i] - index;
                     }
@@ -217,7 +230,7 @@ class SubSections {
                 }
             }
             if (hasBoth0) {
-                return notObviousComp(o.getIndexes());
+                return notObviousComp(o.indexes);
             }
             return 0;
         }
@@ -236,23 +249,6 @@ class SubSections {
             return 0;
         }
 
-        SubSectionIndexes merge(SubSectionIndexes ssi) {
-            SubSectionIndexes resSsi = new SubSectionIndexes(size);
-            for (int i = 0; i < size; i++) {
-                if (ssi.indexes[i] != 0 && indexes[i] != 0) {
-                    if (ssi.indexes[i] != indexes[i]) {
-                        return new SubSectionIndexes(0);
-                    } else {
-                        resSsi.indexes[i] = indexes[i];
-                    }
-                } else {
-                    resSsi.indexes[i] = Math.max(ssi.indexes[i], indexes[i]);
-                }
-            }
-            resSsi.order = Math.max(ssi.order, order);
-            return resSsi;
-        }
-
     }
 
     void handleSpanningBusBar() {
@@ -299,15 +295,20 @@ class SubSections {
     }
 
     private void buildSubSections() {
+        int maxV = graph.getMaxBusStructuralPosition().getV();
+        for (int v = 0; v < maxV; v++) {
+            subsectionsBySection.add(new HashMap<>());
+        }
+
         graph.getCells().stream().filter(cell -> cell.getType() == Cell.CellType.EXTERN)
                 .forEach(cell -> allocateCellToSubsection(cell, cell.getBusNodes(), Side.UNDEFINED));
 
         Set<InternCell> internCells = graph.getCells().stream()
                 .filter(cell -> cell.getType() == Cell.CellType.INTERN || cell.getType() == Cell.CellType.INTERNBOUND)
-                .map(cell -> (InternCell) cell).collect(Collectors.toSet());
+                .map(cell -> (InternCell) cell).collect(Collectors.toCollection(TreeSet::new));
 
         Set<InternCell> verticalInternCells = internCells.stream().filter(this::verticalInternCell)
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(TreeSet::new));
         verticalInternCells.forEach(cell -> allocateCellToSubsection(cell, cell.getBusNodes(), Side.UNDEFINED));
 
         internCells.removeAll(verticalInternCells);
@@ -318,34 +319,180 @@ class SubSections {
                     allocateCellToSubsection(cell, cell.getSideBusNodes(Side.LEFT), Side.LEFT);
                     allocateCellToSubsection(cell, cell.getSideBusNodes(Side.RIGHT), Side.RIGHT);
                 });
-        mergeSimilarSubstations();
+        mergeSimilarSubsections();
+    }
+
+    /**
+     * Merges the subsections whose indexes are compatible, that is equal at the vertical positions where both are
+     * non zero, until no compatible subsections remain, and sorts the merged subsections.
+     * <p>
+     * The subsections are split into disjoint groups: each subsection, in the subsections order, joins the first
+     * created group compatible with it, or creates a new one. As the indexes of a group only get more non zero values,
+     * groups that are not compatible stay so. The compatible groups are found among the groups sharing a section with
+     * the subsection, or having no common vertical position with it: the groups are indexed by their non zero
+     * positions, and the first group of each set of positions disjoint from the ones of the subsection is looked up.
+     */
+    private void mergeSimilarSubsections() {
+        // sorted as in a tree map, the order of the indexes not being transitive in all cases
+        List<SubSectionIndexes> sortedIndexes = new ArrayList<>(new TreeSet<>(subsections.keySet()));
+        int count = sortedIndexes.size();
+        int maxV = subsectionsBySection.size();
+
+        // group of each subsection, as the rank of its first subsection
+        int[] groups = new int[count];
+        int[][] groupIndexes = new int[count][];
+        List<Map<Integer, List<Integer>>> groupsBySection = new ArrayList<>();
+        for (int v = 0; v < maxV; v++) {
+            groupsBySection.add(new HashMap<>());
+        }
+        // non empty sets of groups only, so that the sets of positions enumerated are the ones of existing groups
+        Map<BitSet, TreeSet<Integer>> groupsByPositions = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            int[] indexes = sortedIndexes.get(i).indexes;
+            BitSet positions = getNonZeroPositions(indexes);
+
+            int group = count;
+            for (int v = positions.nextSetBit(0); v >= 0; v = positions.nextSetBit(v + 1)) {
+                for (int candidate : groupsBySection.get(v).getOrDefault(indexes[v], Collections.emptyList())) {
+                    if (candidate < group && areCompatible(groupIndexes[candidate], indexes)) {
+                        group = candidate;
+                    }
+                }
+            }
+            group = Math.min(group, findFirstDisjointGroup(groupsByPositions, positions, maxV));
+
+            BitSet groupPositions;
+            if (group == count) {
+                group = i;
+                groupIndexes[group] = new int[maxV];
+                groupPositions = new BitSet();
+            } else {
+                groupPositions = getNonZeroPositions(groupIndexes[group]);
+                Set<Integer> positionsGroups = groupsByPositions.get(groupPositions);
+                positionsGroups.remove(group);
+                if (positionsGroups.isEmpty()) {
+                    groupsByPositions.remove(groupPositions);
+                }
+            }
+            groups[i] = group;
+            for (int v = positions.nextSetBit(0); v >= 0; v = positions.nextSetBit(v + 1)) {
+                if (groupIndexes[group][v] == 0) {
+                    groupIndexes[group][v] = indexes[v];
+                    groupPositions.set(v);
+                    groupsBySection.get(v).computeIfAbsent(indexes[v], k -> new ArrayList<>()).add(group);
+                }
+            }
+            groupsByPositions.computeIfAbsent(groupPositions, k -> new TreeSet<>()).add(group);
+        }
+
+        // the subsections of a group are merged in the subsections order into the first one
+        Map<Integer, HorizontalSubSection> groupSubsections = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            HorizontalSubSection hss = subsections.get(sortedIndexes.get(i));
+            HorizontalSubSection groupHss = groupSubsections.putIfAbsent(groups[i], hss);
+            if (groupHss != null) {
+                groupHss.merge(hss);
+            }
+        }
+        subsectionMap = new TreeMap<>();
+        groupSubsections.forEach((group, hss) -> {
+            SubSectionIndexes ssi = new SubSectionIndexes(maxV);
+            for (int v = 0; v < maxV; v++) {
+                ssi.setIndexI(v, groupIndexes[group][v]);
+            }
+            subsectionMap.put(ssi, hss);
+        });
+        subsections.clear();
+        subsectionsBySection.clear();
     }
 
-    private void mergeSimilarSubstations() {
-        boolean change = true;
-        while (change) {
-            change = false;
-            List<SubSectionIndexes> ssiList = new ArrayList<>(subsectionMap.keySet());
-            for (int i = 0; i < ssiList.size() && !change; i++) {
-                SubSectionIndexes ssi1 = ssiList.get(i);
-                for (int j = i + 1; j < ssiList.size() && !change; j++) {
-                    SubSectionIndexes ssi2 = ssiList.get(j);
-                    SubSectionIndexes newSSI = ssi1.merge(ssi2);
-                    if (newSSI.size != 0) {
-                        change = true;
-                        HorizontalSubSection hss1 = subsectionMap.get(ssi1);
-                        HorizontalSubSection hss2 = subsectionMap.get(ssi2);
-                        subsectionMap.remove(ssi1);
-                        subsectionMap.remove(ssi2);
-                        hss1.merge(hss2);
-                        if (subsectionMap.containsKey(newSSI)) {
-                            hss1.merge(subsectionMap.get(newSSI));
-                        }
-                        subsectionMap.put(newSSI, hss1);
+    /**
+     * First group whose non zero positions are disjoint from the given ones, {@link Integer#MAX_VALUE} if none. The
+     * sets of positions disjoint from the given ones are enumerated when they are fewer than the sets of positions
+     * of the groups, so that the lookup never gets slower than a scan of these sets.
+     */
+    private static int findFirstDisjointGroup(Map<BitSet, TreeSet<Integer>> groupsByPositions, BitSet positions,
+                                              int maxV) {
+        int group = Integer.MAX_VALUE;
+        BitSet free = new BitSet(maxV);
+        free.set(0, maxV);
+        free.andNot(positions);
+        int freeCount = free.cardinality();
+        if (freeCount < Integer.SIZE - 1 && 1 << freeCount < groupsByPositions.size()) {
+            int[] freePositions = free.stream().toArray();
+            for (int subset = 0; subset < 1 << freeCount; subset++) {
+                BitSet subsetPositions = new BitSet(maxV);
+                for (int b = 0; b < freeCount; b++) {
+                    if ((subset & (1 << b)) != 0) {
+                        subsetPositions.set(freePositions[b]);
                     }
                 }
+                TreeSet<Integer> groups = groupsByPositions.get(subsetPositions);
+                if (groups != null) {
+                    group = Math.min(group, groups.first());
+                }
+            }
+        } else {
+            for (Map.Entry<BitSet, TreeSet<Integer>> entry : groupsByPositions.entrySet()) {
+                if (!entry.getKey().intersects(positions)) {
+                    group = Math.min(group, entry.getValue().first());
+                }
+            }
+        }
+        return group;
+    }
+
+    private static BitSet getNonZeroPositions(int[] indexes) {
+        BitSet positions = new BitSet(indexes.length);
+        for (int v = 0; v < indexes.length; v++) {
+            if (indexes[v] != 0) {
+                positions.set(v);
+            }
+        }
+        return positions;
+    }
+
+    private static boolean areCompatible(int[] indexes1, int[] indexes2) {
+        for (int v = 0; v < indexes1.length; v++) {
+            if (indexes1[v] != 0 && indexes2[v] != 0 && indexes1[v] != indexes2[v]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private HorizontalSubSection getSubsection(SubSectionIndexes indexes) {
+        return subsections.computeIfAbsent(indexes, ssi -> {
+            for (int v = 0; v < ssi.size; v++) {
+                if (ssi.indexes[v] != 0) {
+                    subsectionsBySection.get(v).computeIfAbsent(ssi.indexes[v], k -> new ArrayList<>()).add(ssi);
+                }
             }
+            return new HorizontalSubSection();
+        });
+    }
+
+    /**
+     * Subsections having the same indexes as the given ones where they are not zero
+     */
+    private List<SubSectionIndexes> getCandidateSubsections(SubSectionIndexes indexes) {
+        // the smallest list of subsections sharing a section with the indexes, to filter
+        Collection<SubSectionIndexes> sectionSubsections = null;
+        for (int v = 0; v < indexes.size; v++) {
+            if (indexes.indexes[v] != 0) {
+                List<SubSectionIndexes> vSubsections = subsectionsBySection.get(v).getOrDefault(indexes.indexes[v], Collections.emptyList());
+                if (sectionSubsections == null || vSubsections.size() < sectionSubsections.size()) {
+                    sectionSubsections = vSubsections;
+                }
+            }
+        }
+        if (sectionSubsections == null) {
+            sectionSubsections = subsections.keySet();
         }
+        return sectionSubsections.stream()
+                .filter(ssi -> ssi.asSameNonZeroIndexes(indexes))
+                .collect(Collectors.toList());
     }
 
     private void allocateCellToSubsection(Cell cell, List<BusNode> busNodes, Side side) {
@@ -354,20 +501,17 @@ class SubSections {
                 .forEach(position -> indexes.setIndexI(position.getV() - 1, position.getH()));
 
         if (side == Side.UNDEFINED) {
-            subsectionMap.putIfAbsent(indexes, new HorizontalSubSection());
+            HorizontalSubSection hss = getSubsection(indexes);
             if (cell instanceof InternCell) {
-                subsectionMap.get(indexes).add((InternCell) cell, side);
+                hss.add((InternCell) cell, side);
             } else {
-                subsectionMap.get(indexes).add(cell);
+                hss.add(cell);
                 indexes.updateOrder(cell.getOrder());
             }
         } else {
-            Set<SubSectionIndexes> candidateSubsectionIndexes;
-            candidateSubsectionIndexes = subsectionMap.keySet().stream()
-                    .filter(ssi -> ssi.asSameNonZeroIndexes(indexes))
-                    .collect(Collectors.toSet());
+            List<SubSectionIndexes> candidateSubsectionIndexes = getCandidateSubsections(indexes);
             if (candidateSubsectionIndexes.isEmpty()) {
-                subsectionMap.put(indexes, new HorizontalSubSection());
+                getSubsection(indexes);
                 candidateSubsectionIndexes.add(indexes);
             }
             SubSectionIndexes ssI;
@@ -376,7 +520,7 @@ class SubSections {
             } else {
                 ssI = Collections.min(candidateSubsectionIndexes);
             }
-            subsectionMap.get(ssI).add((InternCell) cell, side);
+            subsections.get(ssI).add((InternCell) cell, side);
         }
     }
 
@@ -402,7 +546,7 @@ class SubSections {
         return stBdr.toString();
     }
 
-    Map<SubSectionIndexes, HorizontalSubSection> getSubsectionMap() {
-        return new TreeMap<>(subsectionMap);
+    SortedMap<SubSectionIndexes, HorizontalSubSection> getSubsectionMap() {
+        return Collections.unmodifiableSortedMap(subsectionMap);
     }
 }
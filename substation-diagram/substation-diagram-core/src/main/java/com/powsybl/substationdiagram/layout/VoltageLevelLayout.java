@@ -6,7 +6,15 @@
  */
 package com.powsybl.substationdiagram.layout;
 
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+
 /**
+ * A layout implements {@link #calculateCoordinates(LayoutParameters)}, {@link #run(LayoutParameters)} being derived
+ * from it. Layouts written before only implement {@link #run(LayoutParameters)}: they still compile and run, and
+ * {@link VoltageLevelLayouts#calculateCoordinates(VoltageLevelLayout, com.powsybl.substationdiagram.model.Graph, LayoutParameters)},
+ * used to write the diagrams, falls back to running them under the lock of the graph.
+ *
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
  * @author Nicolas Duchene
  * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
@@ -14,7 +22,19 @@ package com.powsybl.substationdiagram.layout;
 public interface VoltageLevelLayout {
 
     /**
-     * Calculate real coordinate of busbar and blocks connected to busbar
+     * Calculate real coordinate of busbar and blocks connected to busbar, without modifying the graph
+     *
+     * @throws PowsyblException if the layout only implements {@link #run(LayoutParameters)}, see
+     *                          {@link VoltageLevelLayouts#calculateCoordinates} for the fallback
+     */
+    default GraphCoordinates calculateCoordinates(LayoutParameters layoutParam) {
+        throw new PowsyblException(getClass().getName() + " does not calculate coordinates without modifying the graph");
+    }
+
+    /**
+     * Calculate real coordinate of busbar and blocks connected to busbar, and store them in the graph
      */
-    void run(LayoutParameters layoutParam);
+    default void run(LayoutParameters layoutParam) {
+        calculateCoordinates(layoutParam).apply();
+    }
 }
@@ -16,4 +16,15 @@ import com.powsybl.substationdiagram.model.Graph;
 public interface VoltageLevelLayoutFactory {
 
     VoltageLevelLayout create(Graph graph);
+
+    /**
+     * Key equal for the factories creating the same layouts, so that the diagrams built by one of them can be reused
+     * for the others, see {@link com.powsybl.substationdiagram.SubstationDiagramCache}. The key is taken when the
+     * diagram is built: a factory modified afterwards gets another key.
+     * <p>
+     * By default, the factory itself, the layouts of a factory being only reused for the same factory instance.
+     */
+    default Object getCacheKey() {
+        return this;
+    }
 }
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public final class VoltageLevelLayouts {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoltageLevelLayouts.class);
+
+    private static final AtomicBoolean RUN_ONLY_WARNED = new AtomicBoolean(false);
+
+    private VoltageLevelLayouts() {
+    }
+
+    /**
+     * Whether the layout only implements {@link VoltageLevelLayout#run(LayoutParameters)}, its class inheriting the
+     * default {@link VoltageLevelLayout#calculateCoordinates(LayoutParameters)}
+     */
+    static boolean isRunOnly(VoltageLevelLayout layout) {
+        try {
+            return layout.getClass().getMethod("calculateCoordinates", LayoutParameters.class).isDefault();
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Calculate the coordinates of the graph the layout was created for, without modifying the graph.
+     * <p>
+     * As a compatibility fallback, a layout only implementing {@link VoltageLevelLayout#run(LayoutParameters)} is run
+     * under the lock of the graph, and the coordinates it stored in the graph are copied. Such a layout modifies the
+     * graph, so that the same graph cannot be laid out concurrently.
+     */
+    public static GraphCoordinates calculateCoordinates(VoltageLevelLayout layout, Graph graph,
+                                                        LayoutParameters layoutParam) {
+        Objects.requireNonNull(layout);
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(layoutParam);
+        if (!isRunOnly(layout)) {
+            return layout.calculateCoordinates(layoutParam);
+        }
+        if (RUN_ONLY_WARNED.compareAndSet(false, true)) {
+            LOGGER.warn("{} only implements run: the graphs it lays out cannot be laid out concurrently",
+                        layout.getClass().getName());
+        }
+        synchronized (graph) {
+            layout.run(layoutParam);
+            return GraphCoordinates.of(graph);
+        }
+    }
+}
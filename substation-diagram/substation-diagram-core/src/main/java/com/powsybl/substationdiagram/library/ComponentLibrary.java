@@ -11,6 +11,9 @@ import org.apache.batik.anim.dom.SVGOMDocument;
 import java.util.List;
 
 /**
+ * Library of the components drawn in the diagrams. A library is shared by the writers, so implementations have to
+ * be thread safe.
+ *
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
  * @author Nicolas Duchene
  * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
@@ -19,6 +22,10 @@ public interface ComponentLibrary {
 
     List<AnchorPoint> getAnchorPoints(ComponentType type);
 
+    /**
+     * Get the SVG document of a component. Batik DOM not being thread safe, the document must not be used by other
+     * threads than the calling one.
+     */
     SVGOMDocument getSvgDocument(ComponentType type);
 
     ComponentSize getSize(ComponentType type);
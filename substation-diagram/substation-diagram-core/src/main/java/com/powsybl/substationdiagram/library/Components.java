@@ -25,6 +25,25 @@ import java.util.List;
 @XmlRootElement(name = "components")
 public class Components {
 
+    /**
+     * A JAXB context is costly to create and thread safe, so it is shared
+     */
+    private static final class JaxbContextHolder {
+
+        private static final JAXBContext CONTEXT = createContext();
+
+        private static JAXBContext createContext() {
+            try {
+                return JAXBContext.newInstance(Components.class);
+            } catch (JAXBException e) {
+                throw new UncheckedJaxbException(e);
+            }
+        }
+
+        private JaxbContextHolder() {
+        }
+    }
+
     @XmlElement(name = "component")
     private final List<Component> components = new ArrayList<>();
 
@@ -38,8 +57,7 @@ public class Components {
 
     public static Components load(InputStream is) {
         try {
-            JAXBContext jc = JAXBContext.newInstance(Components.class);
-            Unmarshaller unmarshaller = jc.createUnmarshaller();
+            Unmarshaller unmarshaller = JaxbContextHolder.CONTEXT.createUnmarshaller();
             return (Components) unmarshaller.unmarshal(is);
         } catch (JAXBException e) {
             throw new UncheckedJaxbException(e);
@@ -7,15 +7,28 @@
 package com.powsybl.substationdiagram.library;
 
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.substationdiagram.svg.SVGLoaderToDocument;
 import org.apache.batik.anim.dom.SVGOMDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Component library read from the resources. The metadata of the components are read on creation, the SVG of a
+ * component on its first use.
+ * <p>
+ * The library is thread safe. As Batik DOM is not, the SVG documents are confined to the threads: the content of a
+ * component SVG is read once, and each thread parses its own document from it.
+ *
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
  * @author Nicolas Duchene
  * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
@@ -24,37 +37,66 @@ public class ResourcesComponentLibrary implements ComponentLibrary {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ResourcesComponentLibrary.class);
 
-    private final Map<ComponentType, SVGOMDocument> svgDocuments = new HashMap<>();
+    private static final ConcurrentMap<String, ResourcesComponentLibrary> INSTANCES = new ConcurrentHashMap<>();
 
-    private final Map<ComponentType, Component> components;
+    private final String directory;
+
+    private final Map<ComponentType, Component> components = new EnumMap<>(ComponentType.class);
+
+    private final ConcurrentMap<ComponentType, byte[]> svgContents = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Map<ComponentType, SVGOMDocument>> svgDocuments
+            = ThreadLocal.withInitial(() -> new EnumMap<>(ComponentType.class));
 
     public ResourcesComponentLibrary(String directory) {
-        Objects.requireNonNull(directory);
+        this.directory = Objects.requireNonNull(directory);
         LOGGER.info("Loading component library from {}...", directory);
 
-        components = Components.load(directory).getComponents()
-                .stream()
-                .collect(Collectors.toMap(c -> c.getMetadata().getType(), c -> c));
+        for (Component component : Components.load(directory).getComponents()) {
+            components.put(component.getMetadata().getType(), component);
+        }
 
         Set<ComponentType> diff = Sets.difference(EnumSet.copyOf(Arrays.asList(ComponentType.values())), components.keySet());
 //        if (!diff.isEmpty()) {
 //            throw new PowsyblException("Incomplete component library, " + diff + " component are missing");
 //        }
+    }
 
-        // preload SVG documents
-        SVGLoaderToDocument svgLoadDoc = new SVGLoaderToDocument();
-        for (Component component : components.values()) {
-            String resourceName = directory + "/" + component.getFileName();
-            LOGGER.debug("Reading component {}", resourceName);
-            SVGOMDocument doc = svgLoadDoc.read(resourceName);
-            svgDocuments.put(component.getMetadata().getType(), doc);
+    /**
+     * Get the library of a resources directory, shared by all the callers
+     */
+    public static ResourcesComponentLibrary getInstance(String directory) {
+        Objects.requireNonNull(directory);
+        return INSTANCES.computeIfAbsent(directory, ResourcesComponentLibrary::new);
+    }
+
+    private byte[] readSvgContent(Component component) {
+        String resourceName = directory + "/" + component.getFileName();
+        LOGGER.debug("Reading component {}", resourceName);
+        try (InputStream is = getClass().getResourceAsStream(resourceName)) {
+            if (is == null) {
+                throw new PowsyblException("Component SVG file not found: " + resourceName);
+            }
+            return ByteStreams.toByteArray(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * @return the SVG document of the component, owned by the calling thread
+     */
     @Override
     public SVGOMDocument getSvgDocument(ComponentType type) {
         Objects.requireNonNull(type);
-        return svgDocuments.get(type);
+        Component component = components.get(type);
+        if (component == null) {
+            return null;
+        }
+        return svgDocuments.get().computeIfAbsent(type, t -> {
+            byte[] content = svgContents.computeIfAbsent(t, t2 -> readSvgContent(component));
+            return new SVGLoaderToDocument().read(new ByteArrayInputStream(content));
+        });
     }
 
     @Override
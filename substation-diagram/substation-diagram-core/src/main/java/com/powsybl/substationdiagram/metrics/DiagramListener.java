@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.metrics;
+
+/**
+ * Receives the metrics of each phase of the diagram generation of a voltage level, as soon as the phase is
+ * completed. The listener is called from the thread running the phase.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+@FunctionalInterface
+public interface DiagramListener {
+
+    /**
+     * Listener ignoring all the metrics, the phases are then not measured at all
+     */
+    DiagramListener NONE = metrics -> { };
+
+    void phaseCompleted(PhaseMetrics metrics);
+}
@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.metrics;
+
+/**
+ * Phases of the diagram generation, in the order they are run.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public enum Phase {
+    GRAPH_BUILD,
+    PREPROCESSING,
+    CELL_DETECTION,
+    BLOCK_DECOMPOSITION,
+    POSITION_FINDING,
+    SUBSECTIONS,
+    COORDINATES,
+    SVG_WRITING,
+    METADATA_WRITING
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.metrics;
+
+import java.util.Objects;
+
+/**
+ * Metrics of a phase of the diagram generation of a voltage level. The counts are those of the graph at the end of
+ * the phase.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public final class PhaseMetrics {
+
+    private final String voltageLevelId;
+
+    private final Phase phase;
+
+    private final long wallTime;
+
+    private final long cpuTime;
+
+    private final long allocatedBytes;
+
+    private final int nodeCount;
+
+    private final int edgeCount;
+
+    private final int cellCount;
+
+    private final int blockCount;
+
+    public PhaseMetrics(String voltageLevelId, Phase phase, long wallTime, long cpuTime, long allocatedBytes,
+                        int nodeCount, int edgeCount, int cellCount, int blockCount) {
+        this.voltageLevelId = Objects.requireNonNull(voltageLevelId);
+        this.phase = Objects.requireNonNull(phase);
+        this.wallTime = wallTime;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.cellCount = cellCount;
+        this.blockCount = blockCount;
+    }
+
+    public String getVoltageLevelId() {
+        return voltageLevelId;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the elapsed time in nanoseconds
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * @return the CPU time of the thread in nanoseconds, -1 if not supported by the JVM
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return the bytes allocated by the thread, -1 if not supported by the JVM
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    @Override
+    public String toString() {
+        return voltageLevelId + " " + phase + ": wallTime=" + wallTime + "ns, cpuTime=" + cpuTime
+                + "ns, allocatedBytes=" + allocatedBytes + ", nodes=" + nodeCount + ", edges=" + edgeCount
+                + ", cells=" + cellCount + ", blocks=" + blockCount;
+    }
+}
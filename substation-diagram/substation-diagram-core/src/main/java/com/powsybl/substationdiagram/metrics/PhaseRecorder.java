@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.metrics;
+
+import com.powsybl.substationdiagram.model.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Measures the phases of the diagram generation of a voltage level and reports them to a {@link DiagramListener}
+ * and to the {@link PhaseTracer}s found on the classpath. With {@link DiagramListener#NONE} and no tracer recording,
+ * the phases are simply run, so nothing is measured nor counted.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public final class PhaseRecorder {
+
+    public static final PhaseRecorder NONE = new PhaseRecorder("", DiagramListener.NONE);
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final List<PhaseTracer> TRACERS = loadTracers();
+
+    private final String voltageLevelId;
+
+    private final DiagramListener listener;
+
+    public PhaseRecorder(String voltageLevelId, DiagramListener listener) {
+        this.voltageLevelId = Objects.requireNonNull(voltageLevelId);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    private static List<PhaseTracer> loadTracers() {
+        List<PhaseTracer> tracers = new ArrayList<>();
+        for (PhaseTracer tracer : ServiceLoader.load(PhaseTracer.class)) {
+            tracers.add(tracer);
+        }
+        return tracers;
+    }
+
+    public boolean isEnabled() {
+        return listener != DiagramListener.NONE;
+    }
+
+    /**
+     * Run a phase on a graph and report its metrics
+     */
+    public void record(Phase phase, Graph graph, Runnable runnable) {
+        Objects.requireNonNull(runnable);
+        record(phase, graph, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a phase on a graph and report its metrics
+     *
+     * @return the result of the phase
+     */
+    public <T> T record(Phase phase, Graph graph, Supplier<T> supplier) {
+        Objects.requireNonNull(phase);
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(supplier);
+        List<PhaseTracer.Span> spans = beginSpans(phase);
+        if (!isEnabled() && spans.isEmpty()) {
+            return supplier.get();
+        }
+
+        long startAllocatedBytes = getAllocatedBytes();
+        long startCpuTime = getCpuTime();
+        long startTime = System.nanoTime();
+
+        T result = supplier.get();
+
+        long wallTime = System.nanoTime() - startTime;
+        long endCpuTime = getCpuTime();
+        long endAllocatedBytes = getAllocatedBytes();
+
+        Set<Cell> cells = graph.getCells();
+        int blockCount = 0;
+        for (Cell cell : cells) {
+            blockCount += countBlocks(cell.getRootBlock());
+        }
+        PhaseMetrics metrics = new PhaseMetrics(voltageLevelId, phase, wallTime,
+                                                startCpuTime != -1 ? endCpuTime - startCpuTime : -1,
+                                                startAllocatedBytes != -1 ? endAllocatedBytes - startAllocatedBytes : -1,
+                                                graph.getNodeCount(), graph.getEdgeCount(), cells.size(),
+                                                blockCount);
+        for (PhaseTracer.Span span : spans) {
+            span.end(metrics);
+        }
+        listener.phaseCompleted(metrics);
+        return result;
+    }
+
+    private List<PhaseTracer.Span> beginSpans(Phase phase) {
+        if (TRACERS.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PhaseTracer.Span> spans = new ArrayList<>(TRACERS.size());
+        for (PhaseTracer tracer : TRACERS) {
+            PhaseTracer.Span span = tracer.begin(phase, voltageLevelId);
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    private static int countBlocks(Block block) {
+        if (block == null) {
+            return 0;
+        }
+        int count = 1;
+        if (block instanceof SerialBlock) {
+            count += countBlocks(((SerialBlock) block).getUpperBlock());
+            count += countBlocks(((SerialBlock) block).getLowerBlock());
+        } else if (block instanceof ParallelBlock) {
+            for (Block subBlock : ((ParallelBlock) block).getSubBlocks()) {
+                count += countBlocks(subBlock);
+            }
+        }
+        return count;
+    }
+
+    private static long getCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long getAllocatedBytes() {
+        // allocated bytes are only available through the HotSpot extension of the thread MXBean
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (hotSpotBean.isThreadAllocatedMemorySupported() && hotSpotBean.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.metrics;
+
+/**
+ * Traces the phases of all the diagram generations, whatever the listener given by the caller. Implementations are
+ * discovered with the {@link java.util.ServiceLoader}, so adding one to the classpath is enough to enable it.
+ * <p>
+ * Tracing is meant to be always on, so a tracer that is not currently recording must return a null span: the
+ * metrics of the phase are then not even computed.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public interface PhaseTracer {
+
+    interface Span {
+
+        void end(PhaseMetrics metrics);
+    }
+
+    /**
+     * Called before a phase
+     *
+     * @return the span ended with the metrics of the phase, or null if the phase is not traced
+     */
+    Span begin(Phase phase, String voltageLevelId);
+}
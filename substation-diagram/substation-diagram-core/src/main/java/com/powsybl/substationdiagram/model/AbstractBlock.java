@@ -166,22 +166,22 @@ public abstract class AbstractBlock implements Block {
     }
 
     @Override
-    public void calculateCoord(LayoutParameters layoutParam) {
+    public void calculateCoord(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
         if (cell.getType() == Cell.CellType.SHUNT) {
-            ((PrimaryBlock) this).coordShuntCase();
+            ((PrimaryBlock) this).coordShuntCase(coordinates);
         } else {
             if (getParentBlock() == null || getPosition().isAbsolute()) {
-                calculateRootCoord(layoutParam);
+                calculateRootCoord(layoutParam, coordinates.getCoord(this));
             }
             if (getPosition().getOrientation() == Orientation.VERTICAL) {
-                coordVerticalCase(layoutParam);
+                coordVerticalCase(layoutParam, coordinates);
             } else {
-                coordHorizontalCase(layoutParam);
+                coordHorizontalCase(layoutParam, coordinates);
             }
         }
     }
 
-    private void calculateRootCoord(LayoutParameters layoutParam) {
+    private void calculateRootCoord(LayoutParameters layoutParam, Coord coord) {
         double dyToBus = 0;
         coord.setXSpan((double) position.getHSpan() * layoutParam.getCellWidth());
         if (cell.getType() == Cell.CellType.INTERN || cell.getType() == Cell.CellType.INTERNBOUND) {
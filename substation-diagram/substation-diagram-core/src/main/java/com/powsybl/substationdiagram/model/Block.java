@@ -54,13 +54,13 @@ public interface Block {
      * Calculates all the blocks dimensions and find the order of the layout.block inside
      * the cell
      */
-    void calculateCoord(LayoutParameters layoutParam);
+    void calculateCoord(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates);
 
     int getOrder();
 
-    void coordVerticalCase(LayoutParameters layoutParam);
+    void coordVerticalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates);
 
-    void coordHorizontalCase(LayoutParameters layoutParam);
+    void coordHorizontalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates);
 
     int getCardinality(Node commonNode);
 
@@ -46,13 +46,13 @@ public class BusNode extends Node {
         return new BusNode(id, id, true, graph);
     }
 
-    public void calculateCoord(LayoutParameters layoutParameters) {
-        setY(layoutParameters.getInitialYBus() +
+    public void calculateCoord(LayoutParameters layoutParameters, GraphCoordinatesBuilder coordinates) {
+        coordinates.setY(this, layoutParameters.getInitialYBus() +
                      (position.getV() - 1) * layoutParameters.getVerticalSpaceBus());
-        setX(layoutParameters.getInitialXBus()
+        coordinates.setX(this, layoutParameters.getInitialXBus()
                      + position.getH() * layoutParameters.getCellWidth()
                      + layoutParameters.getHorizontalBusPadding() / 2);
-        setPxWidth(position.getHSpan() * layoutParameters.getCellWidth() - layoutParameters.getHorizontalBusPadding());
+        coordinates.setPxWidth(this, position.getHSpan() * layoutParameters.getCellWidth() - layoutParameters.getHorizontalBusPadding());
     }
 
     public double getPxWidth() {
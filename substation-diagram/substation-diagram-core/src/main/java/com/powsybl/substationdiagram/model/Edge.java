@@ -19,6 +19,10 @@ public class Edge {
 
     private final Node node2;
 
+    private int index = -1;
+
+    private String id;
+
     /**
      * Constructor
      * @param node1 node1
@@ -36,4 +40,30 @@ public class Edge {
     public Node getNode2() {
         return node2;
     }
+
+    /**
+     * Index of the edge in its graph, stable as long as the edge is not removed. -1 if not in a graph.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Id of the edge, assigned by its graph from the ids of its nodes. null if not in a graph.
+     */
+    public String getId() {
+        return id;
+    }
+
+    void setId(String id) {
+        this.id = id;
+    }
+
+    public Node getOtherNode(Node node) {
+        return node1 == node ? node2 : node1;
+    }
 }
@@ -20,6 +20,6 @@ public class FicticiousNode extends Node {
     }
 
     public int getCardinality() {
-        return this.getAdjacentNodes().size() - (getType() == NodeType.SHUNT ? 1 : 0);
+        return getAdjacentEdgeCount() - (getType() == NodeType.SHUNT ? 1 : 0);
     }
 }
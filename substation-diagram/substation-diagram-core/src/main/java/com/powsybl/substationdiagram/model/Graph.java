@@ -12,7 +12,11 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.iidm.network.*;
+import com.powsybl.substationdiagram.metrics.DiagramListener;
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseRecorder;
 import com.rte_france.powsybl.iidm.network.extensions.cvg.BusbarSectionPosition;
 import com.rte_france.powsybl.iidm.network.extensions.cvg.ConnectablePosition;
 import org.jgrapht.UndirectedGraph;
@@ -42,15 +46,43 @@ public class Graph {
     @JsonIgnore
     private static final Logger LOGGER = LoggerFactory.getLogger(Graph.class);
 
+    private static final char EDGE_ID_SEPARATOR = '_';
+
+    private static final char EDGE_ID_ESCAPE = '-';
+
     @JsonIgnore
     private final boolean useName;
 
+    /**
+     * Nodes by index, a removed node leaving a null slot so that indexes are stable
+     */
     @JsonIgnore
     private final List<Node> nodes = new ArrayList<>();
 
+    @JsonIgnore
+    private int nodeCount = 0;
+
+    /**
+     * Edges by index, a removed edge leaving a null slot so that indexes are stable
+     */
     @JsonIgnore
     private final List<Edge> edges = new ArrayList<>();
 
+    @JsonIgnore
+    private int edgeCount = 0;
+
+    @JsonIgnore
+    private final Map<String, Edge> edgesById = new HashMap<>();
+
+    /**
+     * Indexes of the adjacent edges of each node, by node index, in the order the edges have been added
+     */
+    @JsonIgnore
+    private int[][] adjacentEdges = new int[16][];
+
+    @JsonIgnore
+    private int[] adjacentEdgeCounts = new int[16];
+
     @JsonManagedReference
     private final SortedSet<Cell> cells = new TreeSet<>(
             Comparator.comparingInt(Cell::getNumber)); // cells sorted to avoid randomness
@@ -69,6 +101,9 @@ public class Graph {
     @JsonIgnore
     private int cellCounter = 0;
 
+    @JsonIgnore
+    private PhaseRecorder phaseRecorder = PhaseRecorder.NONE;
+
     /**
      * Constructor
      */
@@ -85,9 +120,19 @@ public class Graph {
     }
 
     public static Graph create(VoltageLevel vl, boolean useName) {
+        return create(vl, useName, DiagramListener.NONE);
+    }
+
+    /**
+     * Create the graph of a voltage level, the listener receiving the metrics of the graph build and of the next
+     * phases run on the graph (cell detection, blocks organization).
+     */
+    public static Graph create(VoltageLevel vl, boolean useName, DiagramListener listener) {
         Objects.requireNonNull(vl);
+        Objects.requireNonNull(listener);
         Graph g = new Graph(useName);
-        g.buildGraph(vl);
+        g.phaseRecorder = new PhaseRecorder(vl.getId(), listener);
+        g.phaseRecorder.record(Phase.GRAPH_BUILD, g, () -> g.buildGraph(vl));
         return g;
     }
 
@@ -277,9 +322,9 @@ public class Graph {
             ensureNodeExists(node1, nodesByNumber);
             ensureNodeExists(node2, nodesByNumber);
 
+            addNode(n);
             addEdge(nodesByNumber.get(node1), n);
             addEdge(n, nodesByNumber.get(node2));
-            addNode(n);
         }
 
         // internal connections
@@ -308,24 +353,24 @@ public class Graph {
                 throw new AssertionError("Unknown topology kind: " + vl.getTopologyKind());
         }
 
-        LOGGER.info("Number of node : {} ", nodes.size());
+        LOGGER.info("Number of node : {} ", nodeCount);
 
         handleConnectedComponents();
     }
 
     public void removeUnnecessaryFictitiousNodes() {
         List<Node> fictitiousNodesToRemove = nodes.stream()
-                .filter(node -> node.getType() == Node.NodeType.FICTITIOUS)
+                .filter(node -> node != null && node.getType() == Node.NodeType.FICTITIOUS)
                 .collect(Collectors.toList());
         for (Node n : fictitiousNodesToRemove) {
-            if (n.getAdjacentNodes().size() == 2) {
-                Node node1 = n.getAdjacentNodes().get(0);
-                Node node2 = n.getAdjacentNodes().get(1);
+            if (n.getAdjacentEdgeCount() == 2) {
+                Node node1 = n.getAdjacentNode(0);
+                Node node2 = n.getAdjacentNode(1);
                 LOGGER.info("Remove fictitious node {} between {} and {}", n.getId(), node1.getId(), node2.getId());
                 removeNode(n);
                 addEdge(node1, node2);
             } else {
-                LOGGER.info("Working on fictitious node {} with {} adjacent nodes", n.getId(), n.getAdjacentNodes().size());
+                LOGGER.info("Working on fictitious node {} with {} adjacent nodes", n.getId(), n.getAdjacentEdgeCount());
                 Node busNode = n.getAdjacentNodes().stream().filter(node -> node.getType() == Node.NodeType.BUS).findFirst().orElse(null);
                 if (busNode != null) {
                     n.getAdjacentNodes().stream().filter(node -> !node.equals(busNode)).forEach(node -> {
@@ -350,35 +395,35 @@ public class Graph {
     }
 
     public void logCellDetectionStatus() {
-        Set<Cell> cells = new HashSet<>();
-        Map<Cell.CellType, Integer> cellCountByType = new EnumMap<>(Cell.CellType.class);
-        for (Cell.CellType cellType : Cell.CellType.values()) {
-            cellCountByType.put(cellType, 0);
-        }
-        int remainingNodeCount = 0;
-        Map<Node.NodeType, Integer> remainingNodeCountByType = new EnumMap<>(Node.NodeType.class);
-        for (Node.NodeType nodeType : Node.NodeType.values()) {
-            remainingNodeCountByType.put(nodeType, 0);
-        }
-        for (Node node : nodes) {
-            Cell cell = node.getCell();
-            if (cell != null) {
-                if (cells.add(cell)) {
-                    cellCountByType.put(cell.getType(), cellCountByType.get(cell.getType()) + 1);
-                }
-            } else {
-                remainingNodeCount++;
-                remainingNodeCountByType.put(node.getType(), remainingNodeCountByType.get(node.getType()) + 1);
-            }
-        }
         if (cells.isEmpty()) {
             LOGGER.warn("No cell detected");
-        } else {
+        } else if (LOGGER.isInfoEnabled()) {
+            Map<Cell.CellType, Integer> cellCountByType = new EnumMap<>(Cell.CellType.class);
+            for (Cell.CellType cellType : Cell.CellType.values()) {
+                cellCountByType.put(cellType, 0);
+            }
+            for (Cell cell : cells) {
+                cellCountByType.put(cell.getType(), cellCountByType.get(cell.getType()) + 1);
+            }
             LOGGER.info("{} cells detected ({})", cells.size(), cellCountByType);
         }
-        if (remainingNodeCount > 0) {
-            LOGGER.warn("{}/{} nodes not associated to a cell ({})",
-                    remainingNodeCount, nodes.size(), remainingNodeCountByType);
+        // walking all the nodes is only worth it if the result is logged
+        if (LOGGER.isWarnEnabled()) {
+            int remainingNodeCount = 0;
+            Map<Node.NodeType, Integer> remainingNodeCountByType = new EnumMap<>(Node.NodeType.class);
+            for (Node.NodeType nodeType : Node.NodeType.values()) {
+                remainingNodeCountByType.put(nodeType, 0);
+            }
+            for (Node node : nodes) {
+                if (node != null && node.getCell() == null) {
+                    remainingNodeCount++;
+                    remainingNodeCountByType.put(node.getType(), remainingNodeCountByType.get(node.getType()) + 1);
+                }
+            }
+            if (remainingNodeCount > 0) {
+                LOGGER.warn("{}/{} nodes not associated to a cell ({})",
+                        remainingNodeCount, nodeCount, remainingNodeCountByType);
+            }
         }
     }
 
@@ -395,10 +440,10 @@ public class Graph {
 
     private UndirectedGraph<Node, Edge> toJgrapht() {
         UndirectedGraph<Node, Edge> graph = new Pseudograph<>(Edge.class);
-        for (Node node : nodes) {
+        for (Node node : getNodes()) {
             graph.addVertex(node);
         }
-        for (Edge edge : edges) {
+        for (Edge edge : getEdges()) {
             graph.addEdge(edge.getNode1(), edge.getNode2(), edge);
         }
         return graph;
@@ -425,7 +470,7 @@ public class Graph {
         if (nodes.stream().anyMatch(node -> node.getType() == Node.NodeType.BUS)) {
             return;
         }
-        TreeSet<FicticiousNode> ficticiousNodeSet = new TreeSet<>(Comparator.comparingInt(n -> n.getAdjacentEdges().size()));
+        TreeSet<FicticiousNode> ficticiousNodeSet = new TreeSet<>(Comparator.comparingInt(Node::getAdjacentEdgeCount));
         nodes.stream().filter(node -> node.getType() == Node.NodeType.FICTITIOUS)
                 .map(FicticiousNode.class::cast)
                 .forEach(ficticiousNodeSet::add);
@@ -436,22 +481,79 @@ public class Graph {
     }
 
     public void addNode(Node node) {
+        if (node.getIndex() != -1) {
+            throw new PowsyblException("Node " + node.getId() + " already added to a graph");
+        }
+        int index = nodes.size();
+        node.setIndex(index);
         nodes.add(node);
+        nodeCount++;
+        if (index == adjacentEdgeCounts.length) {
+            adjacentEdges = Arrays.copyOf(adjacentEdges, 2 * index);
+            adjacentEdgeCounts = Arrays.copyOf(adjacentEdgeCounts, 2 * index);
+        }
+        adjacentEdges[index] = new int[2];
+        adjacentEdgeCounts[index] = 0;
         nodesByType.computeIfAbsent(node.getType(), nodeType -> new ArrayList<>()).add(node);
         nodesById.put(node.getId(), node);
     }
 
     private void removeNode(Node node) {
-        nodes.remove(node);
+        int index = node.getIndex();
+        if (index == -1 || nodes.get(index) != node) {
+            return;
+        }
         nodesByType.computeIfAbsent(node.getType(), nodeType -> new ArrayList<>()).remove(node);
         nodesById.remove(node.getId());
-        for (Edge edge : node.getAdjacentEdges()) {
-            if (edge.getNode1() == node) {
-                edge.getNode2().removeAdjacentEdge(edge);
-            } else {
-                edge.getNode1().removeAdjacentEdge(edge);
+        while (adjacentEdgeCounts[index] > 0) {
+            removeEdge(edges.get(adjacentEdges[index][adjacentEdgeCounts[index] - 1]));
+        }
+        nodes.set(index, null);
+        nodeCount--;
+        adjacentEdges[index] = null;
+        node.setIndex(-1);
+    }
+
+    private int checkIndex(Node node) {
+        int index = node.getIndex();
+        if (index == -1 || nodes.get(index) != node) {
+            throw new PowsyblException("Node " + node.getId() + " does not belong to the graph");
+        }
+        return index;
+    }
+
+    int getAdjacentEdgeCount(Node node) {
+        int index = node.getIndex();
+        return index != -1 ? adjacentEdgeCounts[index] : 0;
+    }
+
+    Edge getAdjacentEdge(Node node, int i) {
+        int index = checkIndex(node);
+        if (i < 0 || i >= adjacentEdgeCounts[index]) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", adjacent edge count: " + adjacentEdgeCounts[index]);
+        }
+        return edges.get(adjacentEdges[index][i]);
+    }
+
+    private void addAdjacentEdge(int nodeIndex, int edgeIndex) {
+        int count = adjacentEdgeCounts[nodeIndex];
+        if (count == adjacentEdges[nodeIndex].length) {
+            adjacentEdges[nodeIndex] = Arrays.copyOf(adjacentEdges[nodeIndex], 2 * count);
+        }
+        adjacentEdges[nodeIndex][count] = edgeIndex;
+        adjacentEdgeCounts[nodeIndex] = count + 1;
+    }
+
+    private void removeAdjacentEdge(int nodeIndex, int edgeIndex) {
+        int[] adjacent = adjacentEdges[nodeIndex];
+        int count = adjacentEdgeCounts[nodeIndex];
+        for (int i = 0; i < count; i++) {
+            if (adjacent[i] == edgeIndex) {
+                // shift to keep adjacent edges in insertion order
+                System.arraycopy(adjacent, i + 1, adjacent, i, count - i - 1);
+                adjacentEdgeCounts[nodeIndex] = count - 1;
+                return;
             }
-            edges.remove(edge);
         }
     }
 
@@ -467,10 +569,17 @@ public class Graph {
      * @param n2 second node
      */
     public void addEdge(Node n1, Node n2) {
+        int index1 = checkIndex(n1);
+        int index2 = checkIndex(n2);
         Edge edge = new Edge(n1, n2);
+        int index = edges.size();
+        edge.setIndex(index);
+        edge.setId(createEdgeId(n1, n2));
         edges.add(edge);
-        n1.addAdjacentEdge(edge);
-        n2.addAdjacentEdge(edge);
+        edgesById.put(edge.getId(), edge);
+        edgeCount++;
+        addAdjacentEdge(index1, index);
+        addAdjacentEdge(index2, index);
     }
 
     /**
@@ -480,9 +589,11 @@ public class Graph {
      * @param n2 second node
      */
     void removeEdge(Node n1, Node n2) {
-        for (Edge edge : edges) {
-            if ((edge.getNode1().equals(n1) && edge.getNode2().equals(n2))
-                    || (edge.getNode1().equals(n2) && edge.getNode2().equals(n1))) {
+        // adjacent edges are sorted by index, so the first one found is the first one of the graph
+        int index1 = checkIndex(n1);
+        for (int i = 0; i < adjacentEdgeCounts[index1]; i++) {
+            Edge edge = edges.get(adjacentEdges[index1][i]);
+            if (edge.getOtherNode(n1) == n2) {
                 removeEdge(edge);
                 return;
             }
@@ -490,9 +601,110 @@ public class Graph {
     }
 
     void removeEdge(Edge edge) {
-        edge.getNode1().removeAdjacentEdge(edge);
-        edge.getNode2().removeAdjacentEdge(edge);
-        edges.remove(edge);
+        int index = edge.getIndex();
+        if (index == -1 || edges.get(index) != edge) {
+            return;
+        }
+        removeAdjacentEdge(edge.getNode1().getIndex(), index);
+        removeAdjacentEdge(edge.getNode2().getIndex(), index);
+        edges.set(index, null);
+        edgesById.remove(edge.getId());
+        edgeCount--;
+        edge.setIndex(-1);
+        edge.setId(null);
+    }
+
+    /**
+     * Id of a new edge, made of the ids of its nodes in lexicographic order so that it does not depend on the
+     * direction of the edge, separated by '_'. Parallel edges are distinguished by a numeric suffix, also separated
+     * by '_'. The node ids are escaped (see {@link #escapeEdgeIdPart(String)}) so that two different edges never
+     * get the same id.
+     */
+    private String createEdgeId(Node n1, Node n2) {
+        String id1 = escapeEdgeIdPart(n1.getId());
+        String id2 = escapeEdgeIdPart(n2.getId());
+        String id = id1.compareTo(id2) <= 0 ? id1 + EDGE_ID_SEPARATOR + id2 : id2 + EDGE_ID_SEPARATOR + id1;
+        if (!edgesById.containsKey(id)) {
+            return id;
+        }
+        int suffix = 2;
+        while (edgesById.containsKey(id + EDGE_ID_SEPARATOR + suffix)) {
+            suffix++;
+        }
+        return id + EDGE_ID_SEPARATOR + suffix;
+    }
+
+    /**
+     * Node id without the separator of the edge ids: '-' is escaped as "--" and '_' as "-u", the ids without them
+     * being unchanged. Both characters are valid in an XML name and in a URL fragment, so that the edge ids can be
+     * written as is in the SVG ids and referenced from it.
+     */
+    private static String escapeEdgeIdPart(String id) {
+        if (id.indexOf(EDGE_ID_ESCAPE) < 0 && id.indexOf(EDGE_ID_SEPARATOR) < 0) {
+            return id;
+        }
+        StringBuilder escaped = new StringBuilder(id.length() + 4);
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == EDGE_ID_ESCAPE) {
+                escaped.append(EDGE_ID_ESCAPE).append(EDGE_ID_ESCAPE);
+            } else if (c == EDGE_ID_SEPARATOR) {
+                escaped.append(EDGE_ID_ESCAPE).append('u');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Recorder of the phases run on the graph
+     */
+    public PhaseRecorder getPhaseRecorder() {
+        return phaseRecorder;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get a node from its index, null if the node has been removed
+     */
+    public Node getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * Get an edge from its index, null if the edge has been removed
+     */
+    public Edge getEdge(int index) {
+        return edges.get(index);
+    }
+
+    /**
+     * Get an edge from its id, null if there is no such edge
+     */
+    public Edge getEdge(String id) {
+        return edgesById.get(id);
+    }
+
+    /**
+     * Upper bound (exclusive) of the node indexes, to size arrays indexed by node
+     */
+    public int getNodeIndexBound() {
+        return nodes.size();
+    }
+
+    /**
+     * Upper bound (exclusive) of the edge indexes, to size arrays indexed by edge
+     */
+    public int getEdgeIndexBound() {
+        return edges.size();
     }
 
     /**
@@ -502,12 +714,11 @@ public class Graph {
     private void rIdentifyConnexComponent(Node node, List<Node> nodesIn, List<Node> connexComponent) {
         if (!connexComponent.contains(node)) {
             connexComponent.add(node);
-            List<Node> nodesToVisit = node.getAdjacentNodes()
-                    .stream()
-                    .filter(nodesIn::contains)
-                    .collect(Collectors.toList());
-            for (Node n : nodesToVisit) {
-                rIdentifyConnexComponent(n, nodesIn, connexComponent);
+            for (int i = 0; i < node.getAdjacentEdgeCount(); i++) {
+                Node n = node.getAdjacentNode(i);
+                if (nodesIn.contains(n)) {
+                    rIdentifyConnexComponent(n, nodesIn, connexComponent);
+                }
             }
         }
     }
@@ -566,13 +777,17 @@ public class Graph {
                 });
     }
 
+    /**
+     * Insert a fictitious node between each feeder node and its adjacent nodes when it has several of them. The
+     * fictitious nodes, with id the feeder node id followed by "Fictif", are added as any other node, so they can be
+     * found by {@link #getNode(String)}.
+     */
     public void extendFeederWithMultipleSwitches() {
-        List<Node> nodesToAdd = new ArrayList<>();
-        for (Node n : nodes) {
-            if (n instanceof FeederNode && n.getAdjacentNodes().size() > 1) {
+        for (Node n : getNodes()) {
+            if (n instanceof FeederNode && n.getAdjacentEdgeCount() > 1) {
                 // Create a new fictitious node
                 FicticiousNode nf = new FicticiousNode(Graph.this, n.getId() + "Fictif");
-                nodesToAdd.add(nf);
+                addNode(nf);
                 // Create all new edges and remove old ones
                 List<Node> oldNeighboor = new ArrayList<>(n.getAdjacentNodes());
                 for (Node neighboor : oldNeighboor) {
@@ -582,7 +797,6 @@ public class Graph {
                 addEdge(n, nf);
             }
         }
-        nodes.addAll(nodesToAdd);
     }
 
     //add a fictitious node between 2 switches when one is connected to a bus
@@ -641,8 +855,8 @@ public class Graph {
     }
 
     private void substitueNode(Node nodeOrigin, Node newNode) {
-        while (!nodeOrigin.getAdjacentEdges().isEmpty()) {
-            Edge edge = nodeOrigin.getAdjacentEdges().get(0);
+        while (nodeOrigin.getAdjacentEdgeCount() > 0) {
+            Edge edge = nodeOrigin.getAdjacentEdge(0);
             Node node1 = edge.getNode1() == nodeOrigin ? newNode : edge.getNode1();
             Node node2 = edge.getNode2() == nodeOrigin ? newNode : edge.getNode2();
             addEdge(node1, node2);
@@ -653,9 +867,8 @@ public class Graph {
 
     public void substituteFictitiousNodesMirroringBusNodes() {
         getNodeBuses().forEach(busNode -> {
-            List<Node> adjs = busNode.getAdjacentNodes();
-            if (adjs.size() == 1 && adjs.get(0).getType() == Node.NodeType.FICTITIOUS) {
-                Node adj = adjs.get(0);
+            if (busNode.getAdjacentEdgeCount() == 1 && busNode.getAdjacentNode(0).getType() == Node.NodeType.FICTITIOUS) {
+                Node adj = busNode.getAdjacentNode(0);
                 removeEdge(adj, busNode);
                 substitueNode(adj, busNode);
             }
@@ -664,7 +877,7 @@ public class Graph {
 
     public void substituteSingularFictitiousByFeederNode() {
         getNodes().stream()
-                .filter(n -> n.getType() == Node.NodeType.FICTITIOUS && n.getAdjacentEdges().size() == 1)
+                .filter(n -> n.getType() == Node.NodeType.FICTITIOUS && n.getAdjacentEdgeCount() == 1)
                 .forEach(n -> {
                     FeederNode feederNode = FeederNode.createFictitious(this, n.getId());
                     addNode(feederNode);
@@ -706,11 +919,23 @@ public class Graph {
     }
 
     public List<Node> getNodes() {
-        return new ArrayList<>(nodes);
+        List<Node> result = new ArrayList<>(nodeCount);
+        for (Node node : nodes) {
+            if (node != null) {
+                result.add(node);
+            }
+        }
+        return result;
     }
 
     public List<Edge> getEdges() {
-        return new ArrayList<>(edges);
+        List<Edge> result = new ArrayList<>(edgeCount);
+        for (Edge edge : edges) {
+            if (edge != null) {
+                result.add(edge);
+            }
+        }
+        return result;
     }
 
     public Set<Cell> getCells() {
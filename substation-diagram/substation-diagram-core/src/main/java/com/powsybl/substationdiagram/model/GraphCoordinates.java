@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.model;
+
+import com.powsybl.substationdiagram.library.ComponentType;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable result of a layout run: coordinates, rotation and bus width of the nodes of a graph, stored in arrays
+ * indexed by {@link Node#getIndex()}, and coordinates of the blocks.
+ * <p>
+ * Calculating the coordinates does not modify the graph, so the same graph can be laid out and written with several
+ * layout parameters at the same time. {@link #apply()} copies the coordinates into the nodes and blocks of the graph
+ * for the code reading them there.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public final class GraphCoordinates {
+
+    private final Graph graph;
+
+    private final double[] x;
+
+    private final double[] y;
+
+    private final boolean[] rotated;
+
+    private final double[] pxWidth;
+
+    private final Map<Block, Coord> blockCoords;
+
+    GraphCoordinates(Graph graph, double[] x, double[] y, boolean[] rotated, double[] pxWidth,
+                     Map<Block, Coord> blockCoords) {
+        this.graph = Objects.requireNonNull(graph);
+        this.x = Objects.requireNonNull(x);
+        this.y = Objects.requireNonNull(y);
+        this.rotated = Objects.requireNonNull(rotated);
+        this.pxWidth = Objects.requireNonNull(pxWidth);
+        this.blockCoords = Objects.requireNonNull(blockCoords);
+    }
+
+    /**
+     * Coordinates currently stored in the nodes of the graph
+     */
+    public static GraphCoordinates of(Graph graph) {
+        Objects.requireNonNull(graph);
+        int nodeIndexBound = graph.getNodeIndexBound();
+        double[] x = new double[nodeIndexBound];
+        double[] y = new double[nodeIndexBound];
+        boolean[] rotated = new boolean[nodeIndexBound];
+        double[] pxWidth = new double[nodeIndexBound];
+        for (Node node : graph.getNodes()) {
+            int i = node.getIndex();
+            x[i] = node.getX();
+            y[i] = node.getY();
+            rotated[i] = node.isRotated();
+            if (node instanceof BusNode) {
+                pxWidth[i] = ((BusNode) node).getPxWidth();
+            }
+        }
+        return new GraphCoordinates(graph, x, y, rotated, pxWidth, Collections.emptyMap());
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public double getX(Node node) {
+        return x[node.getIndex()];
+    }
+
+    public double getY(Node node) {
+        return y[node.getIndex()];
+    }
+
+    public boolean isRotated(Node node) {
+        return rotated[node.getIndex()];
+    }
+
+    public double getPxWidth(BusNode node) {
+        return pxWidth[node.getIndex()];
+    }
+
+    /**
+     * Copy of the coordinates of a block, null if the block has not been laid out
+     */
+    public Coord getCoord(Block block) {
+        Coord coord = blockCoords.get(block);
+        return coord != null ? copy(coord) : null;
+    }
+
+    /**
+     * The node seen at its calculated position
+     */
+    public BaseNode getBaseNode(Node node) {
+        Objects.requireNonNull(node);
+        int i = node.getIndex();
+        return new BaseNode() {
+            @Override
+            public String getId() {
+                return node.getId();
+            }
+
+            @Override
+            public ComponentType getComponentType() {
+                return node.getComponentType();
+            }
+
+            @Override
+            public boolean isRotated() {
+                return rotated[i];
+            }
+
+            @Override
+            public double getX() {
+                return x[i];
+            }
+
+            @Override
+            public double getY() {
+                return y[i];
+            }
+        };
+    }
+
+    /**
+     * Copy the coordinates into the nodes and the blocks of the graph
+     */
+    public void apply() {
+        for (Node node : graph.getNodes()) {
+            int i = node.getIndex();
+            node.setX(x[i]);
+            node.setY(y[i]);
+            node.setRotated(rotated[i]);
+            if (node instanceof BusNode) {
+                ((BusNode) node).setPxWidth(pxWidth[i]);
+            }
+        }
+        blockCoords.forEach((block, coord) -> {
+            block.setX(coord.getX());
+            block.setY(coord.getY());
+            block.setXSpan(coord.getXSpan());
+            block.setYSpan(coord.getYSpan());
+        });
+    }
+
+    private static Coord copy(Coord coord) {
+        Coord copy = new Coord(coord.getX(), coord.getY());
+        copy.setXSpan(coord.getXSpan());
+        copy.setYSpan(coord.getYSpan());
+        return copy;
+    }
+
+    static Map<Block, Coord> copyBlockCoords(Map<Block, Coord> blockCoords) {
+        Map<Block, Coord> copy = new IdentityHashMap<>(blockCoords.size());
+        blockCoords.forEach((block, coord) -> copy.put(block, copy(coord)));
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates being calculated by a layout run, see {@link GraphCoordinates}.
+ * <p>
+ * A node can be positioned several times, by each of the blocks it belongs to: its final coordinates are the
+ * average of the positions given, or of the positions given with priority if any. Bus nodes keep their last
+ * position.
+ * <p>
+ * Distinct nodes and blocks can be positioned concurrently, as done by the cells of a parallel layout; the positions
+ * of a node have to be given by a single thread.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class GraphCoordinatesBuilder {
+
+    /**
+     * Positions given to a node on one axis
+     */
+    private static final class Values {
+
+        private double last = -1;
+
+        private double[] values = new double[2];
+
+        private int size = 0;
+
+        private boolean priority = false;
+
+        private void add(double value, boolean priority) {
+            if (!this.priority && priority) {
+                size = 0;
+                this.priority = true;
+            }
+            if (this.priority == priority) {
+                last = value;
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+        }
+
+        private double average() {
+            return Arrays.stream(values, 0, size).average().orElse(0);
+        }
+    }
+
+    private final Graph graph;
+
+    private final Values[] x;
+
+    private final Values[] y;
+
+    private final boolean[] rotated;
+
+    private final double[] pxWidth;
+
+    // blocks do not override equals, so this is an identity map
+    private final Map<Block, Coord> blockCoords = new ConcurrentHashMap<>();
+
+    public GraphCoordinatesBuilder(Graph graph) {
+        this.graph = Objects.requireNonNull(graph);
+        int nodeIndexBound = graph.getNodeIndexBound();
+        x = new Values[nodeIndexBound];
+        y = new Values[nodeIndexBound];
+        rotated = new boolean[nodeIndexBound];
+        pxWidth = new double[nodeIndexBound];
+        Arrays.fill(pxWidth, 1);
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    private static Values getValues(Values[] values, Node node) {
+        int i = node.getIndex();
+        if (values[i] == null) {
+            values[i] = new Values();
+        }
+        return values[i];
+    }
+
+    /**
+     * Last position given to the node, -1 if none
+     */
+    public double getX(Node node) {
+        Values values = x[node.getIndex()];
+        return values != null ? values.last : -1;
+    }
+
+    public double getY(Node node) {
+        Values values = y[node.getIndex()];
+        return values != null ? values.last : -1;
+    }
+
+    public void setX(Node node, double x) {
+        setX(node, x, false);
+    }
+
+    public void setX(Node node, double x, boolean xPriority) {
+        getValues(this.x, node).add(x, xPriority);
+    }
+
+    public void setY(Node node, double y) {
+        setY(node, y, false);
+    }
+
+    public void setY(Node node, double y, boolean yPriority) {
+        getValues(this.y, node).add(y, yPriority);
+    }
+
+    public void setRotated(Node node, boolean rotated) {
+        this.rotated[node.getIndex()] = rotated;
+    }
+
+    public void setPxWidth(BusNode node, double pxWidth) {
+        this.pxWidth[node.getIndex()] = pxWidth;
+    }
+
+    /**
+     * Coordinates of the block, created at (-1, -1) on first access
+     */
+    public Coord getCoord(Block block) {
+        return blockCoords.computeIfAbsent(block, b -> new Coord(-1, -1));
+    }
+
+    public GraphCoordinates build() {
+        int nodeIndexBound = x.length;
+        double[] finalX = new double[nodeIndexBound];
+        double[] finalY = new double[nodeIndexBound];
+        Arrays.fill(finalX, -1);
+        Arrays.fill(finalY, -1);
+        for (Node node : graph.getNodes()) {
+            int i = node.getIndex();
+            if (node.getType() == Node.NodeType.BUS) {
+                finalX[i] = getX(node);
+                finalY[i] = getY(node);
+            } else {
+                finalX[i] = x[i] != null ? x[i].average() : 0;
+                finalY[i] = y[i] != null ? y[i].average() : 0;
+            }
+        }
+        return new GraphCoordinates(graph, finalX, finalY, rotated.clone(), pxWidth.clone(),
+                                    GraphCoordinates.copyBlockCoords(blockCoords));
+    }
+}
@@ -91,7 +91,7 @@ public class InternCell extends Cell {
     }
 
     private Block createAdjacentPrimaryBlock(SwitchNode ns, int id) {
-        FicticiousNode nf = (FicticiousNode) ns.getAdjacentNodes().get(id);
+        FicticiousNode nf = (FicticiousNode) ns.getAdjacentNode(id);
         Node fictSwitch = otherNodeFromAdj(nf, ns);
         BusNode bus = (BusNode) otherNodeFromAdj(fictSwitch, nf);
         PrimaryBlock bpy = new PrimaryBlock(Arrays.asList(new Node[]{bus, fictSwitch, nf}), this);
@@ -101,8 +101,7 @@ public class InternCell extends Cell {
     }
 
     private Node otherNodeFromAdj(Node nodeOrigin, Node toBeOther) {
-        List<Node> adj = nodeOrigin.getAdjacentNodes();
-        return adj.get(0) == toBeOther ? adj.get(1) : adj.get(0);
+        return nodeOrigin.getAdjacentNode(0) == toBeOther ? nodeOrigin.getAdjacentNode(1) : nodeOrigin.getAdjacentNode(0);
     }
 
     /**
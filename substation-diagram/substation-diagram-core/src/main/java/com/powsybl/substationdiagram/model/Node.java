@@ -12,7 +12,6 @@ import com.powsybl.substationdiagram.library.ComponentType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -21,10 +20,6 @@ import java.util.stream.Stream;
  * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
  */
 public class Node implements BaseNode {
-    private static double applyAsDouble(Double x) {
-        return x;
-    }
-
     public enum NodeType {
         BUS,
         FEEDER,
@@ -48,11 +43,6 @@ public class Node implements BaseNode {
 
     private double x = -1;
     private double y = -1;
-    private List<Double> xs = new ArrayList<>();
-    private List<Double> ys = new ArrayList<>();
-
-    private boolean xPriority = false;
-    private boolean yPriority = false;
 
     @JsonIgnore
     private Cell cell;
@@ -61,7 +51,7 @@ public class Node implements BaseNode {
     private boolean rotated = false;
 
     @JsonIgnore
-    private final List<Edge> adjacentEdges = new ArrayList<>();
+    private int index = -1;
 
     private String label;
 
@@ -119,22 +109,52 @@ public class Node implements BaseNode {
         this.label = label;
     }
 
-    public List<Node> getAdjacentNodes() {
-        return adjacentEdges.stream()
-                .map(edge -> edge.getNode1() == Node.this ? edge.getNode2() : edge.getNode1())
-                .collect(Collectors.toList());
+    /**
+     * Index of the node in its graph, stable as long as the node is not removed. -1 if not in a graph.
+     */
+    public int getIndex() {
+        return index;
     }
 
-    public List<Edge> getAdjacentEdges() {
-        return adjacentEdges;
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Number of adjacent edges, an adjacent node being counted once per edge
+     */
+    public int getAdjacentEdgeCount() {
+        return graph.getAdjacentEdgeCount(this);
+    }
+
+    public Edge getAdjacentEdge(int i) {
+        return graph.getAdjacentEdge(this, i);
+    }
+
+    public Node getAdjacentNode(int i) {
+        return getAdjacentEdge(i).getOtherNode(this);
     }
 
-    void addAdjacentEdge(Edge e) {
-        adjacentEdges.add(e);
+    /**
+     * Prefer {@link #getAdjacentEdgeCount()} and {@link #getAdjacentNode(int)} in loops, this method
+     * creates a new list at each call.
+     */
+    public List<Node> getAdjacentNodes() {
+        int count = getAdjacentEdgeCount();
+        List<Node> adjacentNodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            adjacentNodes.add(getAdjacentNode(i));
+        }
+        return adjacentNodes;
     }
 
-    void removeAdjacentEdge(Edge e) {
-        adjacentEdges.remove(e);
+    public List<Edge> getAdjacentEdges() {
+        int count = getAdjacentEdgeCount();
+        List<Edge> adjacentEdges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            adjacentEdges.add(getAdjacentEdge(i));
+        }
+        return adjacentEdges;
     }
 
     public Stream<Node> getListNodeAdjInCell(Cell cell) {
@@ -147,18 +167,7 @@ public class Node implements BaseNode {
     }
 
     public void setX(double x) {
-        setX(x, false);
-    }
-
-    public void setX(double x, boolean xPriority) {
-        if (!this.xPriority && xPriority) {
-            xs.clear();
-            this.xPriority = true;
-        }
-        if (this.xPriority == xPriority) {
-            this.x = x;
-            xs.add(x);
-        }
+        this.x = x;
     }
 
     @Override
@@ -167,18 +176,7 @@ public class Node implements BaseNode {
     }
 
     public void setY(double y) {
-        setY(y, false);
-    }
-
-    public void setY(double y, boolean yPriority) {
-        if (!this.yPriority && yPriority) {
-            ys.clear();
-            this.yPriority = true;
-        }
-        if (this.yPriority == yPriority) {
-            this.y = y;
-            ys.add(y);
-        }
+        this.y = y;
     }
 
     public NodeType getType() {
@@ -209,16 +207,11 @@ public class Node implements BaseNode {
 
     public boolean similarToAFeederNode(Node n) {
         return (n instanceof FeederNode)
-                || (n.getType() == NodeType.FICTITIOUS && n.adjacentEdges.size() == 1);
+                || (n.getType() == NodeType.FICTITIOUS && n.getAdjacentEdgeCount() == 1);
     }
 
     @Override
     public String toString() {
         return "Node(id='" + getId() + "', type= " + type + ")";
     }
-
-    public void finalizeCoord() {
-        x = xs.stream().mapToDouble(Node::applyAsDouble).average().orElse(0);
-        y = ys.stream().mapToDouble(Node::applyAsDouble).average().orElse(0);
-    }
 }
@@ -155,42 +155,46 @@ public class ParallelBlock extends AbstractBlock {
     }
 
     @Override
-    public void coordVerticalCase(LayoutParameters layoutParam) {
+    public void coordVerticalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        Coord coord = coordinates.getCoord(this);
         double x0;
         double xPxStep;
         if (getPosition().getHSpan() != 1) {
-            x0 = getCoord().getX() - getCoord().getXSpan() / 2;
-            xPxStep = getCoord().getXSpan() / getPosition().getHSpan();
+            x0 = coord.getX() - coord.getXSpan() / 2;
+            xPxStep = coord.getXSpan() / getPosition().getHSpan();
         } else {
-            x0 = getCoord().getX();
+            x0 = coord.getX();
             xPxStep = 0;
         }
 
         final double x0Final = x0;
         final double xPxStepFinal = xPxStep;
         subBlocks.forEach(sub -> {
-            sub.setX(x0Final + (sub.getPosition().getH() + (double) sub.getPosition().getHSpan() / 2) * xPxStepFinal);
-            sub.setXSpan(xPxStepFinal * sub.getPosition().getHSpan());
-            sub.setY(getCoord().getY());
-            sub.setYSpan(getCoord().getYSpan());
-            sub.calculateCoord(layoutParam);
+            Coord subCoord = coordinates.getCoord(sub);
+            subCoord.setX(x0Final + (sub.getPosition().getH() + (double) sub.getPosition().getHSpan() / 2) * xPxStepFinal);
+            subCoord.setXSpan(xPxStepFinal * sub.getPosition().getHSpan());
+            subCoord.setY(coord.getY());
+            subCoord.setYSpan(coord.getYSpan());
+            sub.calculateCoord(layoutParam, coordinates);
         });
     }
 
     @Override
-    public void coordHorizontalCase(LayoutParameters layoutParam) {
+    public void coordHorizontalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        Coord coord = coordinates.getCoord(this);
         subBlocks.forEach(sub -> {
-            sub.setX(getCoord().getX());
+            Coord subCoord = coordinates.getCoord(sub);
+            subCoord.setX(coord.getX());
 /*
             if (sub.getType() == Type.PRIMARY && sub.isEmbedingNodeType(Node.NodeType.BUS)) {
-                sub.setXSpan(0);
+                subCoord.setXSpan(0);
             } else {
 */
-            sub.setXSpan(getCoord().getXSpan());
+            subCoord.setXSpan(coord.getXSpan());
 //            }
-            sub.setY(getCoord().getY());
-            sub.setYSpan(getCoord().getYSpan());
-            sub.calculateCoord(layoutParam);
+            subCoord.setY(coord.getY());
+            subCoord.setYSpan(coord.getYSpan());
+            sub.calculateCoord(layoutParam, coordinates);
         });
     }
 }
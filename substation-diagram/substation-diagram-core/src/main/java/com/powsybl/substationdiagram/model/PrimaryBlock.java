@@ -120,83 +120,85 @@ public class PrimaryBlock extends AbstractBlock {
     }
 
     @Override
-    public void coordVerticalCase(LayoutParameters layoutParam) {
+    public void coordVerticalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        Coord coord = coordinates.getCoord(this);
         if (isEmbedingNodeType(Node.NodeType.BUS)) {
             Node nodeBus = getBusNode();
             Node nodeMiddle = nodes.get(1);
-            nodeMiddle.setX(getCoord().getX());
-            nodeMiddle.setY(nodeBus.getY());
+            coordinates.setX(nodeMiddle, coord.getX());
+            coordinates.setY(nodeMiddle, coordinates.getY(nodeBus));
             if (nodes.size() == 3) {
                 Node nodeSide = nodeBus == nodes.get(0) ? nodes.get(2) : nodes.get(0);
-                nodeSide.setX(getCoord().getX(), true);
+                coordinates.setX(nodeSide, coord.getX(), true);
                 if (getCell().getType() == Cell.CellType.INTERN && ((InternCell) getCell()).getCentralBlock() == null) {
-                    nodeSide.setY(layoutParam.getInitialYBus() - layoutParam.getInternCellHeight());
+                    coordinates.setY(nodeSide, layoutParam.getInitialYBus() - layoutParam.getInternCellHeight());
                 }
             }
         } else {
             int sign = getCell().getDirection() == Cell.Direction.TOP ? 1 : -1;
-            double y0 = getCoord().getY() + sign * getCoord().getYSpan() / 2;
-            double yPxStep = calcYPxStep(sign);
+            double y0 = coord.getY() + sign * coord.getYSpan() / 2;
+            double yPxStep = calcYPxStep(coord, sign);
             int v = 0;
             for (Node node : nodes) {
-                node.setX(getCoord().getX());
-                node.setY(y0 - yPxStep * v);
-                node.setRotated(false);
+                coordinates.setX(node, coord.getX());
+                coordinates.setY(node, y0 - yPxStep * v);
+                coordinates.setRotated(node, false);
                 v++;
             }
         }
     }
 
     @Override
-    public void coordHorizontalCase(LayoutParameters layoutParam) {
+    public void coordHorizontalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        Coord coord = coordinates.getCoord(this);
         if (getCell().getType() == Cell.CellType.INTERNBOUND) {
-            nodes.get(1).setX(getCoord().getX());
-            nodes.get(1).setY(nodes.get(0).getY());
+            coordinates.setX(nodes.get(1), coord.getX());
+            coordinates.setY(nodes.get(1), coordinates.getY(nodes.get(0)));
             return;
         }
         if (isEmbedingNodeType(Node.NodeType.BUS)) {
             Node nodeBus = getBusNode();
             Node nodeMiddle = nodes.get(1);
-            nodeMiddle.setX(getCoord().getX() + getCoord().getXSpan() / 2);
-            nodeMiddle.setY(nodeBus.getY());
+            coordinates.setX(nodeMiddle, coord.getX() + coord.getXSpan() / 2);
+            coordinates.setY(nodeMiddle, coordinates.getY(nodeBus));
             if (nodes.size() == 3) {
                 Node nodeSide = nodeBus == nodes.get(0) ? nodes.get(2) : nodes.get(0);
-                nodeSide.setY(nodeBus.getY(), true);
+                coordinates.setY(nodeSide, coordinates.getY(nodeBus), true);
             }
             return;
         }
-        double x0 = getCoord().getX() - getCoord().getXSpan() / 2;
-        double xPxStep = getCoord().getXSpan() / (nodes.size() - 1);
+        double x0 = coord.getX() - coord.getXSpan() / 2;
+        double xPxStep = coord.getXSpan() / (nodes.size() - 1);
         int h = 0;
         for (Node node : nodes) {
-            node.setY(getCoord().getY());
-            node.setX(x0 + xPxStep * h);
-            node.setRotated(true);
+            coordinates.setY(node, coord.getY());
+            coordinates.setX(node, x0 + xPxStep * h);
+            coordinates.setRotated(node, true);
             h++;
         }
     }
 
-    void coordShuntCase() {
-        double x0 = getStartingNode().getX();
-        double x1 = getEndingNode().getX();
-        double y0 = getStartingNode().getY();
-        double y1 = getEndingNode().getY();
+    void coordShuntCase(GraphCoordinatesBuilder coordinates) {
+        double x0 = coordinates.getX(getStartingNode());
+        double x1 = coordinates.getX(getEndingNode());
+        double y0 = coordinates.getY(getStartingNode());
+        double y1 = coordinates.getY(getEndingNode());
         double dx = (x1 - x0) / (nodes.size() - 1);
         double dy = (y1 - y0) / (nodes.size() - 1);
         for (int i = 1; i < nodes.size() - 1; i++) {
             Node node = nodes.get(i);
-            node.setX(x0 + i * dx);
-            node.setY(y0 + i * dy);
+            coordinates.setX(node, x0 + i * dx);
+            coordinates.setY(node, y0 + i * dy);
             if (dy == 0) {
-                node.setRotated(true);
+                coordinates.setRotated(node, true);
             }
         }
     }
 
-    private double calcYPxStep(int sign) {
+    private double calcYPxStep(Coord coord, int sign) {
         if (getPosition().getVSpan() == 0) {
             return 0;
         }
-        return sign * getCoord().getYSpan() / (nodes.size() - 1);
+        return sign * coord.getYSpan() / (nodes.size() - 1);
     }
 }
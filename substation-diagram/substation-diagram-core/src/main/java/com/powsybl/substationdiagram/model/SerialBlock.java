@@ -146,38 +146,42 @@ public class SerialBlock extends AbstractBlock {
     }
 
     @Override
-    public void coordVerticalCase(LayoutParameters layoutParam) {
+    public void coordVerticalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        Coord coord = coordinates.getCoord(this);
         double y0;
         double yPxStep;
         int sign = getCell().getDirection() == Cell.Direction.TOP ? 1 : -1;
-        y0 = getCoord().getY() + sign * getCoord().getYSpan() / 2;
-        yPxStep = -sign * getCoord().getYSpan() / getPosition().getVSpan();
+        y0 = coord.getY() + sign * coord.getYSpan() / 2;
+        yPxStep = -sign * coord.getYSpan() / getPosition().getVSpan();
 
         for (Block sub : subBlocks) {
-            sub.setX(getCoord().getX());
-            sub.setXSpan(getCoord().getXSpan());
+            Coord subCoord = coordinates.getCoord(sub);
+            subCoord.setX(coord.getX());
+            subCoord.setXSpan(coord.getXSpan());
 
-            sub.setYSpan(
-                    getCoord().getYSpan() * ((double) sub.getPosition().getVSpan() / getPosition().getVSpan()));
-            sub.setY(y0 + yPxStep * (sub.getPosition().getV() + (double) sub.getPosition().getVSpan() / 2));
+            subCoord.setYSpan(
+                    coord.getYSpan() * ((double) sub.getPosition().getVSpan() / getPosition().getVSpan()));
+            subCoord.setY(y0 + yPxStep * (sub.getPosition().getV() + (double) sub.getPosition().getVSpan() / 2));
 
-            sub.calculateCoord(layoutParam);
+            sub.calculateCoord(layoutParam, coordinates);
         }
     }
 
     @Override
-    public void coordHorizontalCase(LayoutParameters layoutParam) {
-        double x0 = getCoord().getX() - getCoord().getXSpan() / 2;
-        double xPxStep = getCoord().getXSpan() / getPosition().getHSpan();
+    public void coordHorizontalCase(LayoutParameters layoutParam, GraphCoordinatesBuilder coordinates) {
+        Coord coord = coordinates.getCoord(this);
+        double x0 = coord.getX() - coord.getXSpan() / 2;
+        double xPxStep = coord.getXSpan() / getPosition().getHSpan();
         double xTranslateInternalNonFlatCell = isH2V ? layoutParam.getCellWidth() / 2 : 0;
 
         for (Block sub : subBlocks) {
-            sub.setX(x0 + (sub.getPosition().getH() + (double) sub.getPosition().getHSpan() / 2) * xPxStep
+            Coord subCoord = coordinates.getCoord(sub);
+            subCoord.setX(x0 + (sub.getPosition().getH() + (double) sub.getPosition().getHSpan() / 2) * xPxStep
                              + ((sub == upperBlock) ? xTranslateInternalNonFlatCell : 0));
-            sub.setXSpan(sub.getPosition().getHSpan() * xPxStep);
-            sub.setY(getCoord().getY());
-            sub.setYSpan(getCoord().getYSpan());
-            sub.calculateCoord(layoutParam);
+            subCoord.setXSpan(sub.getPosition().getHSpan() * xPxStep);
+            subCoord.setY(coord.getY());
+            subCoord.setYSpan(coord.getYSpan());
+            sub.calculateCoord(layoutParam, coordinates);
         }
     }
 }
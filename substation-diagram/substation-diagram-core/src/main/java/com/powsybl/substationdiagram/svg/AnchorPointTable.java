@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.substationdiagram.library.AnchorPoint;
+import com.powsybl.substationdiagram.library.AnchorPointProvider;
+import com.powsybl.substationdiagram.library.ComponentType;
+import com.powsybl.substationdiagram.model.BaseNode;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Anchor points of the nodes, asked once to the provider and rotated once per component type, and once per busbar
+ * section. The anchor points of a component other than a busbar section only depend on its type.
+ * <p>
+ * The anchor points of a busbar section are ordered along the busbar, so the closest one to a point is found from
+ * the abscissa of the point instead of being searched among all of them.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class AnchorPointTable implements AnchorPointProvider {
+
+    private final AnchorPointProvider anchorPointProvider;
+
+    private final Map<ComponentType, List<AnchorPoint>> anchorPointsByType = new EnumMap<>(ComponentType.class);
+
+    private final Map<ComponentType, List<AnchorPoint>> rotatedAnchorPointsByType = new EnumMap<>(ComponentType.class);
+
+    private final Map<String, BusbarAnchorPoints> busbarAnchorPointsById = new HashMap<>();
+
+    /**
+     * Anchor points of a busbar section, and their abscissas when they are all on a horizontal line ordered by
+     * abscissa
+     */
+    private static final class BusbarAnchorPoints {
+
+        private final List<AnchorPoint> anchorPoints;
+
+        private List<AnchorPoint> rotatedAnchorPoints;
+
+        private final double[] xs;
+
+        private BusbarAnchorPoints(List<AnchorPoint> anchorPoints) {
+            this.anchorPoints = anchorPoints;
+            double[] sortedXs = new double[anchorPoints.size()];
+            for (int i = 0; i < anchorPoints.size(); i++) {
+                AnchorPoint anchorPoint = anchorPoints.get(i);
+                sortedXs[i] = anchorPoint.getX();
+                if (anchorPoint.getY() != anchorPoints.get(0).getY() || (i > 0 && sortedXs[i] < sortedXs[i - 1])) {
+                    sortedXs = null;
+                    break;
+                }
+            }
+            xs = sortedXs != null && sortedXs.length > 0 ? sortedXs : null;
+        }
+
+        private List<AnchorPoint> getRotatedAnchorPoints() {
+            if (rotatedAnchorPoints == null) {
+                rotatedAnchorPoints = rotate(anchorPoints);
+            }
+            return rotatedAnchorPoints;
+        }
+    }
+
+    public AnchorPointTable(AnchorPointProvider anchorPointProvider) {
+        this.anchorPointProvider = Objects.requireNonNull(anchorPointProvider);
+    }
+
+    private static List<AnchorPoint> rotate(List<AnchorPoint> anchorPoints) {
+        return anchorPoints.stream().map(AnchorPoint::rotate).collect(Collectors.toList());
+    }
+
+    private BusbarAnchorPoints getBusbarAnchorPoints(String id) {
+        return busbarAnchorPointsById.computeIfAbsent(id, k -> new BusbarAnchorPoints(
+                anchorPointProvider.getAnchorPoints(ComponentType.BUSBAR_SECTION, id)));
+    }
+
+    private List<AnchorPoint> getAnchorPoints(ComponentType type) {
+        return anchorPointsByType.computeIfAbsent(type, t -> anchorPointProvider.getAnchorPoints(t, null));
+    }
+
+    @Override
+    public List<AnchorPoint> getAnchorPoints(ComponentType type, String id) {
+        Objects.requireNonNull(type);
+        if (type == ComponentType.BUSBAR_SECTION && id != null) {
+            return getBusbarAnchorPoints(id).anchorPoints;
+        }
+        return getAnchorPoints(type);
+    }
+
+    /**
+     * Anchor points of a node, rotated if the node is rotated
+     */
+    public List<AnchorPoint> getAnchorPoints(BaseNode node) {
+        Objects.requireNonNull(node);
+        if (node.getComponentType() == ComponentType.BUSBAR_SECTION) {
+            BusbarAnchorPoints busbarAnchorPoints = getBusbarAnchorPoints(node.getId());
+            return node.isRotated() ? busbarAnchorPoints.getRotatedAnchorPoints() : busbarAnchorPoints.anchorPoints;
+        }
+        if (node.isRotated()) {
+            return rotatedAnchorPointsByType.computeIfAbsent(node.getComponentType(), t -> rotate(getAnchorPoints(t)));
+        }
+        return getAnchorPoints(node.getComponentType());
+    }
+
+    /**
+     * true if the anchor points of a node are ordered along a horizontal line, so that the closest one to a point
+     * can be found by {@link #getClosestAnchorPoint}
+     */
+    boolean hasOrderedAnchorPoints(BaseNode node) {
+        return node.getComponentType() == ComponentType.BUSBAR_SECTION && !node.isRotated()
+                && getBusbarAnchorPoints(node.getId()).xs != null;
+    }
+
+    /**
+     * Index of the anchor point of a node closest to a point, the first one if several are at the same distance.
+     * The anchor points of the node have to be ordered.
+     */
+    int getClosestAnchorPoint(BaseNode node, double x, double y) {
+        double[] xs = getBusbarAnchorPoints(node.getId()).xs;
+        double nodeX = node.getX();
+
+        // first anchor point at the right of the point: the distance decreases before it and increases from it
+        int i = guessIndex(xs, x - nodeX);
+        while (i > 0 && nodeX + xs[i - 1] - x >= 0) {
+            i--;
+        }
+        while (i < xs.length && nodeX + xs[i] - x < 0) {
+            i++;
+        }
+
+        double anchorY = node.getY() + getBusbarAnchorPoints(node.getId()).anchorPoints.get(0).getY();
+        int closest;
+        if (i == xs.length) {
+            closest = i - 1;
+        } else if (i == 0) {
+            closest = 0;
+        } else {
+            double distance = WireConnection.calculateDistancePoint(nodeX + xs[i], anchorY, x, y);
+            double previousDistance = WireConnection.calculateDistancePoint(nodeX + xs[i - 1], anchorY, x, y);
+            closest = previousDistance <= distance ? i - 1 : i;
+        }
+        // first of the anchor points at the same distance
+        double distance = WireConnection.calculateDistancePoint(nodeX + xs[closest], anchorY, x, y);
+        while (closest > 0 && WireConnection.calculateDistancePoint(nodeX + xs[closest - 1], anchorY, x, y) == distance) {
+            closest--;
+        }
+        return closest;
+    }
+
+    /**
+     * Index of the anchor point at an abscissa, exact if the anchor points between the first and the last one are
+     * evenly spaced, as the anchor points of the busbars
+     */
+    private static int guessIndex(double[] xs, double x) {
+        if (xs.length < 3) {
+            return 0;
+        }
+        double step = xs.length > 3 ? xs[2] - xs[1] : xs[1] - xs[0];
+        if (step <= 0) {
+            return 0;
+        }
+        double index = Math.ceil((x - xs[1]) / step) + 1;
+        return (int) Math.max(0, Math.min(xs.length - 1, index));
+    }
+}
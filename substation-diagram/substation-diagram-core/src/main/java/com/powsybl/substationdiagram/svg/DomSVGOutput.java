@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.substationdiagram.library.ComponentType;
+import org.apache.batik.anim.dom.SVGOMDocument;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Build the SVG elements into a DOM document.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+class DomSVGOutput implements SVGOutput {
+
+    private final Document document;
+
+    private final Deque<Element> elements = new ArrayDeque<>();
+
+    DomSVGOutput(Document document) {
+        this.document = Objects.requireNonNull(document);
+        elements.push(document.getDocumentElement());
+    }
+
+    @Override
+    public void startElement(String name) {
+        Element element = document.createElement(name);
+        elements.peek().appendChild(element);
+        elements.push(element);
+    }
+
+    @Override
+    public void attribute(String name, String value) {
+        elements.peek().setAttribute(name, value);
+    }
+
+    @Override
+    public void text(String text) {
+        elements.peek().appendChild(document.createTextNode(text));
+    }
+
+    @Override
+    public void endElement() {
+        elements.pop();
+    }
+
+    @Override
+    public void component(ComponentType type, SVGOMDocument obj) {
+        // The following code work correctly considering SVG part describing the component is the first child of "obj" the SVGDocument.
+        // If SVG are written otherwise, it will not work correctly.
+
+        Element g = elements.peek();
+        for (int i = 0; i < obj.getChildNodes().item(0).getChildNodes().getLength(); i++) {
+            org.w3c.dom.Node n = obj.getChildNodes().item(0).getChildNodes().item(i).cloneNode(true);
+            document.adoptNode(n);
+            g.appendChild(n);
+        }
+    }
+}
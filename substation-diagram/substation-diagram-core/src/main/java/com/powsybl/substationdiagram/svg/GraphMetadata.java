@@ -7,6 +7,7 @@
 package com.powsybl.substationdiagram.svg;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
@@ -64,12 +65,23 @@ public class GraphMetadata implements AnchorPointProvider {
 
         private final String nodeId2;
 
+        private final String pathId;
+
+        public WireMetadata(String id, String nodeId1, String nodeId2) {
+            this(id, nodeId1, nodeId2, null);
+        }
+
+        /**
+         * @param pathId id of the SVG path drawing the wire along with other ones, null if the wire is drawn alone by
+         *               the element of id {@code id}
+         */
         @JsonCreator
         public WireMetadata(@JsonProperty("id") String id, @JsonProperty("nodeId1") String nodeId1,
-                            @JsonProperty("nodeId2") String nodeId2) {
+                            @JsonProperty("nodeId2") String nodeId2, @JsonProperty("pathId") String pathId) {
             this.id = Objects.requireNonNull(id);
             this.nodeId1 = Objects.requireNonNull(nodeId1);
             this.nodeId2 = Objects.requireNonNull(nodeId2);
+            this.pathId = pathId;
         }
 
         public String getId() {
@@ -83,6 +95,11 @@ public class GraphMetadata implements AnchorPointProvider {
         public String getNodeId2() {
             return nodeId2;
         }
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public String getPathId() {
+            return pathId;
+        }
     }
 
     private final Map<ComponentType, ComponentMetadata> componentMetadataByType = new EnumMap<>(ComponentType.class);
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.commons.PowsyblException;
+
+/**
+ * Format numbers with a fixed maximal number of decimals, trailing zeros removed: with 2 decimals, 12.3456 is
+ * written 12.35 and 12.0 is written 12. Digits are appended one by one, so nothing is allocated but the
+ * builder content. Values which cannot be scaled to a long, infinite, NaN or huge ones, are written as by
+ * {@link Double#toString(double)}.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+final class NumberFormatter {
+
+    private static final int MAX_DECIMALS = 9;
+
+    /**
+     * Bound of the scaled values, below the long range
+     */
+    private static final double MAX_SCALED = 1e18;
+
+    private final long scale;
+
+    NumberFormatter(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new PowsyblException("Invalid number of decimals: " + decimals);
+        }
+        long s = 1;
+        for (int i = 0; i < decimals; i++) {
+            s *= 10;
+        }
+        scale = s;
+    }
+
+    StringBuilder append(StringBuilder builder, double value) {
+        double scaledValue = value * scale;
+        // also false for NaN
+        if (!(Math.abs(scaledValue) < MAX_SCALED)) {
+            return builder.append(value);
+        }
+        long scaled = Math.round(scaledValue);
+        if (scaled < 0) {
+            builder.append('-');
+            scaled = -scaled;
+        }
+        builder.append(scaled / scale);
+        long fraction = scaled % scale;
+        if (fraction != 0) {
+            builder.append('.');
+            for (long divisor = scale / 10; fraction != 0; divisor /= 10) {
+                builder.append((char) ('0' + fraction / divisor));
+                fraction %= divisor;
+            }
+        }
+        return builder;
+    }
+
+    String format(double value) {
+        return append(new StringBuilder(), value).toString();
+    }
+}
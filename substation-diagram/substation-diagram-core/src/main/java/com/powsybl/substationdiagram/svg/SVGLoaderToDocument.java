@@ -8,12 +8,12 @@ package com.powsybl.substationdiagram.svg;
 
 import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
 import org.apache.batik.anim.dom.SVGOMDocument;
-import org.apache.batik.bridge.*;
 import org.apache.batik.util.XMLResourceDescriptor;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.util.Objects;
 
 /**
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
@@ -30,19 +30,21 @@ public class SVGLoaderToDocument {
      */
     public SVGOMDocument read(String fileName) {
         try (InputStream svgFile = this.getClass().getResourceAsStream(fileName)) {
-            String parser = XMLResourceDescriptor.getXMLParserClassName();
-            SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(parser);
-            SVGOMDocument document = (SVGOMDocument) factory.createDocument("", svgFile);
-
-            UserAgent userAgent = new UserAgentAdapter();
-            DocumentLoader loader = new DocumentLoader(userAgent);
-            BridgeContext bridgeContext = new BridgeContext(userAgent, loader);
-            bridgeContext.setDynamicState(BridgeContext.DYNAMIC);
-
-            // Enable CSS- and SVG-specific enhancements.
-            (new GVTBuilder()).build(bridgeContext, document);
+            return read(svgFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read svg file from the SVG library!", e);
+        }
+    }
 
-            return document;
+    /**
+     * Read a document in svg format. The document is only parsed: no GVT tree is built, as the document is only
+     * used as a source of SVG elements.
+     */
+    public SVGOMDocument read(InputStream is) {
+        Objects.requireNonNull(is);
+        try {
+            SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(XMLResourceDescriptor.getXMLParserClassName());
+            return (SVGOMDocument) factory.createDocument("", is);
         } catch (IOException e) {
             throw new UncheckedIOException("Can't read svg file from the SVG library!", e);
         }
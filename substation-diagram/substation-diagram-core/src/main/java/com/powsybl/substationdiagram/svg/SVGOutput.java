@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.substationdiagram.library.ComponentType;
+import org.apache.batik.anim.dom.SVGOMDocument;
+
+/**
+ * Target of the SVG elements emitted by {@link SVGWriter} while walking the graph.
+ * Attributes of an element have to be given right after {@link #startElement(String)}, before any child.
+ * <p>
+ * Implementations do not have to write SVG text, they can build any representation of the elements.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public interface SVGOutput {
+
+    void startElement(String name);
+
+    void attribute(String name, String value);
+
+    void text(String text);
+
+    void endElement();
+
+    /**
+     * Insert the content of a component SVG document into the current element.
+     */
+    void component(ComponentType type, SVGOMDocument document);
+}
@@ -17,8 +17,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Text;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
@@ -31,10 +29,7 @@ import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
@@ -48,44 +43,172 @@ public class SVGWriter {
     private static final String STYLE = "style";
     private static final String TRANSFORM = "transform";
     private static final String TRANSLATE = "translate";
+    private static final String SVG_NAMESPACE = "http://www.w3.org/2000/svg";
+    private static final String XLINK_NAMESPACE = "http://www.w3.org/1999/xlink";
+    private static final String XMLNS_NAMESPACE = "http://www.w3.org/2000/xmlns/";
+    private static final String SYMBOL_ID_PREFIX = "symbol-";
+    private static final String WIRE_ID_PREFIX = "Wire_";
+    private static final String WIRES_PATH_ID_PREFIX = "Wires";
+    private static final int DEFAULT_DECIMALS = 2;
+
+    /**
+     * Styles of the compact profile, replacing the inline styles
+     */
+    private static final String STYLESHEET = ".bus{stroke:rgb(0,0,0);stroke-width:3}"
+            + ".wire{stroke:rgb(200,0,0);stroke-width:1;fill:none}"
+            + ".grid{stroke:rgb(0,55,0);stroke-width:1;stroke-dasharray:1,10}"
+            + ".label{font-family:Verdana;font-size:8px}";
 
     private final ComponentLibrary componentLibrary;
 
     private final LayoutParameters layoutParameters;
 
+    private boolean streaming = false;
+
+    private boolean useSymbols = false;
+
+    private boolean compact = false;
+
+    private NumberFormatter numberFormatter = new NumberFormatter(DEFAULT_DECIMALS);
+
+    private int decimals = DEFAULT_DECIMALS;
+
+    private boolean mergeWires = false;
+
     public SVGWriter(ComponentLibrary componentLibrary, LayoutParameters layoutParameters) {
         this.componentLibrary = Objects.requireNonNull(componentLibrary);
         this.layoutParameters = Objects.requireNonNull(layoutParameters);
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * When streaming, the SVG is written on the fly while walking the graph instead of building a DOM document first.
+     * Both modes give the same XML, the attributes of an element being possibly written in another order.
+     */
+    public SVGWriter setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    public boolean isUseSymbols() {
+        return useSymbols;
+    }
+
+    /**
+     * When using symbols, the content of each component type is written once as a symbol, and referenced by the
+     * nodes instead of being copied into each of them.
+     */
+    public SVGWriter setUseSymbols(boolean useSymbols) {
+        this.useSymbols = useSymbols;
+        return this;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * The compact profile writes styles as classes of a single stylesheet, numbers with a limited number of decimals
+     * and no indentation.
+     */
+    public SVGWriter setCompact(boolean compact) {
+        this.compact = compact;
+        return this;
+    }
+
+    public int getDecimals() {
+        return decimals;
+    }
+
+    /**
+     * Maximal number of decimals of the numbers written with the compact profile, 2 by default
+     */
+    public SVGWriter setDecimals(int decimals) {
+        this.numberFormatter = new NumberFormatter(decimals);
+        this.decimals = decimals;
+        return this;
+    }
+
+    public boolean isMergeWires() {
+        return mergeWires;
+    }
+
+    /**
+     * With the compact profile, draw the wires of each cell with a single path. The wires can then be found with
+     * the path id of their metadata.
+     */
+    public SVGWriter setMergeWires(boolean mergeWires) {
+        this.mergeWires = mergeWires;
+        return this;
+    }
+
+    static String getSymbolId(ComponentType type) {
+        return SYMBOL_ID_PREFIX + type;
+    }
+
     public GraphMetadata write(Graph graph, Path svgFile) {
+        return write(GraphCoordinates.of(graph), svgFile);
+    }
+
+    public GraphMetadata write(GraphCoordinates coordinates, Path svgFile) {
         try (Writer writer = Files.newBufferedWriter(svgFile)) {
-            return write(graph, writer);
+            return write(coordinates, writer);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Create the SVGDocument corresponding to the graph
+     * Create the SVGDocument corresponding to the graph, at the coordinates stored in its nodes
      *
      * @param graph  graph
      * @param writer writer
      */
     public GraphMetadata write(Graph graph, Writer writer) {
+        return write(GraphCoordinates.of(graph), writer);
+    }
+
+    /**
+     * Create the SVGDocument corresponding to a layout result of a graph. The graph is only read, so the same graph
+     * can be written concurrently with other layout results.
+     *
+     * @param coordinates layout result
+     * @param writer      writer
+     */
+    public GraphMetadata write(GraphCoordinates coordinates, Writer writer) {
+        Objects.requireNonNull(coordinates);
+        if (streaming) {
+            StreamingSVGOutput output = new StreamingSVGOutput(writer, !compact);
+            output.startDocument(SVG_NAMESPACE);
+            if (useSymbols) {
+                output.attribute("xmlns:xlink", XLINK_NAMESPACE);
+            }
+            GraphMetadata metadata = writegraph(coordinates, output);
+            output.endDocument();
+            return metadata;
+        }
+
         DOMImplementation domImpl = GenericDOMImplementation.getDOMImplementation();
 
-        Document document = domImpl.createDocument("http://www.w3.org/2000/svg", "svg", null);
+        Document document = domImpl.createDocument(SVG_NAMESPACE, "svg", null);
+        if (useSymbols) {
+            document.getDocumentElement().setAttributeNS(XMLNS_NAMESPACE, "xmlns:xlink", XLINK_NAMESPACE);
+        }
 
-        GraphMetadata metadata = writegraph(graph, document);
+        GraphMetadata metadata = writegraph(coordinates, new DomSVGOutput(document));
 
         try {
             DOMSource source = new DOMSource(document);
             StreamResult result = new StreamResult(writer);
             TransformerFactory transformerFactory = TransformerFactory.newInstance();
             Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+            if (!compact) {
+                transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+                transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+            }
             transformer.transform(source, result);
         } catch (TransformerException e) {
             throw new UncheckedTransformerException(e);
@@ -94,19 +217,44 @@ public class SVGWriter {
         return metadata;
     }
 
+    /**
+     * Emit the elements of a layout result of a graph to an output, for instance to build a representation of the
+     * diagram other than SVG text. Only the content of the root element is emitted.
+     *
+     * @param coordinates layout result
+     * @param output      target of the elements
+     */
+    public GraphMetadata write(GraphCoordinates coordinates, SVGOutput output) {
+        Objects.requireNonNull(coordinates);
+        Objects.requireNonNull(output);
+        return writegraph(coordinates, output);
+    }
+
     /**
      * Create the SVGDocument corresponding to the graph
      */
-    private GraphMetadata writegraph(Graph graph, Document document) {
+    private GraphMetadata writegraph(GraphCoordinates coordinates, SVGOutput output) {
+        Graph graph = coordinates.getGraph();
         GraphMetadata metadata = new GraphMetadata();
 
-        Element root = document.createElement("g");
+        if (compact) {
+            output.startElement(STYLE);
+            output.text(STYLESHEET);
+            output.endElement();
+        }
+
+        if (useSymbols) {
+            drawSymbols(graph, output);
+        }
+
+        output.startElement("g");
 
         if (layoutParameters.isShowGrid()) {
-            root.appendChild(drawGrid(graph, document));
+            drawGrid(graph, output);
         }
 
-        AnchorPointProvider anchorPointProvider = (type, id) -> {
+        // busbar anchor points depend on the busbar, they are computed once for each busbar by the table
+        AnchorPointTable anchorPointTable = new AnchorPointTable((type, id) -> {
             if (type == ComponentType.BUSBAR_SECTION) {
                 BusNode busbarSectionNode = (BusNode) graph.getNode(id);
                 List<AnchorPoint> result = new ArrayList<>();
@@ -116,70 +264,117 @@ public class SVGWriter {
                             ((double) i / 2) * layoutParameters.getCellWidth() - layoutParameters.getHorizontalBusPadding() / 2,
                             0, AnchorOrientation.VERTICAL));
                 }
-                result.add(new AnchorPoint(busbarSectionNode.getPxWidth(), 0, AnchorOrientation.HORIZONTAL));
+                result.add(new AnchorPoint(coordinates.getPxWidth(busbarSectionNode), 0, AnchorOrientation.HORIZONTAL));
                 return result;
             }
             return componentLibrary.getAnchorPoints(type);
-        };
+        });
 
-        drawNodes(root, graph, metadata, anchorPointProvider);
-        drawEdges(root, graph, metadata, anchorPointProvider);
+        drawNodes(output, coordinates, metadata, anchorPointTable);
+        drawEdges(output, coordinates, metadata, anchorPointTable);
 
-        document.adoptNode(root);
-        document.getDocumentElement().appendChild(root);
+        output.endElement();
 
         return metadata;
     }
 
-    private Element drawGrid(Graph graph, Document document) {
+    private String format(double value) {
+        return compact ? numberFormatter.format(value) : String.valueOf(value);
+    }
+
+    private StringBuilder append(StringBuilder builder, double value) {
+        return compact ? numberFormatter.append(builder, value) : builder.append(value);
+    }
+
+    private void style(SVGOutput output, String cssClass, String style) {
+        if (compact) {
+            output.attribute("class", cssClass);
+        } else {
+            output.attribute(STYLE, style);
+        }
+    }
+
+    private boolean isComponentDrawn(Node node) {
+        return layoutParameters.isShowInternalNodes()
+                || (!node.isFictitious() && node.getType() != Node.NodeType.SHUNT);
+    }
+
+    /**
+     * Write a symbol for each component type drawn in the graph
+     */
+    private void drawSymbols(Graph graph, SVGOutput output) {
+        Set<ComponentType> types = EnumSet.noneOf(ComponentType.class);
+        for (Node node : graph.getNodes()) {
+            if (node.getType() != Node.NodeType.BUS && isComponentDrawn(node)) {
+                types.add(node.getComponentType());
+            }
+        }
+
+        output.startElement("defs");
+        for (ComponentType type : types) {
+            SVGOMDocument obj = componentLibrary.getSvgDocument(type);
+            if (obj != null) {
+                output.startElement("symbol");
+                output.attribute("id", getSymbolId(type));
+                // the symbol viewport must not clip the component
+                output.attribute("overflow", "visible");
+                output.component(type, obj);
+                output.endElement();
+            }
+        }
+        output.endElement();
+    }
+
+    private void drawGrid(Graph graph, SVGOutput output) {
         int maxH = graph.getNodeBuses().stream()
                 .mapToInt(nodeBus -> nodeBus.getPosition().getH() + nodeBus.getPosition().getHSpan())
                 .max().orElse(0);
         int maxV = graph.getNodeBuses().stream()
                 .mapToInt(nodeBus -> nodeBus.getPosition().getV())
                 .max().orElse(0);
-        Element gridRoot = document.createElement("g");
+        output.startElement("g");
         for (int i = 0; i < maxH + 1; i++) {
-            Element line = document.createElement("line");
-            line.setAttribute("x1",
-                              Double.toString(layoutParameters.getInitialXBus() + i * layoutParameters.getCellWidth()));
-            line.setAttribute("x2",
-                              Double.toString(layoutParameters.getInitialXBus() + i * layoutParameters.getCellWidth()));
-            line.setAttribute("y1",
-                              Double.toString(layoutParameters.getInitialYBus() - layoutParameters.getStackHeight()
-                                                      - layoutParameters.getExternCellHeight()));
-            line.setAttribute("y2", Double.toString(
+            output.startElement("line");
+            output.attribute("x1",
+                             format(layoutParameters.getInitialXBus() + i * layoutParameters.getCellWidth()));
+            output.attribute("x2",
+                             format(layoutParameters.getInitialXBus() + i * layoutParameters.getCellWidth()));
+            output.attribute("y1",
+                             format(layoutParameters.getInitialYBus() - layoutParameters.getStackHeight()
+                                            - layoutParameters.getExternCellHeight()));
+            output.attribute("y2", format(
                     layoutParameters.getInitialYBus() + layoutParameters.getStackHeight() + layoutParameters.getExternCellHeight()
                             + layoutParameters.getVerticalSpaceBus() * maxV));
-            line.setAttribute(STYLE, "stroke:rgb(0,55,0);stroke-width:1;stroke-dasharray:1,10");
-            line.setAttribute(TRANSFORM,
-                              TRANSLATE + "(" + layoutParameters.getTranslateX() + "," + layoutParameters.getTranslateY() + ")");
-            gridRoot.appendChild(line);
+            style(output, "grid", "stroke:rgb(0,55,0);stroke-width:1;stroke-dasharray:1,10");
+            output.attribute(TRANSFORM,
+                             TRANSLATE + "(" + format(layoutParameters.getTranslateX()) + "," + format(layoutParameters.getTranslateY()) + ")");
+            output.endElement();
         }
-        return gridRoot;
+        output.endElement();
     }
 
-    private void drawNodes(Element root, Graph graph, GraphMetadata metadata, AnchorPointProvider anchorPointProvider) {
-        graph.getNodes().forEach(node -> {
-            Element g = root.getOwnerDocument().createElement("g");
-            g.setAttribute("id", node.getId());
+    private void drawNodes(SVGOutput output, GraphCoordinates coordinates, GraphMetadata metadata,
+                           AnchorPointProvider anchorPointProvider) {
+        coordinates.getGraph().getNodes().forEach(node -> {
+            output.startElement("g");
+            output.attribute("id", node.getId());
 
             if (node.getType() == Node.NodeType.BUS) {
-                drawBus((BusNode) node, g);
+                drawBus((BusNode) node, coordinates, output);
             } else {
-                incorporateComponents(node, g);
+                incorporateComponents(node, coordinates, output);
             }
             if (!node.isFictitious()) {
                 if (node instanceof FeederNode) {
-                    drawLabel(node.getLabel(), node.isRotated(), g);
+                    drawLabel(node.getLabel(), coordinates.isRotated(node), output);
                 } else if (node instanceof BusNode) {
-                    drawLabel(node.getLabel(), false, g);
+                    drawLabel(node.getLabel(), false, output);
                 }
             }
-            root.appendChild(g);
+            output.endElement();
 
             metadata.addNodeMetadata(
-                    new GraphMetadata.NodeMetadata(node.getId(), node.getComponentType(), node.isRotated()));
+                    new GraphMetadata.NodeMetadata(node.getId(), node.getComponentType(), coordinates.isRotated(node)));
             if (node.getType() == Node.NodeType.BUS) {
                 metadata.addComponentMetadata(new ComponentMetadata(ComponentType.BUSBAR_SECTION,
                                                                     node.getId(),
@@ -196,66 +391,63 @@ public class SVGWriter {
         });
     }
 
-    private void drawBus(BusNode node, Element g) {
-        Element line = g.getOwnerDocument().createElement("line");
-        line.setAttribute("x1", "0");
-        line.setAttribute("y1", "0");
-        if (node.isRotated()) {
-            line.setAttribute("x2", "0");
-            line.setAttribute("y2", String.valueOf(node.getPxWidth()));
+    private void drawBus(BusNode node, GraphCoordinates coordinates, SVGOutput output) {
+        output.attribute(TRANSFORM, TRANSLATE + "(" + format(layoutParameters.getTranslateX() + coordinates.getX(node)) + ","
+                + format(layoutParameters.getTranslateY() + coordinates.getY(node)) + ")");
+
+        output.startElement("line");
+        output.attribute("x1", "0");
+        output.attribute("y1", "0");
+        if (coordinates.isRotated(node)) {
+            output.attribute("x2", "0");
+            output.attribute("y2", format(coordinates.getPxWidth(node)));
         } else {
-            line.setAttribute("x2", String.valueOf(node.getPxWidth()));
-            line.setAttribute("y2", "0");
+            output.attribute("x2", format(coordinates.getPxWidth(node)));
+            output.attribute("y2", "0");
         }
-        line.setAttribute(STYLE, "stroke:rgb(0,0,0);stroke-width:3");
-
-        g.appendChild(line);
-
-        g.setAttribute(TRANSFORM, TRANSLATE + "(" + (layoutParameters.getTranslateX() + node.getX()) + ","
-                + (layoutParameters.getTranslateY() + node.getY()) + ")");
+        style(output, "bus", "stroke:rgb(0,0,0);stroke-width:3");
+        output.endElement();
     }
 
-    private void drawLabel(String str, boolean rotated, Element g) {
-        Element label = g.getOwnerDocument().createElement("text");
-        label.setAttribute("x", "-5");
-        label.setAttribute("y", "-5");
-        label.setAttribute("font-family", "Verdana");
-        label.setAttribute("font-size", "8");
-        Text text = g.getOwnerDocument().createTextNode(str);
-        label.setAttribute(TRANSFORM, "rotate(" + (rotated ? -90 : 0) + "," + 0 + "," + 0 + ")");
-        label.appendChild(text);
-        g.appendChild(label);
+    private void drawLabel(String str, boolean rotated, SVGOutput output) {
+        output.startElement("text");
+        output.attribute("x", "-5");
+        output.attribute("y", "-5");
+        if (compact) {
+            output.attribute("class", "label");
+        } else {
+            output.attribute("font-family", "Verdana");
+            output.attribute("font-size", "8");
+        }
+        output.attribute(TRANSFORM, "rotate(" + (rotated ? -90 : 0) + "," + 0 + "," + 0 + ")");
+        output.text(str);
+        output.endElement();
     }
 
-    private void incorporateComponents(Node node, Element g) {
+    private void incorporateComponents(Node node, GraphCoordinates coordinates, SVGOutput output) {
         SVGOMDocument obj = componentLibrary.getSvgDocument(node.getComponentType());
         if (obj != null) {
-            transformComponent(node, g);
-            if (layoutParameters.isShowInternalNodes()
-                    || (!node.isFictitious() && node.getType() != Node.NodeType.SHUNT)) {
-                insertComponentSVGIntoDocumentSVG(obj, g);
+            transformComponent(node, coordinates, output);
+            if (isComponentDrawn(node)) {
+                if (useSymbols) {
+                    output.startElement("use");
+                    output.attribute("xlink:href", "#" + getSymbolId(node.getComponentType()));
+                    output.endElement();
+                } else {
+                    output.component(node.getComponentType(), obj);
+                }
             }
         }
     }
 
-    private void insertComponentSVGIntoDocumentSVG(SVGOMDocument obj, Element g) {
-        // The following code work correctly considering SVG part describing the component is the first child of "obj" the SVGDocument.
-        // If SVG are written otherwise, it will not work correctly.
-
-        for (int i = 0; i < obj.getChildNodes().item(0).getChildNodes().getLength(); i++) {
-            org.w3c.dom.Node n = obj.getChildNodes().item(0).getChildNodes().item(i).cloneNode(true);
-            g.getOwnerDocument().adoptNode(n);
-            g.appendChild(n);
-        }
-    }
-
-    private void transformComponent(Node node, Element g) {
+    private void transformComponent(Node node, GraphCoordinates coordinates, SVGOutput output) {
         ComponentSize componentSize = componentLibrary.getSize(node.getComponentType());
+        boolean rotated = coordinates.isRotated(node);
 
-        if (!node.isRotated()) {
-            g.setAttribute(TRANSFORM,
-                           TRANSLATE + "(" + (layoutParameters.getTranslateX() + node.getX() - componentSize.getWidth() / 2) + ","
-                                   + (layoutParameters.getTranslateY() + node.getY() - componentSize.getHeight() / 2) + ")");
+        if (!rotated) {
+            output.attribute(TRANSFORM,
+                             TRANSLATE + "(" + format(layoutParameters.getTranslateX() + coordinates.getX(node) - componentSize.getWidth() / 2) + ","
+                                     + format(layoutParameters.getTranslateY() + coordinates.getY(node) - componentSize.getHeight() / 2) + ")");
             return;
         }
 
@@ -265,36 +457,59 @@ public class SVGWriter {
 */
         int precision = 4;
 
-        double angle = Math.toRadians(node.isRotated() ? 90 : 0);
+        double angle = Math.toRadians(rotated ? 90 : 0);
         double cosRo = Math.cos(angle);
         double sinRo = Math.sin(angle);
         double cdx = componentSize.getWidth() / 2;
         double cdy = componentSize.getHeight() / 2;
 
-        double e1 = layoutParameters.getTranslateX() - cdx * cosRo + cdy * sinRo + node.getX();
-        double f1 = layoutParameters.getTranslateY() - cdx * sinRo - cdy * cosRo + node.getY();
+        double e1 = layoutParameters.getTranslateX() - cdx * cosRo + cdy * sinRo + coordinates.getX(node);
+        double f1 = layoutParameters.getTranslateY() - cdx * sinRo - cdy * cosRo + coordinates.getY(node);
 
-        g.setAttribute(TRANSFORM,
-                       "matrix(" + Precision.round(cosRo, precision) + "," + Precision.round(sinRo, precision)
-                               + "," + Precision.round(-sinRo, precision) + "," + Precision.round(cosRo,
-                                                                                                  precision) + ","
-                               + Precision.round(e1, precision) + "," + Precision.round(f1, precision) + ")");
+        output.attribute(TRANSFORM,
+                         "matrix(" + format(Precision.round(cosRo, precision)) + "," + format(Precision.round(sinRo, precision))
+                                 + "," + format(Precision.round(-sinRo, precision)) + "," + format(Precision.round(cosRo,
+                                                                                                                   precision)) + ","
+                                 + format(Precision.round(e1, precision)) + "," + format(Precision.round(f1, precision)) + ")");
     }
 
-    private void drawEdges(Element root, Graph graph, GraphMetadata metadata, AnchorPointProvider anchorPointProvider) {
+    private void drawEdges(SVGOutput output, GraphCoordinates coordinates, GraphMetadata metadata,
+                           AnchorPointTable anchorPointTable) {
+        Graph graph = coordinates.getGraph();
+        // wires merged by cell, in the order of their first wire
+        Map<String, StringBuilder> mergedWires = new LinkedHashMap<>();
+        double[] pol = new double[8];
         for (Edge edge : graph.getEdges()) {
-            Element g = root.getOwnerDocument().createElement("polyline");
-            g.setAttribute("id", "Wire" + graph.getEdges().indexOf(edge));
+            String wireId = getWireId(edge);
 
-            WireConnection anchorPoints = WireConnection.searchBetterAnchorPoints(anchorPointProvider, edge.getNode1(),
-                                                                                  edge.getNode2());
+            WireConnection anchorPoints = WireConnection.searchBetterAnchorPoints(anchorPointTable,
+                                                                                  coordinates.getBaseNode(edge.getNode1()),
+                                                                                  coordinates.getBaseNode(edge.getNode2()));
 
             // Determine points of the polyline
-            List<Double> pol = calculatePolylinePoints(edge, anchorPoints.getAnchorPoint1(),
-                                                       anchorPoints.getAnchorPoint2());
+            int size = calculatePolylinePoints(edge, coordinates, anchorPoints.getAnchorPoint1(),
+                                               anchorPoints.getAnchorPoint2(), pol);
+
+            if (compact && mergeWires) {
+                String pathId = getWiresPathId(edge);
+                StringBuilder path = mergedWires.computeIfAbsent(pathId, id -> new StringBuilder());
+                for (int i = 0; i < size; i += 2) {
+                    path.append(i == 0 ? 'M' : 'L');
+                    append(path, pol[i] + layoutParameters.getTranslateX()).append(',');
+                    append(path, pol[i + 1] + layoutParameters.getTranslateY());
+                }
+                metadata.addWireMetadata(new GraphMetadata.WireMetadata(wireId,
+                                                                        edge.getNode1().getId(),
+                                                                        edge.getNode2().getId(),
+                                                                        pathId));
+                continue;
+            }
+
+            output.startElement("polyline");
+            output.attribute("id", wireId);
 
             StringBuilder polPoints = new StringBuilder();
-            for (int i = 0; i < pol.size(); i++) {
+            for (int i = 0; i < size; i++) {
                 if (i != 0) {
                     if (i % 2 == 0) {
                         polPoints.append(" ");
@@ -303,63 +518,111 @@ public class SVGWriter {
                     }
                 }
                 if (i % 2 == 0) {
-                    double x = pol.get(i) + layoutParameters.getTranslateX();
-                    polPoints.append(x);
+                    append(polPoints, pol[i] + layoutParameters.getTranslateX());
                 } else {
-                    double y = pol.get(i) + layoutParameters.getTranslateY();
-                    polPoints.append(y);
+                    append(polPoints, pol[i] + layoutParameters.getTranslateY());
                 }
             }
 
-            g.setAttribute("points", polPoints.toString());
-            g.setAttribute(STYLE, "stroke:rgb(200,0,0);stroke-width:1");
-            g.setAttribute("fill", "none");
-            root.appendChild(g);
+            output.attribute("points", polPoints.toString());
+            if (compact) {
+                output.attribute("class", "wire");
+            } else {
+                output.attribute(STYLE, "stroke:rgb(200,0,0);stroke-width:1");
+                output.attribute("fill", "none");
+            }
+            output.endElement();
 
-            metadata.addWireMetadata(new GraphMetadata.WireMetadata("Wire" + graph.getEdges().indexOf(edge),
+            metadata.addWireMetadata(new GraphMetadata.WireMetadata(wireId,
                                                                     edge.getNode1().getId(),
                                                                     edge.getNode2().getId()));
         }
+
+        for (Map.Entry<String, StringBuilder> entry : mergedWires.entrySet()) {
+            output.startElement("path");
+            output.attribute("id", entry.getKey());
+            output.attribute("d", entry.getValue().toString());
+            output.attribute("class", "wire");
+            output.endElement();
+        }
     }
 
-    private List<Double> calculatePolylinePoints(Edge edge, AnchorPoint anchorPoint1, AnchorPoint anchorPoint2) {
-        double x1 = edge.getNode1().getX() + anchorPoint1.getX();
-        double y1 = edge.getNode1().getY() + anchorPoint1.getY();
-        double x2 = edge.getNode2().getX() + anchorPoint2.getX();
-        double y2 = edge.getNode2().getY() + anchorPoint2.getY();
+    static String getWireId(Edge edge) {
+        return WIRE_ID_PREFIX + edge.getId();
+    }
+
+    /**
+     * Id of the path drawing the wires of the cell of an edge, the cell of the node which is not a bus
+     */
+    private static String getWiresPathId(Edge edge) {
+        Node node = edge.getNode1().getType() == Node.NodeType.BUS ? edge.getNode2() : edge.getNode1();
+        Cell cell = node.getCell();
+        return cell != null ? WIRES_PATH_ID_PREFIX + cell.getNumber() : WIRES_PATH_ID_PREFIX;
+    }
+
+    /**
+     * Fill the points of the polyline of an edge, as x and y coordinates
+     *
+     * @param pol array of at least 8 elements receiving the coordinates
+     * @return the number of coordinates
+     */
+    private static int calculatePolylinePoints(Edge edge, GraphCoordinates coordinates, AnchorPoint anchorPoint1,
+                                               AnchorPoint anchorPoint2, double[] pol) {
+        double x1 = coordinates.getX(edge.getNode1()) + anchorPoint1.getX();
+        double y1 = coordinates.getY(edge.getNode1()) + anchorPoint1.getY();
+        double x2 = coordinates.getX(edge.getNode2()) + anchorPoint2.getX();
+        double y2 = coordinates.getY(edge.getNode2()) + anchorPoint2.getY();
 
         if (x1 == x2 || y1 == y2) {
-            return Arrays.asList(x1, y1, x2, y2);
+            return fill4(pol, x1, y1, x2, y2);
         }
-        List<Double> pol = new ArrayList<>();
         switch (anchorPoint1.getOrientation()) {
             case VERTICAL:
                 if (anchorPoint2.getOrientation() == AnchorOrientation.VERTICAL) {
                     double mid = (y1 + y2) / 2;
-                    pol.addAll(Arrays.asList(x1, y1, x1, mid, x2, mid, x2, y2));
+                    return fill8(pol, x1, y1, x1, mid, x2, mid, x2, y2);
                 } else {
-                    pol.addAll(Arrays.asList(x1, y1, x1, y2, x2, y2));
+                    return fill6(pol, x1, y1, x1, y2, x2, y2);
                 }
-                break;
             case HORIZONTAL:
                 if (anchorPoint2.getOrientation() == AnchorOrientation.HORIZONTAL) {
                     double mid = (x1 + x2) / 2;
-                    pol.addAll(Arrays.asList(x1, y1, mid, y1, mid, y2, x2, y2));
+                    return fill8(pol, x1, y1, mid, y1, mid, y2, x2, y2);
                 } else {
-                    pol.addAll(Arrays.asList(x2, y2, x2, y1, x1, y1));
+                    return fill6(pol, x2, y2, x2, y1, x1, y1);
                 }
-                break;
             case NONE:
                 // Case none-none is not handled, it never happens (even if it happen it will execute another case)
                 if (anchorPoint2.getOrientation() == AnchorOrientation.HORIZONTAL) {
-                    pol.addAll(Arrays.asList(x1, y1, x1, y2, x2, y2));
+                    return fill6(pol, x1, y1, x1, y2, x2, y2);
                 } else {
-                    pol.addAll(Arrays.asList(x2, y2, x2, y1, x1, y1));
+                    return fill6(pol, x2, y2, x2, y1, x1, y1);
                 }
-                break;
             default:
-                break;
+                return 0;
         }
-        return pol;
+    }
+
+    private static int fill4(double[] pol, double x1, double y1, double x2, double y2) {
+        pol[0] = x1;
+        pol[1] = y1;
+        pol[2] = x2;
+        pol[3] = y2;
+        return 4;
+    }
+
+    private static int fill6(double[] pol, double x1, double y1, double x2, double y2, double x3, double y3) {
+        fill4(pol, x1, y1, x2, y2);
+        pol[4] = x3;
+        pol[5] = y3;
+        return 6;
+    }
+
+    private static int fill8(double[] pol, double x1, double y1, double x2, double y2, double x3, double y3,
+                             double x4, double y4) {
+        fill6(pol, x1, y1, x2, y2, x3, y3);
+        pol[6] = x4;
+        pol[7] = y4;
+        return 8;
     }
 }
@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.substationdiagram.library.ComponentType;
+import org.apache.batik.anim.dom.SVGOMDocument;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Write the SVG elements straight to a writer, without building a DOM document.
+ * <p>
+ * The output is the same XML as the one of the DOM document serialized by the JDK identity transformer with
+ * indentation, the attributes being written in the order they are emitted rather than in the order Batik DOM
+ * iterates them:
+ * <ul>
+ *     <li>a tag is indented on a new line unless it follows a text, or a non whitespace text has been written in
+ *     the parent element,</li>
+ *     <li>the content of the components, whitespaces included, is written as is.</li>
+ * </ul>
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+class StreamingSVGOutput implements SVGOutput {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final int INDENT_AMOUNT = 4;
+
+    private static final int START = 0;
+    private static final int ATTRIBUTE = 1;
+    private static final int TEXT = 2;
+    private static final int END = 3;
+    private static final int COMMENT = 4;
+
+    private static final class Event {
+
+        private final int kind;
+        private final String name;
+        private final String value;
+
+        private Event(int kind, String name, String value) {
+            this.kind = kind;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private final Writer writer;
+
+    private final Deque<String> elementNames = new ArrayDeque<>();
+
+    private final List<String> attributeNames = new ArrayList<>();
+
+    private final List<String> attributeValues = new ArrayList<>();
+
+    private final Map<ComponentType, List<Event>> componentEvents = new EnumMap<>(ComponentType.class);
+
+    private boolean startTagOpen = false;
+
+    private boolean startNewLine = false;
+
+    private boolean prevText = false;
+
+    private boolean preserve = false;
+
+    private final Deque<Boolean> preserves = new ArrayDeque<>();
+
+    private final boolean indented;
+
+    StreamingSVGOutput(Writer writer) {
+        this(writer, true);
+    }
+
+    /**
+     * @param indented if false, the elements are written without any line break nor indentation
+     */
+    StreamingSVGOutput(Writer writer, boolean indented) {
+        this.writer = Objects.requireNonNull(writer);
+        this.indented = indented;
+    }
+
+    void startDocument(String namespaceUri) {
+        write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        startElement("svg");
+        attribute("xmlns", namespaceUri);
+    }
+
+    void endDocument() {
+        endElement();
+        write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void startElement(String name) {
+        closeStartTag();
+        if (startNewLine && shouldIndent() && !elementNames.isEmpty()) {
+            indent(elementNames.size());
+        }
+        startNewLine = true;
+        write("<");
+        write(name);
+        elementNames.push(name);
+        startTagOpen = true;
+        prevText = false;
+    }
+
+    @Override
+    public void attribute(String name, String value) {
+        if (!startTagOpen) {
+            throw new IllegalStateException("Attribute " + name + " written after the content of the element");
+        }
+        attributeNames.add(name);
+        attributeValues.add(value);
+    }
+
+    @Override
+    public void text(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        closeStartTag();
+        if (!isWhitespace(text)) {
+            preserve = true;
+        }
+        writeEscaped(text, false);
+        prevText = true;
+    }
+
+    private void comment(String data) {
+        closeStartTag();
+        write("<!--");
+        write(data);
+        write("-->");
+        startNewLine = true;
+    }
+
+    @Override
+    public void endElement() {
+        String name = elementNames.pop();
+        if (startTagOpen) {
+            writeAttributes();
+            write("/>");
+            startTagOpen = false;
+        } else {
+            if (shouldIndent()) {
+                indent(elementNames.size());
+            }
+            write("</");
+            write(name);
+            write(">");
+            preserve = preserves.pop();
+        }
+        prevText = false;
+    }
+
+    @Override
+    public void component(ComponentType type, SVGOMDocument obj) {
+        List<Event> events = componentEvents.computeIfAbsent(type, t -> readComponent(obj));
+        for (Event event : events) {
+            switch (event.kind) {
+                case START:
+                    startElement(event.name);
+                    break;
+                case ATTRIBUTE:
+                    attribute(event.name, event.value);
+                    break;
+                case TEXT:
+                    text(event.value);
+                    break;
+                case END:
+                    endElement();
+                    break;
+                case COMMENT:
+                    comment(event.value);
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+    }
+
+    /**
+     * Flatten the content of a component document into a list of events, so that the document is read once.
+     * As for the DOM writer, the content is cloned first: the order of the attributes is the one of the clone.
+     */
+    private static List<Event> readComponent(SVGOMDocument obj) {
+        List<Event> events = new ArrayList<>();
+        NodeList children = obj.getChildNodes().item(0).getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            readNode(children.item(i).cloneNode(true), events);
+        }
+        return events;
+    }
+
+    private static void readNode(org.w3c.dom.Node n, List<Event> events) {
+        switch (n.getNodeType()) {
+            case org.w3c.dom.Node.ELEMENT_NODE:
+                events.add(new Event(START, n.getNodeName(), null));
+                NamedNodeMap attributes = n.getAttributes();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    events.add(new Event(ATTRIBUTE, attributes.item(i).getNodeName(), attributes.item(i).getNodeValue()));
+                }
+                NodeList children = n.getChildNodes();
+                for (int i = 0; i < children.getLength(); i++) {
+                    readNode(children.item(i), events);
+                }
+                events.add(new Event(END, null, null));
+                break;
+            case org.w3c.dom.Node.TEXT_NODE:
+            case org.w3c.dom.Node.CDATA_SECTION_NODE:
+                events.add(new Event(TEXT, null, n.getNodeValue()));
+                break;
+            case org.w3c.dom.Node.COMMENT_NODE:
+                events.add(new Event(COMMENT, null, n.getNodeValue()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean shouldIndent() {
+        return !preserve && !prevText;
+    }
+
+    private void closeStartTag() {
+        if (startTagOpen) {
+            writeAttributes();
+            write(">");
+            startTagOpen = false;
+            prevText = false;
+            preserves.push(preserve);
+        }
+    }
+
+    private void writeAttributes() {
+        for (int i = 0; i < attributeNames.size(); i++) {
+            write(" ");
+            write(attributeNames.get(i));
+            write("=\"");
+            writeEscaped(attributeValues.get(i), true);
+            write("\"");
+        }
+        attributeNames.clear();
+        attributeValues.clear();
+    }
+
+    private static boolean isWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indent(int depth) {
+        if (!indented) {
+            return;
+        }
+        write(LINE_SEPARATOR);
+        for (int i = 0; i < depth * INDENT_AMOUNT; i++) {
+            write(" ");
+        }
+    }
+
+    private void writeEscaped(String str, boolean inAttribute) {
+        try {
+            int start = 0;
+            for (int i = 0; i < str.length(); i++) {
+                String replacement = escape(str.charAt(i), inAttribute);
+                if (replacement != null) {
+                    writer.write(str, start, i - start);
+                    writer.write(replacement);
+                    start = i + 1;
+                }
+            }
+            writer.write(str, start, str.length() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escape(char c, boolean inAttribute) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return inAttribute ? "&quot;" : null;
+            case '\n':
+                return inAttribute ? "&#10;" : LINE_SEPARATOR;
+            case '\r':
+                return inAttribute ? "&#13;" : null;
+            case '\t':
+                return inAttribute ? "&#9;" : null;
+            default:
+                return null;
+        }
+    }
+
+    private void write(String str) {
+        try {
+            writer.write(str);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -12,7 +12,6 @@ import com.powsybl.substationdiagram.model.BaseNode;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
@@ -39,49 +38,86 @@ public class WireConnection {
      * @param y2 y2
      * @return distance
      */
-    private static double calculateDistancePoint(double x1, double y1, double x2, double y2) {
+    static double calculateDistancePoint(double x1, double y1, double x2, double y2) {
         return (x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1);
     }
 
-    private static List<AnchorPoint> getAnchorPoints(AnchorPointProvider anchorPointProvider, BaseNode node) {
-        return anchorPointProvider.getAnchorPoints(node.getComponentType(), node.getId())
-                .stream()
-                .map(anchorPoint -> node.isRotated() ? anchorPoint.rotate() : anchorPoint)
-                .collect(Collectors.toList());
-    }
-
     public static WireConnection searchBetterAnchorPoints(AnchorPointProvider anchorPointProvider,
                                                           BaseNode node1,
                                                           BaseNode node2) {
         Objects.requireNonNull(anchorPointProvider);
+        AnchorPointTable anchorPointTable = anchorPointProvider instanceof AnchorPointTable
+                ? (AnchorPointTable) anchorPointProvider
+                : new AnchorPointTable(anchorPointProvider);
+        return searchBetterAnchorPoints(anchorPointTable, node1, node2);
+    }
+
+    /**
+     * Search the closest anchor points of two nodes, the first pair in the order of the anchor points of node1
+     * then of node2 if several pairs are at the same distance.
+     */
+    public static WireConnection searchBetterAnchorPoints(AnchorPointTable anchorPointTable,
+                                                          BaseNode node1,
+                                                          BaseNode node2) {
+        Objects.requireNonNull(anchorPointTable);
         Objects.requireNonNull(node1);
         Objects.requireNonNull(node2);
 
-        List<AnchorPoint> anchorPoints1 = getAnchorPoints(anchorPointProvider, node1);
-        List<AnchorPoint> anchorPoints2 = getAnchorPoints(anchorPointProvider, node2);
-        AnchorPoint betterAnchorPoint1 = anchorPoints1.get(0);
-        AnchorPoint betterAnchorPoint2 = anchorPoints2.get(0);
-
-        double currentDistance = calculateDistancePoint(node1.getX() + betterAnchorPoint1.getX(),
-                                                        node1.getY() + betterAnchorPoint1.getY(),
-                                                        node2.getX() + betterAnchorPoint2.getX(),
-                                                        node2.getY() + betterAnchorPoint2.getY());
+        List<AnchorPoint> anchorPoints1 = anchorPointTable.getAnchorPoints(node1);
+        List<AnchorPoint> anchorPoints2 = anchorPointTable.getAnchorPoints(node2);
+        boolean ordered1 = anchorPointTable.hasOrderedAnchorPoints(node1);
+        boolean ordered2 = anchorPointTable.hasOrderedAnchorPoints(node2);
 
-        for (AnchorPoint anchorPoint1 : anchorPoints1) {
-            for (AnchorPoint anchorPoint2 : anchorPoints2) {
-                double distance = calculateDistancePoint(node1.getX() + anchorPoint1.getX(),
-                                                         node1.getY() + anchorPoint1.getY(),
-                                                         node2.getX() + anchorPoint2.getX(),
-                                                         node2.getY() + anchorPoint2.getY());
-                if (distance < currentDistance) {
-                    betterAnchorPoint1 = anchorPoint1;
-                    betterAnchorPoint2 = anchorPoint2;
+        int better1 = -1;
+        int better2 = -1;
+        double currentDistance = Double.NaN;
+        if (ordered1 && !ordered2) {
+            // the closest anchor point of node1 is found directly for each anchor point of node2
+            for (int j = 0; j < anchorPoints2.size(); j++) {
+                double x2 = node2.getX() + anchorPoints2.get(j).getX();
+                double y2 = node2.getY() + anchorPoints2.get(j).getY();
+                int i = anchorPointTable.getClosestAnchorPoint(node1, x2, y2);
+                double distance = calculateDistancePoint(node1.getX() + anchorPoints1.get(i).getX(),
+                                                         node1.getY() + anchorPoints1.get(i).getY(),
+                                                         x2, y2);
+                if (better1 == -1 || distance < currentDistance || (distance == currentDistance && i < better1)) {
+                    better1 = i;
+                    better2 = j;
                     currentDistance = distance;
                 }
             }
+        } else if (ordered2 && !ordered1) {
+            // the closest anchor point of node2 is found directly for each anchor point of node1
+            for (int i = 0; i < anchorPoints1.size(); i++) {
+                double x1 = node1.getX() + anchorPoints1.get(i).getX();
+                double y1 = node1.getY() + anchorPoints1.get(i).getY();
+                int j = anchorPointTable.getClosestAnchorPoint(node2, x1, y1);
+                double distance = calculateDistancePoint(x1, y1,
+                                                         node2.getX() + anchorPoints2.get(j).getX(),
+                                                         node2.getY() + anchorPoints2.get(j).getY());
+                if (better1 == -1 || distance < currentDistance) {
+                    better1 = i;
+                    better2 = j;
+                    currentDistance = distance;
+                }
+            }
+        } else {
+            for (int i = 0; i < anchorPoints1.size(); i++) {
+                for (int j = 0; j < anchorPoints2.size(); j++) {
+                    double distance = calculateDistancePoint(node1.getX() + anchorPoints1.get(i).getX(),
+                                                             node1.getY() + anchorPoints1.get(i).getY(),
+                                                             node2.getX() + anchorPoints2.get(j).getX(),
+                                                             node2.getY() + anchorPoints2.get(j).getY());
+                    if (better1 == -1 || distance < currentDistance) {
+                        better1 = i;
+                        better2 = j;
+                        currentDistance = distance;
+                    }
+                }
+            }
         }
 
-        return new WireConnection(betterAnchorPoint1, betterAnchorPoint2);
+        return new WireConnection(anchorPoints1.get(better1), anchorPoints2.get(better2));
     }
 
     public AnchorPoint getAnchorPoint1() {
@@ -13,7 +13,15 @@ import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
 import com.powsybl.substationdiagram.model.Graph;
 import com.powsybl.substationdiagram.svg.SVGWriter;
 
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
@@ -29,13 +37,35 @@ public abstract class AbstractTestCase {
 
     protected VoltageLevel vl;
 
-    private final ResourcesComponentLibrary componentLibrary = new ResourcesComponentLibrary("/ConvergenceLibrary");
+    private final ResourcesComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
 
     private static String normalizeLineSeparator(String str) {
         return str.replace("\r\n", "\n")
                 .replace("\r", "\n");
     }
 
+    private static Document parse(String xml) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Compare two SVG documents as XML, the order of the attributes of an element not being significant. When they
+     * differ, the texts are compared to report the difference.
+     */
+    public static void assertSvgEquals(String expected, String actual) {
+        if (!parse(expected).isEqualNode(parse(actual))) {
+            assertEquals(expected, actual);
+        }
+    }
+
     abstract void setUp();
 
     AbstractTestCase() {
@@ -51,14 +81,20 @@ public abstract class AbstractTestCase {
     }
 
     public void compareSvg(Graph graph, LayoutParameters layoutParameters, String refSvgName) {
+        compareSvg(graph, layoutParameters, refSvgName, false);
+        compareSvg(graph, layoutParameters, refSvgName, true);
+    }
+
+    private void compareSvg(Graph graph, LayoutParameters layoutParameters, String refSvgName, boolean streaming) {
         try (StringWriter writer = new StringWriter()) {
             new SVGWriter(componentLibrary, layoutParameters)
+                    .setStreaming(streaming)
                     .write(graph, writer);
             writer.flush();
 
             String refSvg = normalizeLineSeparator(new String(ByteStreams.toByteArray(getClass().getResourceAsStream(refSvgName)), StandardCharsets.UTF_8));
             String svg = normalizeLineSeparator(writer.toString());
-            assertEquals(refSvg, svg);
+            assertSvgEquals(refSvg, svg);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.commons.jaxb.JaxbUtil;
+import com.powsybl.substationdiagram.layout.CellDetector;
+import com.powsybl.substationdiagram.model.*;
+import generated.EdgePattern;
+import generated.NodePattern;
+import generated.Patterns;
+import generated.Patterns.Pattern;
+
+import java.io.InputStreamReader;
+import java.util.*;
+
+/**
+ * Former recursive search of the patterns, kept as a reference for the search plans of
+ * {@link com.powsybl.substationdiagram.layout.PatternCellDetector}: only the cells are created, the nodes are not
+ * updated.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+class BaselinePatternCellDetector implements CellDetector {
+
+    private final Patterns patterns;
+
+    BaselinePatternCellDetector(String patternFileName) {
+        this.patterns = JaxbUtil.unmarchallReader(Patterns.class,
+                                                  new InputStreamReader(
+                                                          getClass().getResourceAsStream(patternFileName)));
+    }
+
+    @Override
+    public void detectCells(Graph graph) {
+        List<Node> nodesHandled = new ArrayList<>();
+        for (Pattern p : patterns.getPattern()) {
+            searchPatternGraph(p, graph, nodesHandled);
+        }
+    }
+
+    private static void setKindFromPattern(Pattern pattern, Cell cell) {
+        switch (pattern.getKind()) {
+            case "intern":
+                cell.setType((cell.getNodes().size() == 3) ? Cell.CellType.INTERNBOUND : Cell.CellType.INTERN);
+                break;
+            case "extern":
+                cell.setType(Cell.CellType.EXTERN);
+                break;
+            case "pontage":
+                cell.setType(Cell.CellType.SHUNT);
+                break;
+            default:
+                cell.setType(Cell.CellType.UNDEFINED);
+        }
+    }
+
+    private void searchPatternGraph(Pattern p, Graph graph, List<Node> nodesHandled) {
+        Map<String, NodePattern> mapNodes = new HashMap<>();
+        for (NodePattern n : p.getNode()) {
+            mapNodes.put(n.getId(), n);
+        }
+        List<Node> nodeToSearch = new ArrayList<>(graph.getNodes());
+        nodeToSearch.removeAll(nodesHandled);
+        bindNodeAdj(p, mapNodes);
+        if (!p.getNode().isEmpty()) {
+            for (Node nG : nodeToSearch) {
+                List<Node> nodesCell = new ArrayList<>();
+                if (check(p.getNode().get(0), nG, new ArrayList<>(), nodesHandled, nodesCell)) {
+                    Cell c = p.getKind().equals("intern") ? new InternCell(graph) : new Cell(graph);
+                    setKindFromPattern(p, c);
+                    c.setNodes(nodesCell);
+                    graph.addCell(c);
+                }
+            }
+        }
+    }
+
+    private boolean check(NodePattern nP, Node nG, List<NodePattern> nodesPHandled, List<Node> nodesGHandled,
+                          List<Node> nodesCell) {
+        boolean checking = false;
+
+        List<Node> nodesGParents = new ArrayList<>(nodesGHandled);
+        List<NodePattern> nodesPParents = new ArrayList<>(nodesPHandled);
+
+        if (nP.getKind().equals("Cell") && nodesGHandled.contains(nG) && !nodesCell.contains(nG)) {
+            nodesCell.add(nG);
+            return true;
+        }
+
+        if (!nP.isShuntPossible() && nP.getListNodeAdj().size() != nG.getAdjacentNodes().size()) {
+            return false;
+        } else {
+            if ((nP.getKind().equals("EQ") && (nG instanceof FeederNode) && !(nG instanceof BusNode))
+                    || ((nP.getKind().equals("Switch")) && (nG instanceof SwitchNode))
+                    || (nP.getKind().equals("BusbarSection") && (nG instanceof BusNode))
+                    || (nP.getKind().equals("Node") && (nG instanceof FicticiousNode))) {
+                nodesCell.add(nG);
+                if (nP.getKind().equals("BusbarSection")) {
+                    return true;
+                }
+                nodesPHandled.add(nP);
+                nodesGHandled.add(nG);
+
+                List<Integer> data = new ArrayList<>();
+                for (int j = 0; j < nG.getAdjacentNodes().size(); j++) {
+                    data.add(j);
+                }
+                List<List<Integer>> listComb = new ArrayList<>();
+                combination(listComb, data, nP.getListNodeAdj().size(), 0, new int[nP.getListNodeAdj().size()]);
+
+                for (List<Integer> l : listComb) {
+                    checking = true;
+                    int nbOfRecursivCall = 0;
+                    int nbNodeAlreadyVisited = 0;
+
+                    for (int i = 0; i < nP.getListNodeAdj().size(); i++) {
+                        if (nodesPHandled.contains(nP.getListNodeAdj().get(i))) {
+                            nbNodeAlreadyVisited++;
+                        }
+                        if (!(nodesPHandled.contains(nP.getListNodeAdj().get(i)))
+                                && (nP.getListNodeAdj().get(i).getKind().equals("Cell")
+                                || !(nodesGHandled.contains(nG.getAdjacentNodes().get(l.get(i)))))) {
+                            checking = checking && check(nP.getListNodeAdj().get(i),
+                                                         nG.getAdjacentNodes().get(l.get(i)),
+                                                         nodesPHandled, nodesGHandled, nodesCell);
+                            nbOfRecursivCall++;
+                        }
+                    }
+
+                    if (nbOfRecursivCall != (nP.getListNodeAdj().size() - nbNodeAlreadyVisited)) {
+                        checking = false;
+                    }
+                    if (checking) {
+                        break;
+                    }
+                }
+                if (!checking) {
+                    nodesCell.remove(nG);
+                    nodesGHandled.clear();
+                    nodesPHandled.clear();
+                    nodesGHandled.addAll(nodesGParents);
+                    nodesPHandled.addAll(nodesPParents);
+                }
+                return checking;
+            }
+        }
+        return false;
+    }
+
+    private void combination(List<List<Integer>> listComb, List<Integer> data, int size, int index, int[] l) {
+        if (index == size) {
+            List<Integer> nL = new ArrayList<>();
+            for (int j : l) {
+                nL.add(j);
+            }
+            listComb.add(nL);
+            return;
+        }
+
+        for (int i : data) {
+            l[index] = i;
+            List<Integer> remainingData = new ArrayList<>(data);
+            remainingData.remove(Integer.valueOf(i));
+            combination(listComb, remainingData, size, index + 1, l);
+        }
+    }
+
+    private void bindNodeAdj(Pattern p, Map<String, NodePattern> mapNodes) {
+        for (NodePattern n : p.getNode()) {
+            n.getListNodeAdj().clear();
+        }
+        for (EdgePattern e : p.getEdge()) {
+            mapNodes.get(e.getSource()).getListNodeAdj().add(mapNodes.get(e.getTarget()));
+            mapNodes.get(e.getTarget()).getListNodeAdj().add(mapNodes.get(e.getSource()));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.CellBlockDecomposer;
+import com.powsybl.substationdiagram.layout.ImplicitCellDetector;
+import com.powsybl.substationdiagram.model.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the block trees built by {@link CellBlockDecomposer} from the detected cells.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class CellBlockDecomposerTest {
+
+    /**
+     * Type and sub-blocks of a block, the lower block of a serial block first, or nodes of a primary block
+     *
+     * @param sortParallel whether the sub-blocks of a parallel block are sorted, the order of similar blocks
+     *                     depending on the order of the bus nodes of the cell
+     */
+    private static String toString(Block block, boolean sortParallel) {
+        if (block instanceof SerialBlock) {
+            SerialBlock serialBlock = (SerialBlock) block;
+            return "SERIAL(" + toString(serialBlock.getLowerBlock(), sortParallel) + ", "
+                    + toString(serialBlock.getUpperBlock(), sortParallel) + ")";
+        } else if (block instanceof ParallelBlock) {
+            List<String> subBlocks = ((ParallelBlock) block).getSubBlocks().stream()
+                    .map(subBlock -> toString(subBlock, sortParallel))
+                    .collect(Collectors.toList());
+            if (sortParallel) {
+                subBlocks.sort(null);
+            }
+            return "PARALLEL(" + String.join(", ", subBlocks) + ")";
+        } else {
+            return "PRIMARY" + ((PrimaryBlock) block).getNodes().stream().map(Node::getId).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Type and block tree of each cell detected, sorted
+     */
+    private static List<String> determineBlocks(VoltageLevel vl, boolean sortParallel) {
+        Graph graph = Graph.create(vl);
+        new ImplicitCellDetector().detectCells(graph);
+        return graph.getCells().stream()
+                .map(cell -> {
+                    new CellBlockDecomposer().determineBlocks(cell);
+                    return cell.getType() + " " + toString(cell.getRootBlock(), sortParallel);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> determineBlocks(AbstractTestCase testCase) {
+        return determineBlocks(testCase.getVl(), false);
+    }
+
+    @Test
+    public void testExternCells() {
+        assertEquals(Arrays.asList("EXTERN SERIAL(PRIMARY[bbs, d, 1], PRIMARY[1, b, l])"),
+                     determineBlocks(new TestCase1()));
+        assertEquals(Arrays.asList("EXTERN SERIAL(PARALLEL(PRIMARY[bbs1, d1, 2], PRIMARY[bbs2, d2, 2]), PRIMARY[2, b, l])"),
+                     determineBlocks(new TestCase2StackedCell()));
+        assertEquals(Arrays.asList("EXTERN SERIAL(PARALLEL(PRIMARY[bbs1.1, da1, 4], PRIMARY[bbs2.1, da2, 4]), PRIMARY[4, ba, la])",
+                                   "EXTERN SERIAL(PARALLEL(PRIMARY[bbs1.2, db1, 6], PRIMARY[bbs2.1, db2, 6]), PRIMARY[6, bb, lb])",
+                                   "EXTERN SERIAL(PRIMARY[bbs1.2, dc1, 8], PRIMARY[8, bc, gc])",
+                                   "INTERNBOUND PRIMARY[bbs1.1, ss1, bbs1.2]"),
+                     determineBlocks(new TestCase4NotParallelel()));
+    }
+
+    @Test
+    public void testShuntCell() {
+        assertEquals(Arrays.asList("EXTERN SERIAL(PRIMARY[bbs, da, 1], SERIAL(PRIMARY[1, ba, laFictif], PRIMARY[laFictif, la]))",
+                                   "EXTERN SERIAL(PRIMARY[bbs, db, 3], PRIMARY[3, bb, lb])",
+                                   "SHUNT PRIMARY[3, bs, laFictif]"),
+                     determineBlocks(new TestCase5ShuntVertical()));
+    }
+
+    @Test
+    public void testInternCells() {
+        assertEquals(Arrays.asList("INTERN PARALLEL(SERIAL(PRIMARY[bbs2, d2, 2], PRIMARY[2, b, 1]), PRIMARY[bbs1, d1, 1])"),
+                     determineBlocks(new TestCase3Coupling()));
+        assertEquals(Arrays.asList("INTERN PARALLEL(SERIAL(PARALLEL(PRIMARY[bbs11, d11, 4], PRIMARY[bbs21, d21, 4]), PRIMARY[4, b, 5]), "
+                                           + "PRIMARY[bbs22, d22, 5], PRIMARY[bbs12, d12, 5])",
+                                   "INTERNBOUND PRIMARY[bbs11, d1, bbs12]",
+                                   "INTERNBOUND PRIMARY[bbs21, d2, bbs22]"),
+                     determineBlocks(new TestCase8JumpOverStacked()));
+        assertEquals(Arrays.asList("INTERN PARALLEL(PRIMARY[bbs1, d1, 2], PRIMARY[bbs2, d2, 2])"),
+                     determineBlocks(new TestCase9singularInternCell()));
+    }
+
+    private static String couplingBlocks(String id, String busbar1, String busbar2, int node1, int node2) {
+        return "INTERN PARALLEL(PRIMARY[" + busbar1 + ", " + id + "_d1, " + node1 + "], SERIAL(PRIMARY[" + busbar2 + ", "
+                + id + "_d2, " + node2 + "], PRIMARY[" + node2 + ", " + id + "_b, " + node1 + "]))";
+    }
+
+    @Test
+    public void testGeneratedVoltageLevel() {
+        VoltageLevel vl = new VoltageLevelGenerator(2, 2, 8).generate(NetworkFactory.create("test", "test"), "vl");
+
+        // node numbers of the generator: the busbar sections, the common and feeder nodes of each feeder, then
+        // the two nodes of each coupling
+        List<String> expected = new ArrayList<>();
+        for (int f = 0; f < 8; f++) {
+            int s = f / 4;
+            int commonNode = 4 + 2 * f;
+            expected.add("EXTERN SERIAL(PARALLEL(PRIMARY[vl_bbs_0_" + s + ", vl_d_" + f + "_0, " + commonNode
+                    + "], PRIMARY[vl_bbs_1_" + s + ", vl_d_" + f + "_1, " + commonNode + "]), PRIMARY["
+                    + commonNode + ", vl_b_" + f + ", vl_l_" + f + "])");
+        }
+        expected.add(couplingBlocks("vl_c_0_0", "vl_bbs_0_0", "vl_bbs_1_0", 20, 21));
+        expected.add(couplingBlocks("vl_c_0_1", "vl_bbs_0_1", "vl_bbs_1_1", 22, 23));
+        expected.add(couplingBlocks("vl_sc_0_0", "vl_bbs_0_0", "vl_bbs_0_1", 24, 25));
+        expected.add(couplingBlocks("vl_sc_1_0", "vl_bbs_1_0", "vl_bbs_1_1", 26, 27));
+        expected.sort(null);
+        assertEquals(expected, determineBlocks(vl, true));
+    }
+
+    @Test(expected = PowsyblException.class)
+    public void testUnmergeableBlocks() {
+        // the fictitious node is also connected to a node outside of the cell, so that the two blocks of the cell
+        // can neither be chained nor put in parallel
+        Graph graph = new Graph(false);
+        Node bus = BusNode.createFictitious(graph, "bbs");
+        Node d = SwitchNode.createFictitious(graph, "d");
+        Node fictitious = new FicticiousNode(graph, "1");
+        Node b = SwitchNode.createFictitious(graph, "b");
+        Node feeder = FeederNode.createFictitious(graph, "l");
+        Node other = SwitchNode.createFictitious(graph, "other");
+        Arrays.asList(bus, d, fictitious, b, feeder, other).forEach(graph::addNode);
+        graph.addEdge(bus, d);
+        graph.addEdge(d, fictitious);
+        graph.addEdge(fictitious, b);
+        graph.addEdge(b, feeder);
+        graph.addEdge(fictitious, other);
+
+        Cell cell = new Cell(graph, Cell.CellType.EXTERN);
+        cell.setNodes(Arrays.asList(bus, d, fictitious, b, feeder));
+        new CellBlockDecomposer().determineBlocks(cell);
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.*;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.FeederNode;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that each stage of the diagram generation scales near linearly: when the voltage level size is doubled,
+ * the stage must not take more than {@link #MAX_RATIO} times longer (a linear stage takes 2 times longer, a
+ * quadratic one 4 times).
+ * <p>
+ * Timings depend on the machine load, so the scaling tests only run with the complexity profile
+ * ({@code mvn test -Pcomplexity}).
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class ComplexityTest {
+
+    private static final String ENABLED_PROPERTY = "substationdiagram.complexity";
+
+    private static final double MAX_RATIO = 3;
+
+    private static final int BUSBAR_COUNT = 2;
+
+    private static final int FEEDER_COUNT_PER_SECTION = 20;
+
+    private static final int FEEDER_COUNT = 400;
+
+    private static final int WARMUP_COUNT = 5;
+
+    private static final int MEASURE_COUNT = 5;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final ComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
+
+    private final LayoutParameters layoutParameters = new LayoutParameters(20, 50, 0, 260,
+                                                                           25, 20,
+                                                                           50, 250, 40,
+                                                                           30, true, true);
+
+    private static VoltageLevel createVoltageLevel(int feederCount) {
+        return new VoltageLevelGenerator(BUSBAR_COUNT, feederCount / FEEDER_COUNT_PER_SECTION, feederCount)
+                .setShunts(true)
+                .generate(NetworkFactory.create("test", "test"), "vl");
+    }
+
+    private static Graph createOrganizedGraph(VoltageLevel vl) {
+        Graph graph = Graph.create(vl);
+        new PositionVoltageLevelLayoutFactory().create(graph);
+        return graph;
+    }
+
+    private long getTime() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Minimal time of the stage on a voltage level, the setup giving the stage to run is not measured
+     */
+    private long measure(VoltageLevel vl, Function<VoltageLevel, Runnable> setup, int count) {
+        long minTime = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            Runnable stage = setup.apply(vl);
+            long start = getTime();
+            stage.run();
+            minTime = Math.min(minTime, getTime() - start);
+        }
+        return minTime;
+    }
+
+    private void assertNearLinear(String stageName, Function<VoltageLevel, Runnable> setup) {
+        VoltageLevel vl = createVoltageLevel(FEEDER_COUNT);
+        VoltageLevel doubledVl = createVoltageLevel(2 * FEEDER_COUNT);
+
+        measure(vl, setup, WARMUP_COUNT);
+        measure(doubledVl, setup, WARMUP_COUNT);
+        long time = measure(vl, setup, MEASURE_COUNT);
+        long doubledTime = measure(doubledVl, setup, MEASURE_COUNT);
+
+        double ratio = (double) doubledTime / Math.max(time, 1);
+        assertTrue(stageName + " does not scale linearly: " + time + " ns for " + FEEDER_COUNT + " feeders, "
+                + doubledTime + " ns for " + 2 * FEEDER_COUNT + " feeders", ratio <= MAX_RATIO);
+    }
+
+    @Test
+    public void testGenerator() {
+        Graph graph = Graph.create(createVoltageLevel(FEEDER_COUNT));
+        assertEquals(BUSBAR_COUNT * FEEDER_COUNT / FEEDER_COUNT_PER_SECTION, graph.getNodeBuses().size());
+        assertEquals(FEEDER_COUNT, graph.getNodes().stream().filter(node -> node instanceof FeederNode).count());
+    }
+
+    @Test
+    public void testGraphCreation() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        assertNearLinear("Graph creation", vl -> () -> Graph.create(vl));
+    }
+
+    @Test
+    public void testImplicitCellDetection() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        assertNearLinear("Implicit cells detection", vl -> {
+            Graph graph = Graph.create(vl);
+            return () -> new ImplicitCellDetector().detectCells(graph);
+        });
+    }
+
+    @Test
+    public void testPatternCellDetection() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        CellDetector cellDetector = new PatternCellDetector("/pattern.xml");
+        assertNearLinear("Pattern cells detection", vl -> {
+            Graph graph = Graph.create(vl);
+            return () -> cellDetector.detectCells(graph);
+        });
+    }
+
+    @Test
+    public void testBlockOrganization() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        assertNearLinear("Blocks organization", vl -> {
+            Graph graph = Graph.create(vl);
+            new ImplicitCellDetector().detectCells(graph);
+            return () -> new BlockOrganizer(new PositionFromExtension(), true).organize(graph);
+        });
+    }
+
+    @Test
+    public void testCoordinates() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        assertNearLinear("Coordinates calculation", vl -> {
+            PositionVoltageLevelLayout layout = new PositionVoltageLevelLayout(createOrganizedGraph(vl));
+            return () -> layout.calculateCoordinates(layoutParameters);
+        });
+    }
+
+    @Test
+    public void testSvgWriting() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        assertNearLinear("SVG writing", vl -> {
+            GraphCoordinates coordinates = new PositionVoltageLevelLayout(createOrganizedGraph(vl))
+                    .calculateCoordinates(layoutParameters);
+            return () -> new SVGWriter(componentLibrary, layoutParameters)
+                    .setStreaming(true)
+                    .write(coordinates, new StringWriter());
+        });
+    }
+
+    @Test
+    public void testMetadataWriting() {
+        assumeTrue(Boolean.getBoolean(ENABLED_PROPERTY));
+        assertNearLinear("Metadata writing", vl -> {
+            GraphCoordinates coordinates = new PositionVoltageLevelLayout(createOrganizedGraph(vl))
+                    .calculateCoordinates(layoutParameters);
+            GraphMetadata metadata = new SVGWriter(componentLibrary, layoutParameters)
+                    .setStreaming(true)
+                    .write(coordinates, new StringWriter());
+            return () -> metadata.writeJson(new StringWriter());
+        });
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseMetrics;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class DiagramListenerTest {
+
+    @Test
+    public void test() {
+        VoltageLevel vl = new VoltageLevelGenerator(2, 2, 10)
+                .generate(NetworkFactory.create("test", "test"), "vl");
+
+        List<PhaseMetrics> metricsList = new ArrayList<>();
+        SubstationDiagram diagram = SubstationDiagram.build(vl, new PositionVoltageLevelLayoutFactory(), false,
+                                                            metricsList::add);
+        diagram.writeSvg(ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"), new LayoutParameters(),
+                         new StringWriter(), new StringWriter(), null, metricsList::add);
+
+        assertEquals(Arrays.asList(Phase.values()),
+                     metricsList.stream().map(PhaseMetrics::getPhase).collect(Collectors.toList()));
+        for (PhaseMetrics metrics : metricsList) {
+            assertEquals("vl", metrics.getVoltageLevelId());
+            assertTrue(metrics.getWallTime() >= 0);
+            assertTrue(metrics.getNodeCount() > 0);
+            assertTrue(metrics.getEdgeCount() > 0);
+        }
+
+        // cells are only known after the cell detection, blocks after the decomposition
+        assertEquals(0, metricsList.get(Phase.PREPROCESSING.ordinal()).getCellCount());
+        assertTrue(metricsList.get(Phase.CELL_DETECTION.ordinal()).getCellCount() > 0);
+        assertEquals(0, metricsList.get(Phase.CELL_DETECTION.ordinal()).getBlockCount());
+        assertTrue(metricsList.get(Phase.BLOCK_DECOMPOSITION.ordinal()).getBlockCount() > 0);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class NetworkDiagramWriterTest {
+
+    private static final int VOLTAGE_LEVEL_COUNT = 8;
+
+    private Network network;
+
+    private final ComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
+
+    private final LayoutParameters layoutParameters = new LayoutParameters(20, 50, 0, 260,
+                                                                           25, 20,
+                                                                           50, 250, 40,
+                                                                           30, true, true);
+
+    @Before
+    public void setUp() {
+        network = NetworkFactory.create("test", "test");
+        for (int i = 0; i < VOLTAGE_LEVEL_COUNT; i++) {
+            new VoltageLevelGenerator(2, 2, 8).generate(network, "vl" + i);
+        }
+    }
+
+    @Test
+    public void test() {
+        Map<String, String> svgs = new ConcurrentHashMap<>();
+        Map<String, String> metadatas = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new NetworkDiagramWriter(componentLibrary, layoutParameters, PositionVoltageLevelLayoutFactory::new, false, executor)
+                    .write(network, (voltageLevelId, svg, metadata) -> {
+                        svgs.put(voltageLevelId, svg);
+                        metadatas.put(voltageLevelId, metadata);
+                    });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(VOLTAGE_LEVEL_COUNT, svgs.size());
+        assertEquals(VOLTAGE_LEVEL_COUNT, metadatas.size());
+
+        // parallel generation must give the same result as the sequential one
+        for (VoltageLevel vl : network.getVoltageLevels()) {
+            try (StringWriter svgWriter = new StringWriter();
+                 StringWriter metadataWriter = new StringWriter()) {
+                SubstationDiagram.build(vl).writeSvg(componentLibrary, layoutParameters, svgWriter, metadataWriter, null);
+                assertEquals(svgWriter.toString(), svgs.get(vl.getId()));
+                assertEquals(metadataWriter.toString(), metadatas.get(vl.getId()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.*;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the parallel layout gives the same diagram as the sequential one.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class ParallelLayoutTest {
+
+    private static final int RUN_COUNT = 5;
+
+    private final ComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
+
+    private final LayoutParameters layoutParameters = new LayoutParameters(20, 50, 0, 260,
+                                                                           25, 20,
+                                                                           50, 250, 40,
+                                                                           30, true, true);
+
+    private static VoltageLevel createVoltageLevel() {
+        return new VoltageLevelGenerator(3, 6, 120)
+                .setCouplings(true)
+                .setShunts(true)
+                .generate(NetworkFactory.create("test", "test"), "vl");
+    }
+
+    /**
+     * SVG and metadata of the voltage level
+     */
+    private String write(VoltageLevel vl, Supplier<PositionFinder> positionFinder, boolean stack, boolean parallel) {
+        PositionVoltageLevelLayoutFactory layoutFactory
+                = new PositionVoltageLevelLayoutFactory(new ImplicitCellDetector(), positionFinder.get());
+        layoutFactory.setStack(stack);
+        layoutFactory.setParallel(parallel);
+        Graph graph = Graph.create(vl);
+        GraphCoordinates coordinates = layoutFactory.create(graph).calculateCoordinates(layoutParameters);
+
+        StringWriter svgWriter = new StringWriter();
+        GraphMetadata metadata = new SVGWriter(componentLibrary, layoutParameters).write(coordinates, svgWriter);
+        StringWriter metadataWriter = new StringWriter();
+        metadata.writeJson(metadataWriter);
+        return svgWriter.toString() + metadataWriter.toString();
+    }
+
+    private void assertSameDiagrams(Supplier<PositionFinder> positionFinder, boolean stack) {
+        VoltageLevel vl = createVoltageLevel();
+        String expected = write(vl, positionFinder, stack, false);
+        // several runs, as a race would not show up at each run
+        for (int i = 0; i < RUN_COUNT; i++) {
+            assertEquals(expected, write(vl, positionFinder, stack, true));
+        }
+    }
+
+    @Test
+    public void testPositionFromExtension() {
+        assertSameDiagrams(PositionFromExtension::new, true);
+    }
+
+    @Test
+    public void testPositionFromExtensionNotStacked() {
+        assertSameDiagrams(PositionFromExtension::new, false);
+    }
+
+    @Test
+    public void testPositionFree() {
+        assertSameDiagrams(PositionFree::new, true);
+    }
+
+    @Test
+    public void testPositionFreeNotStacked() {
+        assertSameDiagrams(PositionFree::new, false);
+    }
+}
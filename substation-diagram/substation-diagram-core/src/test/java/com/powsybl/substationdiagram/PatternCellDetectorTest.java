@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.CellDetector;
+import com.powsybl.substationdiagram.layout.PatternCellDetector;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.Node;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the search plans of {@link PatternCellDetector} detect the same cells as the former recursive search
+ * ({@link BaselinePatternCellDetector}) with the patterns of {@code pattern.xml}.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class PatternCellDetectorTest {
+
+    private static final String PATTERN_FILE_NAME = "/pattern.xml";
+
+    /**
+     * Type and sorted node ids of each cell detected, sorted
+     */
+    private static List<String> detectCells(VoltageLevel vl, CellDetector cellDetector) {
+        Graph graph = Graph.create(vl);
+        cellDetector.detectCells(graph);
+        return graph.getCells().stream()
+                .map(cell -> cell.getType() + " " + cell.getNodes().stream().map(Node::getId).sorted().collect(Collectors.toList()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void assertSameCells(VoltageLevel vl) {
+        assertEquals(detectCells(vl, new BaselinePatternCellDetector(PATTERN_FILE_NAME)),
+                     detectCells(vl, new PatternCellDetector(PATTERN_FILE_NAME)));
+    }
+
+    @Test
+    public void testTestCases() {
+        List<AbstractTestCase> testCases = Arrays.asList(new TestCase1(), new TestCase1inverted(),
+                                                         new TestCase2StackedCell(), new TestCase3Coupling(),
+                                                         new TestCase4NotParallelel(), new TestCase5ShuntHorizontal(),
+                                                         new TestCase5ShuntVertical(),
+                                                         new TestCase6CouplingNonFlatHorizontal(),
+                                                         new TestCase7CellDetectionIssue(), new TestCase7DoubleDJ(),
+                                                         new TestCase8JumpOverStacked(),
+                                                         new TestCase9singularInternCell(),
+                                                         new TestCase10TestBreakerToBus());
+        for (AbstractTestCase testCase : testCases) {
+            assertSameCells(testCase.getVl());
+        }
+    }
+
+    @Test
+    public void testShuntCell() {
+        assertEquals(Arrays.asList("EXTERN [1, ba, bbs, da, la]",
+                                   "EXTERN [3, bb, bbs, db, lb]",
+                                   "SHUNT [bs, la, lb]"),
+                     detectCells(new TestCase5ShuntHorizontal().getVl(), new PatternCellDetector(PATTERN_FILE_NAME)));
+    }
+
+    @Test
+    public void testInternCells() {
+        assertEquals(Arrays.asList("INTERN [4, 5, b, bbs11, bbs12, bbs21, bbs22, d11, d12, d21, d22]",
+                                   "INTERNBOUND [bbs11, bbs12, d1]",
+                                   "INTERNBOUND [bbs21, bbs22, d2]"),
+                     detectCells(new TestCase8JumpOverStacked().getVl(), new PatternCellDetector(PATTERN_FILE_NAME)));
+    }
+
+    @Test
+    public void testGeneratedVoltageLevels() {
+        assertSameCells(new VoltageLevelGenerator(2, 3, 30)
+                                .generate(NetworkFactory.create("test", "test"), "vl"));
+        assertSameCells(new VoltageLevelGenerator(3, 2, 20)
+                                .setShunts(true)
+                                .generate(NetworkFactory.create("test", "test"), "vl"));
+        assertSameCells(new VoltageLevelGenerator(2, 1, 8)
+                                .setCouplings(false)
+                                .setShunts(true)
+                                .generate(NetworkFactory.create("test", "test"), "vl"));
+    }
+}
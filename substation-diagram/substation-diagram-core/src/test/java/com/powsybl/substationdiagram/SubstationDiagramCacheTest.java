@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.layout.ImplicitCellDetector;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionFree;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.rte_france.powsybl.iidm.network.extensions.cvg.ConnectablePosition;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class SubstationDiagramCacheTest {
+
+    private Network network;
+
+    private final ComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
+
+    private final VoltageLevelLayoutFactory layoutFactory = new PositionVoltageLevelLayoutFactory();
+
+    private final LayoutParameters layoutParameters = new LayoutParameters(20, 50, 0, 260,
+                                                                           25, 20,
+                                                                           50, 250, 40,
+                                                                           30, true, true);
+
+    private final LayoutParameters otherLayoutParameters = new LayoutParameters(30, 60, 0, 200,
+                                                                                25, 20,
+                                                                                50, 250, 40,
+                                                                                30, true, true);
+
+    private String writeSvg(SubstationDiagram diagram, LayoutParameters layoutParameters) {
+        try (StringWriter svgWriter = new StringWriter();
+             StringWriter metadataWriter = new StringWriter()) {
+            diagram.writeSvg(componentLibrary, layoutParameters, svgWriter, metadataWriter, null);
+            return svgWriter.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        network = NetworkFactory.create("test", "test");
+        new VoltageLevelGenerator(1, 1, 1).generate(network, "vl1");
+        new VoltageLevelGenerator(1, 1, 1).generate(network, "vl2");
+    }
+
+    @Test
+    public void test() {
+        SubstationDiagramCache cache = new SubstationDiagramCache(1);
+        VoltageLevel vl1 = network.getVoltageLevel("vl1");
+
+        SubstationDiagram diagram = SubstationDiagram.build(vl1, layoutFactory, false, cache);
+        assertSame(diagram, SubstationDiagram.build(vl1, layoutFactory, false, cache));
+        assertEquals(1, cache.size());
+
+        // other names
+        assertNotSame(diagram, SubstationDiagram.build(vl1, layoutFactory, true, cache));
+
+        // another factory with the same configuration shares the diagram, not a factory configured otherwise
+        diagram = SubstationDiagram.build(vl1, layoutFactory, false, cache);
+        assertSame(diagram, SubstationDiagram.build(vl1, new PositionVoltageLevelLayoutFactory(), false, cache));
+        PositionVoltageLevelLayoutFactory notStackedLayoutFactory = new PositionVoltageLevelLayoutFactory();
+        notStackedLayoutFactory.setStack(false);
+        assertNotSame(diagram, SubstationDiagram.build(vl1, notStackedLayoutFactory, false, cache));
+        VoltageLevelLayoutFactory positionFreeLayoutFactory = new PositionVoltageLevelLayoutFactory(new ImplicitCellDetector(),
+                                                                                                    new PositionFree());
+        assertNotSame(diagram, SubstationDiagram.build(vl1, positionFreeLayoutFactory, false, cache));
+
+        // topology change: a disconnector between the busbar section and the load
+        diagram = SubstationDiagram.build(vl1, layoutFactory, false, cache);
+        vl1.getNodeBreakerView().newDisconnector()
+                .setId("vl1_d2")
+                .setNode1(0)
+                .setNode2(2)
+                .add();
+        SubstationDiagram modifiedDiagram = SubstationDiagram.build(vl1, layoutFactory, false, cache);
+        assertNotSame(diagram, modifiedDiagram);
+        assertSame(modifiedDiagram, SubstationDiagram.build(vl1, layoutFactory, false, cache));
+
+        // position extension change
+        Load l = network.getLoad("vl1_l_0");
+        l.addExtension(ConnectablePosition.class, new ConnectablePosition<>(l, new ConnectablePosition
+                .Feeder("vl1_l_0", 0, ConnectablePosition.Direction.BOTTOM), null, null, null));
+        assertNotSame(modifiedDiagram, SubstationDiagram.build(vl1, layoutFactory, false, cache));
+
+        // least recently used diagram is evicted
+        SubstationDiagram diagram2 = SubstationDiagram.build(network.getVoltageLevel("vl2"), layoutFactory, false, cache);
+        assertEquals(1, cache.size());
+        assertSame(diagram2, SubstationDiagram.build(network.getVoltageLevel("vl2"), layoutFactory, false, cache));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWriteCachedDiagram() {
+        SubstationDiagramCache cache = new SubstationDiagramCache(10);
+        VoltageLevel vl1 = network.getVoltageLevel("vl1");
+
+        String svg = writeSvg(SubstationDiagram.build(vl1, layoutFactory, false), layoutParameters);
+        String otherSvg = writeSvg(SubstationDiagram.build(vl1, layoutFactory, false), otherLayoutParameters);
+
+        // layout of a cached diagram does not depend on the previous runs
+        SubstationDiagram diagram = SubstationDiagram.build(vl1, layoutFactory, false, cache);
+        assertEquals(svg, writeSvg(diagram, layoutParameters));
+        assertEquals(otherSvg, writeSvg(SubstationDiagram.build(vl1, layoutFactory, false, cache), otherLayoutParameters));
+        assertEquals(svg, writeSvg(SubstationDiagram.build(vl1, layoutFactory, false, cache), layoutParameters));
+    }
+
+    @Test
+    public void testWriteConcurrently() throws InterruptedException, ExecutionException {
+        VoltageLevel vl1 = network.getVoltageLevel("vl1");
+        String svg = writeSvg(SubstationDiagram.build(vl1, layoutFactory, false), layoutParameters);
+        String otherSvg = writeSvg(SubstationDiagram.build(vl1, layoutFactory, false), otherLayoutParameters);
+
+        // the same diagram written with several layout parameters at the same time
+        SubstationDiagram diagram = SubstationDiagram.build(vl1, layoutFactory, false);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> svgs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                LayoutParameters parameters = i % 2 == 0 ? layoutParameters : otherLayoutParameters;
+                svgs.add(executor.submit(() -> writeSvg(diagram, parameters)));
+            }
+            for (int i = 0; i < svgs.size(); i++) {
+                assertEquals(i % 2 == 0 ? svg : otherSvg, svgs.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
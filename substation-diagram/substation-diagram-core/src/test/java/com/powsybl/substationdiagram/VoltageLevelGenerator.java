@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.*;
+import com.rte_france.powsybl.iidm.network.extensions.cvg.BusbarSectionPosition;
+import com.rte_france.powsybl.iidm.network.extensions.cvg.ConnectablePosition;
+
+/**
+ * Generates node breaker voltage levels of configurable size: busbarCount busbars cut in sectionCount sections,
+ * feederCount loads spread over the sections and connected to all the busbars of their section, a coupling between
+ * consecutive busbars in each section and a sectionalizer between consecutive sections of each busbar.
+ * <p>
+ * With several busbars, the disconnectors of a feeder give a stacked cell. Shunts can be added between feeders of
+ * the same direction and section.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class VoltageLevelGenerator {
+
+    private final int busbarCount;
+
+    private final int sectionCount;
+
+    private final int feederCount;
+
+    private boolean couplings = true;
+
+    private boolean shunts = false;
+
+    private VoltageLevel.NodeBreakerView view;
+
+    private int nodeCount;
+
+    public VoltageLevelGenerator(int busbarCount, int sectionCount, int feederCount) {
+        if (busbarCount < 1 || sectionCount < 1 || feederCount < 0) {
+            throw new PowsyblException("Invalid voltage level size: " + busbarCount + " busbars, " + sectionCount
+                    + " sections, " + feederCount + " feeders");
+        }
+        this.busbarCount = busbarCount;
+        this.sectionCount = sectionCount;
+        this.feederCount = feederCount;
+    }
+
+    public boolean isCouplings() {
+        return couplings;
+    }
+
+    /**
+     * Couplings between busbars and sectionalizers between sections are generated by default
+     */
+    public VoltageLevelGenerator setCouplings(boolean couplings) {
+        this.couplings = couplings;
+        return this;
+    }
+
+    public boolean isShunts() {
+        return shunts;
+    }
+
+    /**
+     * Add a shunt between each feeder of index multiple of 4 and the second next one, when in the same section
+     */
+    public VoltageLevelGenerator setShunts(boolean shunts) {
+        this.shunts = shunts;
+        return this;
+    }
+
+    private int getSection(int feeder) {
+        return feeder * sectionCount / feederCount;
+    }
+
+    public VoltageLevel generate(Network network, String id) {
+        Substation substation = network.newSubstation()
+                .setId("s" + id)
+                .setCountry(Country.FR)
+                .add();
+        VoltageLevel vl = substation.newVoltageLevel()
+                .setId(id)
+                .setTopologyKind(TopologyKind.NODE_BREAKER)
+                .setNominalV(400)
+                .add();
+        view = vl.getNodeBreakerView()
+                .setNodeCount(getMaxNodeCount());
+        nodeCount = 0;
+
+        int[][] busbarNodes = new int[busbarCount][sectionCount];
+        for (int b = 0; b < busbarCount; b++) {
+            for (int s = 0; s < sectionCount; s++) {
+                busbarNodes[b][s] = nodeCount++;
+                BusbarSection bbs = view.newBusbarSection()
+                        .setId(id + "_bbs_" + b + "_" + s)
+                        .setNode(busbarNodes[b][s])
+                        .add();
+                bbs.addExtension(BusbarSectionPosition.class, new BusbarSectionPosition(bbs, b + 1, s + 1));
+            }
+        }
+
+        int[] commonNodes = new int[feederCount];
+        int[] feederNodes = new int[feederCount];
+        for (int f = 0; f < feederCount; f++) {
+            int s = getSection(f);
+            commonNodes[f] = nodeCount++;
+            feederNodes[f] = nodeCount++;
+            for (int b = 0; b < busbarCount; b++) {
+                newDisconnector(id + "_d_" + f + "_" + b, busbarNodes[b][s], commonNodes[f]);
+            }
+            newBreaker(id + "_b_" + f, commonNodes[f], feederNodes[f]);
+            Load load = vl.newLoad()
+                    .setId(id + "_l_" + f)
+                    .setNode(feederNodes[f])
+                    .setP0(10)
+                    .setQ0(10)
+                    .add();
+            ConnectablePosition.Direction direction = f % 2 == 0 ? ConnectablePosition.Direction.TOP : ConnectablePosition.Direction.BOTTOM;
+            load.addExtension(ConnectablePosition.class, new ConnectablePosition<>(load,
+                    new ConnectablePosition.Feeder(load.getId(), f, direction), null, null, null));
+        }
+
+        if (shunts) {
+            for (int f = 0; f + 2 < feederCount; f += 4) {
+                if (getSection(f) == getSection(f + 2)) {
+                    // same structure as TestCase5ShuntVertical
+                    newBreaker(id + "_bs_" + f, feederNodes[f], commonNodes[f + 2]);
+                }
+            }
+        }
+
+        if (couplings) {
+            for (int s = 0; s < sectionCount; s++) {
+                for (int b = 0; b < busbarCount - 1; b++) {
+                    newCoupling(id + "_c_" + b + "_" + s, busbarNodes[b][s], busbarNodes[b + 1][s]);
+                }
+            }
+            for (int b = 0; b < busbarCount; b++) {
+                for (int s = 0; s < sectionCount - 1; s++) {
+                    newCoupling(id + "_sc_" + b + "_" + s, busbarNodes[b][s], busbarNodes[b][s + 1]);
+                }
+            }
+        }
+
+        return vl;
+    }
+
+    private int getMaxNodeCount() {
+        return busbarCount * sectionCount
+                + 2 * feederCount
+                + 2 * sectionCount * (busbarCount - 1)
+                + 2 * busbarCount * (sectionCount - 1);
+    }
+
+    private void newDisconnector(String id, int node1, int node2) {
+        view.newDisconnector()
+                .setId(id)
+                .setNode1(node1)
+                .setNode2(node2)
+                .add();
+    }
+
+    private void newBreaker(String id, int node1, int node2) {
+        view.newBreaker()
+                .setId(id)
+                .setNode1(node1)
+                .setNode2(node2)
+                .add();
+    }
+
+    /**
+     * Disconnector, breaker and disconnector in series between two busbar sections
+     */
+    private void newCoupling(String id, int busbarNode1, int busbarNode2) {
+        int node1 = nodeCount++;
+        int node2 = nodeCount++;
+        newDisconnector(id + "_d1", busbarNode1, node1);
+        newBreaker(id + "_b", node1, node2);
+        newDisconnector(id + "_d2", node2, busbarNode2);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class LaneAllocatorTest {
+
+    private static boolean overlap(int[] interval1, int[] interval2) {
+        // same criterion as the previous pairwise comparison of the intern cells
+        return interval1[1] > interval2[0] && interval2[1] > interval1[0];
+    }
+
+    /**
+     * Maximum number of intervals overlapping at a position, the minimum number of lanes
+     */
+    private static int maxOverlap(List<int[]> intervals) {
+        int max = 0;
+        for (int[] interval : intervals) {
+            int count = 0;
+            for (int[] other : intervals) {
+                if (other[0] <= interval[0] && interval[0] < other[1] || other == interval) {
+                    count++;
+                }
+            }
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    private static List<List<int[]>> allocate(List<int[]> intervals) {
+        return LaneAllocator.allocate(intervals, interval -> interval[0], interval -> interval[1]);
+    }
+
+    @Test
+    public void test() {
+        int[] a = {0, 4};
+        int[] b = {2, 6};
+        int[] c = {4, 8};
+        int[] d = {5, 7};
+        assertTrue(allocate(Collections.emptyList()).isEmpty());
+        assertEquals(Arrays.asList(Arrays.asList(a, c), Arrays.asList(b), Arrays.asList(d)),
+                     allocate(Arrays.asList(d, c, b, a)));
+    }
+
+    @Test
+    public void testRandomIntervals() {
+        Random random = new Random(0);
+        for (int k = 0; k < 1000; k++) {
+            List<int[]> intervals = new ArrayList<>();
+            int n = random.nextInt(30);
+            for (int i = 0; i < n; i++) {
+                int start = random.nextInt(50);
+                intervals.add(new int[] {start, start + 1 + random.nextInt(10)});
+            }
+
+            List<List<int[]>> lanes = allocate(intervals);
+            assertEquals(intervals.size(), lanes.stream().mapToInt(List::size).sum());
+            assertEquals(maxOverlap(intervals), lanes.size());
+            for (List<int[]> lane : lanes) {
+                for (int i = 0; i < lane.size(); i++) {
+                    for (int j = i + 1; j < lane.size(); j++) {
+                        assertFalse(overlap(lane.get(i), lane.get(j)));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class LayoutParametersTest {
+
+    @Test
+    public void testEquals() {
+        LayoutParameters parameters = new LayoutParameters().setCellWidth(60);
+        LayoutParameters copy = new LayoutParameters(parameters);
+        assertEquals(parameters, copy);
+        assertEquals(parameters.hashCode(), copy.hashCode());
+
+        assertNotEquals(parameters, new LayoutParameters(parameters).setShowGrid(!parameters.isShowGrid()));
+        assertNotEquals(parameters, new LayoutParameters(parameters).setStackHeight(parameters.getStackHeight() + 1));
+    }
+
+    @Test
+    public void testEqualsConsistentWithHashCode() {
+        // as for Double, NaN is equal to itself and 0.0 is not equal to -0.0, as their hash codes differ
+        LayoutParameters nan = new LayoutParameters().setInitialXBus(Double.NaN);
+        assertEquals(nan, new LayoutParameters(nan));
+        assertEquals(nan.hashCode(), new LayoutParameters(nan).hashCode());
+        assertNotEquals(new LayoutParameters().setInitialXBus(0.0), new LayoutParameters().setInitialXBus(-0.0));
+    }
+}
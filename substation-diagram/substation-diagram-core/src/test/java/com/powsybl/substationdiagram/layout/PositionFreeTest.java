@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import com.powsybl.substationdiagram.layout.PositionFree.VbcpIndex;
+import com.powsybl.substationdiagram.layout.PositionFree.VerticalBusConnectionPattern;
+import com.powsybl.substationdiagram.model.BusNode;
+import com.powsybl.substationdiagram.model.Graph;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class PositionFreeTest {
+
+    private static final int BUS_COUNT = 6;
+
+    private final Map<BusNode, Integer> nodeToNb = new HashMap<>();
+
+    private final List<BusNode> buses = new ArrayList<>();
+
+    private VbcpIndex index;
+
+    /**
+     * Indexed patterns, in insertion order
+     */
+    private List<VerticalBusConnectionPattern> indexed;
+
+    @Before
+    public void setUp() {
+        Graph graph = new Graph(false);
+        for (int nb = 1; nb <= BUS_COUNT; nb++) {
+            BusNode bus = BusNode.createFictitious(graph, "bbs" + nb);
+            buses.add(bus);
+            nodeToNb.put(bus, nb);
+        }
+        index = new VbcpIndex(BUS_COUNT);
+        indexed = new ArrayList<>();
+    }
+
+    private VerticalBusConnectionPattern pattern(int... nbs) {
+        List<BusNode> busNodes = new ArrayList<>();
+        for (int nb : nbs) {
+            busNodes.add(buses.get(nb - 1));
+        }
+        return new VerticalBusConnectionPattern(nodeToNb, busNodes);
+    }
+
+    private void add(VerticalBusConnectionPattern vbcp) {
+        index.add(vbcp);
+        indexed.add(vbcp);
+    }
+
+    private void remove(VerticalBusConnectionPattern vbcp) {
+        index.remove(vbcp);
+        indexed.remove(vbcp);
+    }
+
+    private static boolean isIncludedIn(VerticalBusConnectionPattern vbcp1, VerticalBusConnectionPattern vbcp2) {
+        return vbcp2.getBusNodeSet().containsAll(vbcp1.getBusNodeSet());
+    }
+
+    private VerticalBusConnectionPattern bruteForceFindIncluding(VerticalBusConnectionPattern vbcp) {
+        return indexed.stream().filter(candidate -> isIncludedIn(vbcp, candidate)).findFirst().orElse(null);
+    }
+
+    private VerticalBusConnectionPattern bruteForceFindIncluded(VerticalBusConnectionPattern vbcp) {
+        return indexed.stream().filter(candidate -> isIncludedIn(candidate, vbcp)).findFirst().orElse(null);
+    }
+
+    private void assertSameAsBruteForce(VerticalBusConnectionPattern vbcp) {
+        assertSame(bruteForceFindIncluding(vbcp), index.findIncluding(vbcp));
+        assertSame(bruteForceFindIncluded(vbcp), index.findIncluded(vbcp));
+    }
+
+    @Test
+    public void testVbcpIndex() {
+        VerticalBusConnectionPattern vbcp12 = pattern(1, 2);
+        VerticalBusConnectionPattern vbcp23 = pattern(2, 3);
+        VerticalBusConnectionPattern vbcp123 = pattern(3, 1, 2);
+        add(vbcp12);
+        add(vbcp23);
+        add(vbcp123);
+
+        // the first pattern in insertion order is found
+        assertSame(vbcp12, index.findIncluding(pattern(2)));
+        assertSame(vbcp23, index.findIncluding(pattern(3)));
+        assertSame(vbcp123, index.findIncluding(pattern(1, 3)));
+        assertNull(index.findIncluding(pattern(1, 4)));
+        assertSame(vbcp12, index.findIncluded(pattern(1, 2, 3, 4)));
+        assertSame(vbcp23, index.findIncluded(pattern(2, 3, 4)));
+        assertNull(index.findIncluded(pattern(1, 3)));
+
+        // removed patterns are not found any more
+        remove(vbcp12);
+        assertSame(vbcp123, index.findIncluding(pattern(1)));
+        assertSame(vbcp23, index.findIncluded(pattern(1, 2, 3)));
+    }
+
+    @Test
+    public void testEmptyPattern() {
+        VerticalBusConnectionPattern empty = pattern();
+        assertNull(index.findIncluding(empty));
+        assertNull(index.findIncluded(empty));
+
+        // all the patterns include the empty one
+        VerticalBusConnectionPattern vbcp2 = pattern(2);
+        add(vbcp2);
+        assertSame(vbcp2, index.findIncluding(empty));
+        assertNull(index.findIncluded(empty));
+
+        // the empty pattern is included in all the patterns
+        add(empty);
+        assertSame(empty, index.findIncluded(pattern(4, 5)));
+        assertSame(vbcp2, index.findIncluding(pattern()));
+        assertSame(empty, index.findIncluded(pattern()));
+        assertNull(index.findIncluding(pattern(1)));
+    }
+
+    @Test
+    public void testReplaceIncluded() {
+        VerticalBusConnectionPattern vbcp1 = pattern(1);
+        VerticalBusConnectionPattern vbcp34 = pattern(3, 4);
+        add(vbcp1);
+        add(vbcp34);
+
+        // as PositionFree does, a pattern including an indexed one replaces it, and comes last in insertion order
+        VerticalBusConnectionPattern vbcp12 = pattern(1, 2);
+        assertNull(index.findIncluding(vbcp12));
+        assertSame(vbcp1, index.findIncluded(vbcp12));
+        remove(vbcp1);
+        add(vbcp12);
+        assertSame(vbcp12, index.findIncluding(pattern(1)));
+        assertSame(vbcp34, index.findIncluded(pattern(1, 2, 3, 4)));
+        assertNull(index.findIncluded(pattern(1)));
+        assertSameAsBruteForce(pattern(1, 2, 3, 4));
+    }
+
+    @Test
+    public void testRandomPatterns() {
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            int[] nbs = random.ints(random.nextInt(4), 1, BUS_COUNT + 1).toArray();
+            VerticalBusConnectionPattern vbcp = pattern(nbs);
+            assertSameAsBruteForce(vbcp);
+
+            // the patterns are added as in PositionFree, an equal pattern being never indexed twice
+            VerticalBusConnectionPattern including = index.findIncluding(vbcp);
+            VerticalBusConnectionPattern included = index.findIncluded(vbcp);
+            if (!indexed.contains(vbcp)
+                    && (including == null || (included != null && indexed.indexOf(included) < indexed.indexOf(including)))) {
+                if (included != null) {
+                    remove(included);
+                }
+                add(vbcp);
+            }
+            if (!indexed.isEmpty() && random.nextInt(10) == 0) {
+                remove(indexed.get(random.nextInt(indexed.size())));
+            }
+        }
+        assertFalse(indexed.isEmpty());
+    }
+}
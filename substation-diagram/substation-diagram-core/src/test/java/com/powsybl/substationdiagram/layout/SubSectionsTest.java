@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.substationdiagram.VoltageLevelGenerator;
+import com.powsybl.substationdiagram.library.ComponentType;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.Node;
+import com.powsybl.substationdiagram.model.Side;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class SubSectionsTest {
+
+    private static SubSections createSubSections(VoltageLevelGenerator generator) {
+        VoltageLevel vl = generator.generate(NetworkFactory.create("test", "test"), "vl");
+        Graph graph = Graph.create(vl);
+        new ImplicitCellDetector().detectCells(graph);
+        new BlockOrganizer(new PositionFromExtension()).organize(graph);
+
+        // subsections built again from the organized graph, as the block organizer does
+        SubSections subSections = new SubSections(graph);
+        subSections.handleSpanningBusBar();
+        return subSections;
+    }
+
+    /**
+     * Indexes of each subsection, with the ids of the breakers of its cells, one breaker per cell without shunts
+     */
+    private static Map<String, List<String>> getBreakerIds(SubSections subSections) {
+        Map<String, List<String>> breakerIds = new LinkedHashMap<>();
+        subSections.getSubsectionMap().forEach((indexes, hss) -> breakerIds.put(indexes.toString(),
+                hss.getCells().stream()
+                        .flatMap(cell -> cell.getNodes().stream())
+                        .filter(node -> node.getComponentType() == ComponentType.BREAKER)
+                        .map(Node::getId)
+                        .sorted()
+                        .collect(Collectors.toList())));
+        return breakerIds;
+    }
+
+    private static List<String> breakers(int firstFeeder, int lastFeeder, String... otherBreakers) {
+        List<String> breakers = new ArrayList<>(Arrays.asList(otherBreakers));
+        for (int f = firstFeeder; f <= lastFeeder; f++) {
+            breakers.add("vl_b_" + f);
+        }
+        Collections.sort(breakers);
+        return breakers;
+    }
+
+    private static void assertPairwiseIncompatible(SubSections subSections) {
+        List<int[]> indexes = subSections.getSubsectionMap().keySet().stream()
+                .map(SubSections.SubSectionIndexes::getIndexes)
+                .collect(Collectors.toList());
+        for (int i = 0; i < indexes.size(); i++) {
+            for (int j = i + 1; j < indexes.size(); j++) {
+                int[] indexes1 = indexes.get(i);
+                int[] indexes2 = indexes.get(j);
+                boolean incompatible = IntStream.range(0, indexes1.length)
+                        .anyMatch(v -> indexes1[v] != 0 && indexes2[v] != 0 && indexes1[v] != indexes2[v]);
+                assertTrue(Arrays.toString(indexes1) + " and " + Arrays.toString(indexes2) + " should have been merged",
+                           incompatible);
+            }
+        }
+    }
+
+    @Test
+    public void testSectioned() {
+        SubSections subSections = createSubSections(new VoltageLevelGenerator(1, 3, 30));
+
+        // each sectionalizer is split between the subsections of its two sections
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        expected.put("[1]", breakers(0, 9, "vl_sc_0_0_b"));
+        expected.put("[2]", breakers(10, 19, "vl_sc_0_0_b", "vl_sc_0_1_b"));
+        expected.put("[3]", breakers(20, 29, "vl_sc_0_1_b"));
+        assertEquals(expected, getBreakerIds(subSections));
+        assertPairwiseIncompatible(subSections);
+    }
+
+    @Test
+    public void testMultiBusbar() {
+        SubSections subSections = createSubSections(new VoltageLevelGenerator(3, 2, 20));
+
+        // the subsections of the extern cells and of the vertical couplings of a section are merged
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        expected.put("[1, 1, 1]", breakers(0, 9, "vl_c_0_0_b", "vl_c_1_0_b", "vl_sc_0_0_b", "vl_sc_1_0_b", "vl_sc_2_0_b"));
+        expected.put("[2, 2, 2]", breakers(10, 19, "vl_c_0_1_b", "vl_c_1_1_b", "vl_sc_0_0_b", "vl_sc_1_0_b", "vl_sc_2_0_b"));
+        assertEquals(expected, getBreakerIds(subSections));
+        assertPairwiseIncompatible(subSections);
+
+        SubSections.HorizontalSubSection hss = subSections.getSubsectionMap().values().iterator().next();
+        assertEquals(10, hss.getExternCells().size());
+        assertEquals(2, hss.getSideInternCells(Side.UNDEFINED).size());
+        assertEquals(3, hss.getSideInternCells(Side.LEFT).size() + hss.getSideInternCells(Side.RIGHT).size());
+    }
+
+    @Test
+    public void testSectionedMultiBusbar() {
+        SubSections subSections = createSubSections(new VoltageLevelGenerator(2, 3, 12));
+
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        expected.put("[1, 1]", breakers(0, 3, "vl_c_0_0_b", "vl_sc_0_0_b", "vl_sc_1_0_b"));
+        expected.put("[2, 2]", breakers(4, 7, "vl_c_0_1_b", "vl_sc_0_0_b", "vl_sc_1_0_b", "vl_sc_0_1_b", "vl_sc_1_1_b"));
+        expected.put("[3, 3]", breakers(8, 11, "vl_c_0_2_b", "vl_sc_0_1_b", "vl_sc_1_1_b"));
+        assertEquals(expected, getBreakerIds(subSections));
+        assertPairwiseIncompatible(subSections);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.layout;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.substationdiagram.model.BusNode;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class VoltageLevelLayoutTest {
+
+    /**
+     * Layout only implementing run, as the ones written before the coordinates calculation
+     */
+    private static class RunOnlyLayout implements VoltageLevelLayout {
+
+        private final Graph graph;
+
+        private int runCount = 0;
+
+        RunOnlyLayout(Graph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public void run(LayoutParameters layoutParam) {
+            runCount++;
+            graph.getNodes().forEach(node -> {
+                node.setX(10 * runCount);
+                node.setY(20);
+            });
+        }
+    }
+
+    private Graph graph;
+
+    private BusNode bus;
+
+    @Before
+    public void setUp() {
+        graph = new Graph(false);
+        bus = BusNode.createFictitious(graph, "bbs");
+        graph.addNode(bus);
+    }
+
+    @Test
+    public void testRunOnlyLayout() {
+        RunOnlyLayout layout = new RunOnlyLayout(graph);
+        layout.run(new LayoutParameters());
+        assertEquals(1, layout.runCount);
+        assertEquals(10, bus.getX(), 0);
+    }
+
+    @Test(expected = PowsyblException.class)
+    public void testRunOnlyLayoutCoordinates() {
+        new RunOnlyLayout(graph).calculateCoordinates(new LayoutParameters());
+    }
+
+    @Test
+    public void testRunOnlyLayoutFallback() {
+        RunOnlyLayout layout = new RunOnlyLayout(graph);
+        assertTrue(VoltageLevelLayouts.isRunOnly(layout));
+
+        // the layout is run on the graph, and its result copied
+        GraphCoordinates coordinates = VoltageLevelLayouts.calculateCoordinates(layout, graph, new LayoutParameters());
+        assertEquals(1, layout.runCount);
+        assertSame(graph, coordinates.getGraph());
+        assertEquals(10, coordinates.getX(bus), 0);
+        assertEquals(20, coordinates.getY(bus), 0);
+
+        // the copy is not modified by the next runs
+        VoltageLevelLayouts.calculateCoordinates(layout, graph, new LayoutParameters());
+        assertEquals(20, bus.getX(), 0);
+        assertEquals(10, coordinates.getX(bus), 0);
+    }
+
+    @Test
+    public void testCoordinatesLayout() {
+        VoltageLevelLayout layout = new RandomVoltageLevelLayout(graph, 100, 100, new Random(0));
+        assertFalse(VoltageLevelLayouts.isRunOnly(layout));
+
+        // the graph is not modified
+        GraphCoordinates coordinates = VoltageLevelLayouts.calculateCoordinates(layout, graph, new LayoutParameters());
+        assertNotEquals(0, coordinates.getX(bus), 0);
+        assertEquals(-1, bus.getX(), 0);
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.library;
+
+import org.apache.batik.anim.dom.SVGOMDocument;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class ResourcesComponentLibraryTest {
+
+    @Test
+    public void test() throws InterruptedException, ExecutionException {
+        ResourcesComponentLibrary library = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
+        assertSame(library, ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"));
+
+        SVGOMDocument document = library.getSvgDocument(ComponentType.BREAKER);
+        assertNotNull(document);
+        assertSame(document, library.getSvgDocument(ComponentType.BREAKER));
+
+        // documents are not shared between threads
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SVGOMDocument otherDocument = executor.submit(() -> library.getSvgDocument(ComponentType.BREAKER)).get();
+            assertNotNull(otherDocument);
+            assertNotSame(document, otherDocument);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class GraphTest {
+
+    @Test
+    public void testAdjacency() {
+        Graph graph = new Graph(false);
+        Node bus = BusNode.createFictitious(graph, "bus");
+        Node n1 = new FicticiousNode(graph, "n1");
+        Node n2 = new FicticiousNode(graph, "n2");
+        Node n3 = new FicticiousNode(graph, "n3");
+        graph.addNode(bus);
+        graph.addNode(n1);
+        graph.addNode(n2);
+        graph.addNode(n3);
+        assertEquals(0, bus.getIndex());
+        assertEquals(3, n3.getIndex());
+
+        graph.addEdge(bus, n1);
+        graph.addEdge(bus, n2);
+        graph.addEdge(n3, bus);
+        graph.addEdge(n1, n2);
+        assertEquals(4, graph.getEdgeCount());
+        assertEquals(3, bus.getAdjacentEdgeCount());
+        assertEquals(Arrays.asList(n1, n2, n3), bus.getAdjacentNodes());
+        assertSame(n3, bus.getAdjacentNode(2));
+        assertSame(bus, n3.getAdjacentNode(0));
+
+        // removal keeps the order and the indexes of the remaining elements
+        graph.removeEdge(n2, bus);
+        assertEquals(Arrays.asList(n1, n3), bus.getAdjacentNodes());
+        assertEquals(Arrays.asList(n1), n2.getAdjacentNodes());
+        assertNull(graph.getEdge(1));
+        assertEquals(2, graph.getEdge(2).getIndex());
+        assertEquals(3, graph.getEdges().size());
+
+        // n1 is replaced by an edge between bus and n2, then n2 and n3 only connected to bus are removed
+        graph.removeUnnecessaryFictitiousNodes();
+        assertEquals(1, graph.getNodeCount());
+        assertEquals(Arrays.asList(bus), graph.getNodes());
+        assertEquals(0, graph.getEdgeCount());
+        assertEquals(0, bus.getAdjacentEdgeCount());
+        assertEquals(-1, n2.getIndex());
+        assertNull(graph.getNode(2));
+        assertSame(bus, graph.getNode(0));
+    }
+
+    @Test
+    public void testEdgeIds() {
+        Graph graph = new Graph(false);
+        Node n1 = new FicticiousNode(graph, "n1");
+        Node n2 = new FicticiousNode(graph, "n2");
+        graph.addNode(n1);
+        graph.addNode(n2);
+
+        // ids do not depend on the direction of the edges, parallel edges get a suffix
+        graph.addEdge(n2, n1);
+        graph.addEdge(n1, n2);
+        Edge edge = graph.getEdge(0);
+        assertEquals("n1_n2", edge.getId());
+        assertEquals("n1_n2_2", graph.getEdge(1).getId());
+        assertSame(edge, graph.getEdge("n1_n2"));
+        assertSame(graph.getEdge(1), graph.getEdge("n1_n2_2"));
+
+        // ids are released by removal
+        graph.removeEdge(edge);
+        assertNull(edge.getId());
+        assertNull(graph.getEdge("n1_n2"));
+        assertEquals("n1_n2_2", graph.getEdge(1).getId());
+        graph.addEdge(n1, n2);
+        assertEquals("n1_n2", graph.getEdge(2).getId());
+    }
+
+    @Test
+    public void testEdgeIdsWithSeparator() {
+        Graph graph = new Graph(false);
+        Node a = new FicticiousNode(graph, "a");
+        Node b = new FicticiousNode(graph, "b");
+        Node c = new FicticiousNode(graph, "c");
+        Node ab = new FicticiousNode(graph, "a_b");
+        Node bc = new FicticiousNode(graph, "b_c");
+        Node b2 = new FicticiousNode(graph, "b_2");
+        Node escapedAb = new FicticiousNode(graph, "a-ub");
+        Node dashB = new FicticiousNode(graph, "-b");
+        Node aDash = new FicticiousNode(graph, "a-");
+        Arrays.asList(a, b, c, ab, bc, b2, escapedAb, dashB, aDash).forEach(graph::addNode);
+
+        // without escaping, all these edges would be "a_b_c", "a_b_2" or "a_-b"
+        graph.addEdge(ab, c);
+        graph.addEdge(a, bc);
+        graph.addEdge(escapedAb, c);
+        graph.addEdge(a, b);
+        graph.addEdge(a, b);
+        graph.addEdge(a, b2);
+        graph.addEdge(a, dashB);
+        graph.addEdge(aDash, b);
+        assertEquals("a-ub_c", graph.getEdge(0).getId());
+        assertEquals("a_b-uc", graph.getEdge(1).getId());
+        assertEquals("a--ub_c", graph.getEdge(2).getId());
+        assertEquals("a_b", graph.getEdge(3).getId());
+        assertEquals("a_b_2", graph.getEdge(4).getId());
+        assertEquals("a_b-u2", graph.getEdge(5).getId());
+        assertEquals("--b_a", graph.getEdge(6).getId());
+        assertEquals("a--_b", graph.getEdge(7).getId());
+        for (Edge edge : graph.getEdges()) {
+            assertSame(edge, graph.getEdge(edge.getId()));
+
+            // valid XML name characters, kept as is in a URL fragment
+            assertTrue(edge.getId(), edge.getId().matches("[A-Za-z0-9_.-]+"));
+        }
+    }
+
+    @Test
+    public void testExtendFeederWithMultipleSwitches() {
+        Graph graph = new Graph(false);
+        Node feeder = FeederNode.createFictitious(graph, "f");
+        Node s1 = SwitchNode.createFictitious(graph, "s1");
+        Node s2 = SwitchNode.createFictitious(graph, "s2");
+        graph.addNode(feeder);
+        graph.addNode(s1);
+        graph.addNode(s2);
+        graph.addEdge(feeder, s1);
+        graph.addEdge(feeder, s2);
+
+        graph.extendFeederWithMultipleSwitches();
+
+        // the fictitious node is registered as any other node
+        Node fictitious = graph.getNode("fFictif");
+        assertNotNull(fictitious);
+        assertEquals(Node.NodeType.FICTITIOUS, fictitious.getType());
+        assertEquals(3, fictitious.getIndex());
+        assertEquals(Arrays.asList(feeder, s1, s2, fictitious), graph.getNodes());
+        assertEquals(Arrays.asList(fictitious), feeder.getAdjacentNodes());
+        assertEquals(Arrays.asList(s1, s2, feeder), fictitious.getAdjacentNodes());
+        assertEquals(Arrays.asList(fictitious), s1.getAdjacentNodes());
+    }
+}
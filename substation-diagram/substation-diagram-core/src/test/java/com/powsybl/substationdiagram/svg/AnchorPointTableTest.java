@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.substationdiagram.library.AnchorOrientation;
+import com.powsybl.substationdiagram.library.AnchorPoint;
+import com.powsybl.substationdiagram.library.AnchorPointProvider;
+import com.powsybl.substationdiagram.library.ComponentType;
+import com.powsybl.substationdiagram.model.BaseNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class AnchorPointTableTest {
+
+    private static final double CELL_WIDTH = 50;
+
+    private static final double BUS_PADDING = 20;
+
+    private static final int BUS_HSPAN = 6;
+
+    private final List<AnchorPoint> busbarAnchorPoints = new ArrayList<>();
+
+    private final List<AnchorPoint> breakerAnchorPoints = Arrays.asList(new AnchorPoint(0, -10, AnchorOrientation.VERTICAL),
+                                                                        new AnchorPoint(0, 10, AnchorOrientation.VERTICAL));
+
+    private final AnchorPointProvider provider = (type, id) -> type == ComponentType.BUSBAR_SECTION ? busbarAnchorPoints : breakerAnchorPoints;
+
+    public AnchorPointTableTest() {
+        // same anchor points as the busbars of SVGWriter
+        busbarAnchorPoints.add(new AnchorPoint(0, 0, AnchorOrientation.HORIZONTAL));
+        for (int i = 1; i < 2 * BUS_HSPAN; i++) {
+            busbarAnchorPoints.add(new AnchorPoint(((double) i / 2) * CELL_WIDTH - BUS_PADDING / 2, 0, AnchorOrientation.VERTICAL));
+        }
+        busbarAnchorPoints.add(new AnchorPoint(BUS_HSPAN * CELL_WIDTH - BUS_PADDING, 0, AnchorOrientation.HORIZONTAL));
+    }
+
+    private static BaseNode createNode(String id, ComponentType componentType, boolean rotated, double x, double y) {
+        return new BaseNode() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public ComponentType getComponentType() {
+                return componentType;
+            }
+
+            @Override
+            public boolean isRotated() {
+                return rotated;
+            }
+
+            @Override
+            public double getX() {
+                return x;
+            }
+
+            @Override
+            public double getY() {
+                return y;
+            }
+        };
+    }
+
+    /**
+     * Closest anchor points found by scanning all the pairs
+     */
+    private static AnchorPoint[] searchAllPairs(List<AnchorPoint> anchorPoints1, BaseNode node1,
+                                                List<AnchorPoint> anchorPoints2, BaseNode node2) {
+        AnchorPoint[] closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (AnchorPoint anchorPoint1 : anchorPoints1) {
+            for (AnchorPoint anchorPoint2 : anchorPoints2) {
+                double distance = WireConnection.calculateDistancePoint(node1.getX() + anchorPoint1.getX(),
+                                                                        node1.getY() + anchorPoint1.getY(),
+                                                                        node2.getX() + anchorPoint2.getX(),
+                                                                        node2.getY() + anchorPoint2.getY());
+                if (distance < closestDistance) {
+                    closest = new AnchorPoint[] {anchorPoint1, anchorPoint2};
+                    closestDistance = distance;
+                }
+            }
+        }
+        return closest;
+    }
+
+    @Test
+    public void testAnchorPoints() {
+        AnchorPointTable table = new AnchorPointTable(provider);
+        BaseNode breaker = createNode("b", ComponentType.BREAKER, false, 0, 0);
+        BaseNode rotatedBreaker = createNode("rb", ComponentType.BREAKER, true, 0, 0);
+
+        assertSame(breakerAnchorPoints, table.getAnchorPoints(breaker));
+        assertSame(table.getAnchorPoints(rotatedBreaker), table.getAnchorPoints(rotatedBreaker));
+        assertEquals(AnchorOrientation.HORIZONTAL, table.getAnchorPoints(rotatedBreaker).get(0).getOrientation());
+        assertEquals(-10, table.getAnchorPoints(rotatedBreaker).get(0).getX(), 0);
+        assertSame(busbarAnchorPoints, table.getAnchorPoints(ComponentType.BUSBAR_SECTION, "bbs"));
+    }
+
+    @Test
+    public void testBusbarAnchorPoint() {
+        AnchorPointTable table = new AnchorPointTable(provider);
+        BaseNode busbar = createNode("bbs", ComponentType.BUSBAR_SECTION, false, 30, 300);
+        assertTrue(table.hasOrderedAnchorPoints(busbar));
+
+        // feeders on both sides of the busbar, on the anchor points, between them and beyond the busbar ends
+        for (double x = -20; x <= BUS_HSPAN * CELL_WIDTH + 60; x += 2.5) {
+            for (double y : new double[] {100, 300, 450}) {
+                for (boolean rotated : new boolean[] {false, true}) {
+                    BaseNode breaker = createNode("b", ComponentType.BREAKER, rotated, x, y);
+                    List<AnchorPoint> breakerPoints = table.getAnchorPoints(breaker);
+
+                    AnchorPoint[] expected = searchAllPairs(busbarAnchorPoints, busbar, breakerPoints, breaker);
+                    WireConnection connection = WireConnection.searchBetterAnchorPoints(table, busbar, breaker);
+                    assertSame(expected[0], connection.getAnchorPoint1());
+                    assertSame(expected[1], connection.getAnchorPoint2());
+
+                    expected = searchAllPairs(breakerPoints, breaker, busbarAnchorPoints, busbar);
+                    connection = WireConnection.searchBetterAnchorPoints(table, breaker, busbar);
+                    assertSame(expected[0], connection.getAnchorPoint1());
+                    assertSame(expected[1], connection.getAnchorPoint2());
+                }
+            }
+        }
+    }
+}
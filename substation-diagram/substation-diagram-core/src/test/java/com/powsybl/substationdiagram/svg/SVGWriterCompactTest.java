@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.substationdiagram.VoltageLevelGenerator;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayout;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class SVGWriterCompactTest {
+
+    private final LayoutParameters layoutParameters = new LayoutParameters();
+
+    private GraphCoordinates coordinates;
+
+    @Before
+    public void setUp() {
+        Graph graph = Graph.create(new VoltageLevelGenerator(2, 2, 20)
+                                           .generate(NetworkFactory.create("test", "test"), "vl"));
+        new PositionVoltageLevelLayoutFactory().create(graph);
+        coordinates = new PositionVoltageLevelLayout(graph).calculateCoordinates(layoutParameters);
+    }
+
+    @Test
+    public void testNumberFormatter() {
+        NumberFormatter formatter = new NumberFormatter(2);
+        assertEquals("0", formatter.format(0));
+        assertEquals("12", formatter.format(12.0));
+        assertEquals("12.5", formatter.format(12.5));
+        assertEquals("-0.33", formatter.format(-1.0 / 3));
+        assertEquals("2.67", formatter.format(8.0 / 3));
+        assertEquals("3", new NumberFormatter(0).format(2.5));
+
+        // not scalable values written as by Double.toString
+        assertEquals("NaN", formatter.format(Double.NaN));
+        assertEquals("Infinity", formatter.format(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", formatter.format(Double.NEGATIVE_INFINITY));
+        assertEquals("1.0E20", formatter.format(1e20));
+        assertEquals("-12345678.9", formatter.format(-12345678.9));
+    }
+
+    @Test(expected = PowsyblException.class)
+    public void testInvalidDecimals() {
+        new SVGWriter(ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"), layoutParameters)
+                .setDecimals(10);
+    }
+
+    private void test(boolean streaming) {
+        SVGWriter writer = new SVGWriter(ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"), layoutParameters)
+                .setStreaming(streaming);
+
+        StringWriter svgWriter = new StringWriter();
+        GraphMetadata metadata = writer.write(coordinates, svgWriter);
+        String svg = svgWriter.toString();
+
+        StringWriter compactSvgWriter = new StringWriter();
+        GraphMetadata compactMetadata = writer.setCompact(true)
+                .setDecimals(1)
+                .write(coordinates, compactSvgWriter);
+        String compactSvg = compactSvgWriter.toString();
+
+        // styles are classes of a single stylesheet, written on a single line
+        assertFalse(compactSvg.trim().contains("\n"));
+        assertEquals(1, compactSvg.split("<style", -1).length - 1);
+        assertFalse(compactSvg.contains("style=\""));
+        assertTrue(compactSvg.contains("class=\"wire\""));
+        assertTrue(compactSvg.contains("class=\"bus\""));
+        assertFalse(Pattern.compile("points=\"[^\"]*\\.\\d\\d").matcher(compactSvg).find());
+        assertTrue(compactSvg.length() < svg.length());
+        assertEquals(metadata.getWireMetadata().size(), compactMetadata.getWireMetadata().size());
+        assertTrue(compactMetadata.getWireMetadata().stream().allMatch(wire -> wire.getPathId() == null));
+
+        // merged wires are found through the path id of their metadata
+        StringWriter mergedSvgWriter = new StringWriter();
+        GraphMetadata mergedMetadata = writer.setMergeWires(true)
+                .write(coordinates, mergedSvgWriter);
+        String mergedSvg = mergedSvgWriter.toString();
+
+        assertFalse(mergedSvg.contains("<polyline"));
+        assertTrue(mergedSvg.length() < compactSvg.length());
+        assertEquals(metadata.getWireMetadata().size(), mergedMetadata.getWireMetadata().size());
+        for (GraphMetadata.WireMetadata wire : mergedMetadata.getWireMetadata()) {
+            assertNotNull(wire.getPathId());
+            assertTrue(mergedSvg.contains("id=\"" + wire.getPathId() + "\""));
+        }
+    }
+
+    @Test
+    public void testDom() {
+        test(false);
+    }
+
+    @Test
+    public void testStreaming() {
+        test(true);
+    }
+}
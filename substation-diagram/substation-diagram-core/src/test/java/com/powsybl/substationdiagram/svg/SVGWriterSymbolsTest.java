@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.substationdiagram.VoltageLevelGenerator;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayout;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.library.ComponentType;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class SVGWriterSymbolsTest {
+
+    private final LayoutParameters layoutParameters = new LayoutParameters();
+
+    private GraphCoordinates coordinates;
+
+    @Before
+    public void setUp() {
+        Graph graph = Graph.create(new VoltageLevelGenerator(2, 2, 20)
+                                           .generate(NetworkFactory.create("test", "test"), "vl"));
+        new PositionVoltageLevelLayoutFactory().create(graph);
+        coordinates = new PositionVoltageLevelLayout(graph).calculateCoordinates(layoutParameters);
+    }
+
+    private static int count(String svg, String regex) {
+        Matcher matcher = Pattern.compile(regex).matcher(svg);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    private void test(boolean streaming) {
+        SVGWriter writer = new SVGWriter(ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"), layoutParameters)
+                .setStreaming(streaming);
+
+        StringWriter svgWriter = new StringWriter();
+        StringWriter metadataWriter = new StringWriter();
+        writer.write(coordinates, svgWriter).writeJson(metadataWriter);
+
+        StringWriter symbolsSvgWriter = new StringWriter();
+        StringWriter symbolsMetadataWriter = new StringWriter();
+        writer.setUseSymbols(true)
+                .write(coordinates, symbolsSvgWriter)
+                .writeJson(symbolsMetadataWriter);
+        String symbolsSvg = symbolsSvgWriter.toString();
+
+        // each component type is written once, and used by each of its nodes
+        for (ComponentType type : new ComponentType[] {ComponentType.BREAKER, ComponentType.DISCONNECTOR, ComponentType.LOAD}) {
+            String symbolId = SVGWriter.getSymbolId(type);
+            assertEquals(1, count(symbolsSvg, "id=\"" + symbolId + "\""));
+            assertTrue(count(symbolsSvg, "<use xlink:href=\"#" + symbolId + "\"") > 1);
+        }
+        assertTrue(symbolsSvg.contains("xmlns:xlink=\"http://www.w3.org/1999/xlink\""));
+        assertTrue(symbolsSvg.length() < svgWriter.toString().length());
+
+        // the nodes are the same, so are the metadata
+        assertEquals(count(svgWriter.toString(), "<g id="), count(symbolsSvg, "<g id="));
+        assertEquals(metadataWriter.toString(), symbolsMetadataWriter.toString());
+    }
+
+    @Test
+    public void testDom() {
+        test(false);
+    }
+
+    @Test
+    public void testStreaming() {
+        test(true);
+    }
+}
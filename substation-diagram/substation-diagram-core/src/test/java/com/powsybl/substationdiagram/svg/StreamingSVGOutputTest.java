@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.svg;
+
+import com.powsybl.iidm.network.NetworkFactory;
+import com.powsybl.substationdiagram.AbstractTestCase;
+import com.powsybl.substationdiagram.VoltageLevelGenerator;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayout;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+/**
+ * Checks that the streaming output writes the same SVG as the DOM one with the default profile, on voltage levels
+ * not covered by the reference files. The attributes being written in the order they are emitted by the streaming
+ * output, and in the order Batik DOM iterates them by the DOM one, the outputs are compared as XML.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class StreamingSVGOutputTest {
+
+    private final LayoutParameters layoutParameters = new LayoutParameters();
+
+    private GraphCoordinates createCoordinates(VoltageLevelGenerator generator, boolean useName) {
+        Graph graph = Graph.create(generator.generate(NetworkFactory.create("test", "test"), "vl"), useName);
+        new PositionVoltageLevelLayoutFactory().create(graph);
+        return new PositionVoltageLevelLayout(graph).calculateCoordinates(layoutParameters);
+    }
+
+    private String write(GraphCoordinates coordinates, boolean streaming) {
+        StringWriter writer = new StringWriter();
+        new SVGWriter(ResourcesComponentLibrary.getInstance("/ConvergenceLibrary"), layoutParameters)
+                .setStreaming(streaming)
+                .write(coordinates, writer);
+        return writer.toString();
+    }
+
+    private void assertSameOutput(GraphCoordinates coordinates) {
+        AbstractTestCase.assertSvgEquals(write(coordinates, false), write(coordinates, true));
+    }
+
+    @Test
+    public void testSections() {
+        assertSameOutput(createCoordinates(new VoltageLevelGenerator(2, 3, 30), false));
+    }
+
+    @Test
+    public void testShuntsAndNames() {
+        assertSameOutput(createCoordinates(new VoltageLevelGenerator(3, 2, 20).setShunts(true), true));
+    }
+}
@@ -11,6 +11,8 @@ import com.powsybl.substationdiagram.layout.VoltageLevelLayout;
 import com.powsybl.substationdiagram.model.BusNode;
 import com.powsybl.substationdiagram.model.Edge;
 import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.model.GraphCoordinatesBuilder;
 import com.powsybl.substationdiagram.model.Node;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.UndirectedGraph;
@@ -37,14 +39,15 @@ public class ForceVoltageLevelLayout implements VoltageLevelLayout {
     }
 
     @Override
-    public void run(LayoutParameters parameters) {
+    public GraphCoordinates calculateCoordinates(LayoutParameters parameters) {
+        GraphCoordinatesBuilder coordinates = new GraphCoordinatesBuilder(graph);
         ForceAtlas2 forceAtlas2 = new ForceAtlas2Builder()
                 .buildLayout();
         GraphModel graphModel = new GraphModelImpl();
         UndirectedGraph undirectedGraph = graphModel.getUndirectedGraph();
         for (Node node : graph.getNodes()) {
             if (node instanceof BusNode) {
-                ((BusNode) node).setPxWidth(50);
+                coordinates.setPxWidth((BusNode) node, 50);
             }
             NodeImpl n = new NodeImpl(node.getId());
             n.setPosition(random.nextFloat() * 1000, random.nextFloat() * 1000);
@@ -71,8 +74,9 @@ public class ForceVoltageLevelLayout implements VoltageLevelLayout {
         forceAtlas2.endAlgo();
         for (Node node : graph.getNodes()) {
             org.gephi.graph.api.Node n = undirectedGraph.getNode(node.getId());
-            node.setX(n.x());
-            node.setY(n.y());
+            coordinates.setX(node, n.x());
+            coordinates.setY(node, n.y());
         }
+        return coordinates.build();
     }
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.jfr;
+
+import com.powsybl.substationdiagram.metrics.Phase;
+import com.powsybl.substationdiagram.metrics.PhaseTracer;
+
+/**
+ * Emits a Java Flight Recorder event for each phase of the diagram generation. Having this module on the classpath
+ * is enough, the events are then recorded as soon as they are enabled in the recording settings.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class JfrPhaseTracer implements PhaseTracer {
+
+    private static PhaseEvent createEvent(Phase phase) {
+        switch (phase) {
+            case GRAPH_BUILD:
+                return new PhaseEvents.GraphBuild();
+            case PREPROCESSING:
+                return new PhaseEvents.Preprocessing();
+            case CELL_DETECTION:
+                return new PhaseEvents.CellDetection();
+            case BLOCK_DECOMPOSITION:
+                return new PhaseEvents.BlockDecomposition();
+            case POSITION_FINDING:
+                return new PhaseEvents.PositionFinding();
+            case SUBSECTIONS:
+                return new PhaseEvents.SubSections();
+            case COORDINATES:
+                return new PhaseEvents.Coordinates();
+            case SVG_WRITING:
+                return new PhaseEvents.SvgWriting();
+            case METADATA_WRITING:
+                return new PhaseEvents.MetadataWriting();
+            default:
+                throw new AssertionError("Unknown phase: " + phase);
+        }
+    }
+
+    @Override
+    public Span begin(Phase phase, String voltageLevelId) {
+        PhaseEvent event = createEvent(phase);
+        if (!event.isEnabled()) {
+            // not recording, the phase is not even measured
+            return null;
+        }
+        event.begin();
+        return metrics -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(metrics);
+                event.commit();
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.jfr;
+
+import com.powsybl.substationdiagram.metrics.PhaseMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the events of the diagram generation phases, one event type per phase so that each phase can be enabled
+ * and given a threshold on its own.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+@Category({"Powsybl", "Substation diagram"})
+@StackTrace(false)
+abstract class PhaseEvent extends Event {
+
+    @Label("Voltage level")
+    String voltageLevelId;
+
+    @Label("Nodes")
+    int nodeCount;
+
+    @Label("Edges")
+    int edgeCount;
+
+    @Label("Cells")
+    int cellCount;
+
+    @Label("Blocks")
+    int blockCount;
+
+    void set(PhaseMetrics metrics) {
+        voltageLevelId = metrics.getVoltageLevelId();
+        nodeCount = metrics.getNodeCount();
+        edgeCount = metrics.getEdgeCount();
+        cellCount = metrics.getCellCount();
+        blockCount = metrics.getBlockCount();
+    }
+}
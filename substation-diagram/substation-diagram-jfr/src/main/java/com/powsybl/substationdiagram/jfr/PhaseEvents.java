@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Events of the diagram generation phases.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+final class PhaseEvents {
+
+    @Name("com.powsybl.substationdiagram.GraphBuild")
+    @Label("Graph Build")
+    @Description("Creation of the graph of a voltage level")
+    static class GraphBuild extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.Preprocessing")
+    @Label("Preprocessing")
+    @Description("Rewriting of the graph before the implicit cell detection")
+    static class Preprocessing extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.CellDetection")
+    @Label("Cell Detection")
+    static class CellDetection extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.BlockDecomposition")
+    @Label("Block Decomposition")
+    @Description("Decomposition of the cells into blocks")
+    static class BlockDecomposition extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.PositionFinding")
+    @Label("Position Finding")
+    @Description("Positioning of the buses and the cells")
+    static class PositionFinding extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.SubSections")
+    @Label("Subsections")
+    @Description("Organization of the cells into horizontal subsections")
+    static class SubSections extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.Coordinates")
+    @Label("Coordinates")
+    @Description("Calculation of the coordinates of the layout")
+    static class Coordinates extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.SvgWriting")
+    @Label("SVG Writing")
+    static class SvgWriting extends PhaseEvent {
+    }
+
+    @Name("com.powsybl.substationdiagram.MetadataWriting")
+    @Label("Metadata Writing")
+    static class MetadataWriting extends PhaseEvent {
+    }
+
+    private PhaseEvents() {
+    }
+}
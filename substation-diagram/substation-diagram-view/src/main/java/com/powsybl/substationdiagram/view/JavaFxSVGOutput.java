@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.view;
+
+import com.powsybl.substationdiagram.library.ComponentType;
+import com.powsybl.substationdiagram.svg.SVGOutput;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.*;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.Rotate;
+import javafx.scene.transform.Transform;
+import javafx.scene.transform.Translate;
+import org.apache.batik.anim.dom.SVGOMDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Build the SVG elements directly as JavaFX nodes, without writing and parsing SVG text.
+ * <p>
+ * Only the elements and the styles used by {@link com.powsybl.substationdiagram.svg.SVGWriter} without symbols nor
+ * compact profile, and by the components of the libraries, are supported: groups, lines, rectangles, circles,
+ * ellipses, polylines, polygons, paths and texts, with their transforms.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+class JavaFxSVGOutput implements SVGOutput {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFxSVGOutput.class);
+
+    private static final Pattern TRANSFORM_PATTERN = Pattern.compile("(\\w+)\\s*\\(([^)]*)\\)");
+
+    private static final Pattern SEPARATOR_PATTERN = Pattern.compile("[\\s,]+");
+
+    /**
+     * An element being built: its children and text are known only when it ends
+     */
+    private static final class PendingElement {
+
+        private final String name;
+
+        private final Map<String, String> attributes = new HashMap<>();
+
+        private final List<Node> children = new ArrayList<>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private PendingElement(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Group root = new Group();
+
+    private final Deque<PendingElement> elements = new ArrayDeque<>();
+
+    private final Map<String, Node> nodesById = new HashMap<>();
+
+    /**
+     * Content of the components, parsed at their first use
+     */
+    private final Map<ComponentType, List<ElementTemplate>> componentTemplates = new EnumMap<>(ComponentType.class);
+
+    Group getRoot() {
+        return root;
+    }
+
+    /**
+     * Nodes of the elements with an id, to install the handlers without walking the scene graph
+     */
+    Map<String, Node> getNodesById() {
+        return nodesById;
+    }
+
+    @Override
+    public void startElement(String name) {
+        elements.push(new PendingElement(Objects.requireNonNull(name)));
+    }
+
+    @Override
+    public void attribute(String name, String value) {
+        elements.element().attributes.put(name, value);
+    }
+
+    @Override
+    public void text(String text) {
+        elements.element().text.append(text);
+    }
+
+    @Override
+    public void endElement() {
+        PendingElement element = elements.pop();
+        ElementTemplate template = ElementTemplate.parse(element.name, element.attributes, element.text.toString());
+        if (template != null) {
+            Node node = template.createNode(element.children);
+            String id = element.attributes.get("id");
+            if (id != null) {
+                node.setId(id);
+                nodesById.put(id, node);
+            }
+            if (elements.isEmpty()) {
+                root.getChildren().add(node);
+            } else {
+                elements.element().children.add(node);
+            }
+        }
+    }
+
+    @Override
+    public void component(ComponentType type, SVGOMDocument document) {
+        // as in the other outputs, the component is the content of the root element of the document
+        List<Node> children = elements.element().children;
+        List<ElementTemplate> templates = componentTemplates.computeIfAbsent(type, t -> parseChildren(document.getDocumentElement()));
+        for (ElementTemplate template : templates) {
+            children.add(template.createNode());
+        }
+    }
+
+    private static List<ElementTemplate> parseChildren(Element element) {
+        List<ElementTemplate> children = new ArrayList<>();
+        for (org.w3c.dom.Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                ElementTemplate template = parse((Element) child);
+                if (template != null) {
+                    children.add(template);
+                }
+            }
+        }
+        return children;
+    }
+
+    private static ElementTemplate parse(Element element) {
+        Map<String, String> attributes = new HashMap<>();
+        NamedNodeMap domAttributes = element.getAttributes();
+        for (int i = 0; i < domAttributes.getLength(); i++) {
+            attributes.put(domAttributes.item(i).getNodeName(), domAttributes.item(i).getNodeValue());
+        }
+        ElementTemplate template = ElementTemplate.parse(element.getLocalName() != null ? element.getLocalName() : element.getNodeName(),
+                                                         attributes, element.getTextContent());
+        return template != null ? template.withChildren(parseChildren(element)) : null;
+    }
+
+    /**
+     * An element with its attributes parsed: the JavaFX nodes, which cannot be shared by several parents, are built
+     * from it for each use without parsing the attributes again
+     */
+    private static final class ElementTemplate {
+
+        private final String name;
+
+        /**
+         * Geometry of the element, in the order of the arguments of the constructor of its shape
+         */
+        private final double[] values;
+
+        /**
+         * Data of a path or content of a text
+         */
+        private final String content;
+
+        private final Font font;
+
+        private final Color fill;
+
+        private final Color stroke;
+
+        private final double strokeWidth;
+
+        private final double[] strokeDashArray;
+
+        private final List<Transform> transforms;
+
+        private final List<ElementTemplate> children;
+
+        private ElementTemplate(String name, double[] values, String content, Font font, Color fill, Color stroke,
+                                double strokeWidth, double[] strokeDashArray, List<Transform> transforms,
+                                List<ElementTemplate> children) {
+            this.name = name;
+            this.values = values;
+            this.content = content;
+            this.font = font;
+            this.fill = fill;
+            this.stroke = stroke;
+            this.strokeWidth = strokeWidth;
+            this.strokeDashArray = strokeDashArray;
+            this.transforms = transforms;
+            this.children = children;
+        }
+
+        /**
+         * Template of an element, or null if the element is not supported
+         */
+        private static ElementTemplate parse(String name, Map<String, String> attributes, String text) {
+            double[] values;
+            String content = null;
+            Font font = null;
+            switch (name) {
+                case "g":
+                case "svg":
+                    values = new double[0];
+                    break;
+                case "line":
+                    values = getDoubles(attributes, "x1", "y1", "x2", "y2");
+                    break;
+                case "rect":
+                    values = getDoubles(attributes, "x", "y", "width", "height");
+                    break;
+                case "circle":
+                    values = getDoubles(attributes, "cx", "cy", "r");
+                    break;
+                case "ellipse":
+                    values = getDoubles(attributes, "cx", "cy", "rx", "ry");
+                    break;
+                case "polyline":
+                case "polygon":
+                    values = getDoubles(attributes.get("points"));
+                    break;
+                case "path":
+                    values = new double[0];
+                    content = attributes.getOrDefault("d", "");
+                    break;
+                case "text":
+                    values = getDoubles(attributes, "x", "y");
+                    content = text.trim();
+                    break;
+                default:
+                    LOGGER.trace("Element {} ignored", name);
+                    return null;
+            }
+            Map<String, String> style = getStyle(attributes);
+            if ("text".equals(name)) {
+                String fontFamily = style.get("font-family");
+                Double fontSize = parseDouble(style.get("font-size"));
+                font = Font.font(fontFamily != null ? fontFamily : Font.getDefault().getFamily(),
+                                 fontSize != null ? fontSize : Font.getDefault().getSize());
+            }
+            // SVG default paint: filled in black, not stroked
+            Color fill = getColor(style.get("fill"), style.get("fill-opacity"), "line".equals(name) ? null : Color.BLACK);
+            Color stroke = getColor(style.get("stroke"), style.get("stroke-opacity"), null);
+            Double strokeWidth = parseDouble(style.get("stroke-width"));
+            String dashArray = style.get("stroke-dasharray");
+            String transform = attributes.get("transform");
+            return new ElementTemplate(name, values, content, font, fill, stroke,
+                                       strokeWidth != null ? strokeWidth : 1,
+                                       dashArray != null && !"none".equals(dashArray) ? getDoubles(dashArray) : new double[0],
+                                       transform != null ? getTransforms(transform) : Collections.emptyList(),
+                                       Collections.emptyList());
+        }
+
+        private ElementTemplate withChildren(List<ElementTemplate> children) {
+            return new ElementTemplate(name, values, content, font, fill, stroke, strokeWidth, strokeDashArray,
+                                       transforms, children);
+        }
+
+        private Node createNode() {
+            List<Node> childNodes = new ArrayList<>(children.size());
+            for (ElementTemplate child : children) {
+                childNodes.add(child.createNode());
+            }
+            return createNode(childNodes);
+        }
+
+        private Node createNode(List<Node> childNodes) {
+            Node node;
+            switch (name) {
+                case "g":
+                case "svg":
+                    node = new Group(childNodes);
+                    break;
+                case "line":
+                    node = style(new Line(values[0], values[1], values[2], values[3]));
+                    break;
+                case "rect":
+                    node = style(new Rectangle(values[0], values[1], values[2], values[3]));
+                    break;
+                case "circle":
+                    node = style(new Circle(values[0], values[1], values[2]));
+                    break;
+                case "ellipse":
+                    node = style(new Ellipse(values[0], values[1], values[2], values[3]));
+                    break;
+                case "polyline":
+                    node = style(new Polyline(values));
+                    break;
+                case "polygon":
+                    node = style(new Polygon(values));
+                    break;
+                case "path":
+                    SVGPath path = new SVGPath();
+                    path.setContent(content);
+                    node = style(path);
+                    break;
+                case "text":
+                    Text textNode = new Text(values[0], values[1], content);
+                    textNode.setFont(font);
+                    node = style(textNode);
+                    break;
+                default:
+                    throw new AssertionError("Unexpected element " + name);
+            }
+            // a transform, as a node, cannot be shared
+            for (Transform transform : transforms) {
+                node.getTransforms().add(transform.clone());
+            }
+            return node;
+        }
+
+        private Shape style(Shape shape) {
+            shape.setFill(fill);
+            shape.setStroke(stroke);
+            shape.setStrokeWidth(strokeWidth);
+            for (double dash : strokeDashArray) {
+                shape.getStrokeDashArray().add(dash);
+            }
+            return shape;
+        }
+    }
+
+    /**
+     * Presentation attributes, overridden by the properties of the style attribute
+     */
+    private static Map<String, String> getStyle(Map<String, String> attributes) {
+        Map<String, String> style = new HashMap<>(attributes);
+        String styleAttribute = attributes.get("style");
+        if (styleAttribute != null) {
+            for (String property : styleAttribute.split(";")) {
+                int colon = property.indexOf(':');
+                if (colon > 0) {
+                    style.put(property.substring(0, colon).trim(), property.substring(colon + 1).trim());
+                }
+            }
+        }
+        return style;
+    }
+
+    private static Color getColor(String value, String opacity, Color defaultColor) {
+        if (value == null) {
+            return defaultColor;
+        }
+        if ("none".equals(value)) {
+            return null;
+        }
+        try {
+            Color color = Color.web(value);
+            Double alpha = parseDouble(opacity);
+            return alpha != null ? color.deriveColor(0, 1, 1, alpha) : color;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Invalid color {}", value);
+            return defaultColor;
+        }
+    }
+
+    private static List<Transform> getTransforms(String transform) {
+        List<Transform> transforms = new ArrayList<>();
+        Matcher matcher = TRANSFORM_PATTERN.matcher(transform);
+        while (matcher.find()) {
+            double[] args = getDoubles(matcher.group(2));
+            switch (matcher.group(1)) {
+                case "translate":
+                    transforms.add(new Translate(args[0], args.length > 1 ? args[1] : 0));
+                    break;
+                case "rotate":
+                    transforms.add(args.length > 2 ? new Rotate(args[0], args[1], args[2]) : new Rotate(args[0]));
+                    break;
+                case "matrix":
+                    transforms.add(new Affine(args[0], args[2], args[4], args[1], args[3], args[5]));
+                    break;
+                default:
+                    LOGGER.warn("Transform {} ignored", matcher.group(1));
+                    break;
+            }
+        }
+        return transforms;
+    }
+
+    private static Double parseDouble(String value) {
+        if (value == null) {
+            return null;
+        }
+        String number = value.trim();
+        if (number.endsWith("px")) {
+            number = number.substring(0, number.length() - 2);
+        }
+        try {
+            return Double.valueOf(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static double[] getDoubles(Map<String, String> attributes, String... names) {
+        double[] values = new double[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Double value = parseDouble(attributes.get(names[i]));
+            values[i] = value != null ? value : 0;
+        }
+        return values;
+    }
+
+    private static double[] getDoubles(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new double[0];
+        }
+        String[] tokens = SEPARATOR_PATTERN.split(value.trim());
+        double[] doubles = new double[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            doubles[i] = Double.parseDouble(tokens[i]);
+        }
+        return doubles;
+    }
+}
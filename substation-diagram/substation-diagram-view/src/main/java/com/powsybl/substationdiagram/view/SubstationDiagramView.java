@@ -8,7 +8,12 @@ package com.powsybl.substationdiagram.view;
 
 import afester.javafx.svg.SvgLoader;
 import com.powsybl.commons.PowsyblException;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.library.ComponentLibrary;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.AnchorPointTable;
 import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.input.MouseButton;
@@ -71,7 +76,7 @@ public final class SubstationDiagramView extends BorderPane {
         List<WireHandler> wireHandlers = new ArrayList<>();
         Map<String, NodeHandler> nodeHandlers = new HashMap<>();
 
-        installHandlers(node, metadata, wireHandlers, nodeHandlers);
+        installHandlers(node, metadata, new AnchorPointTable(metadata), wireHandlers, nodeHandlers);
 
         // resolve links
         for (WireHandler wireHandler : wireHandlers) {
@@ -80,8 +85,8 @@ public final class SubstationDiagramView extends BorderPane {
         }
     }
 
-    private static void installHandlers(Node node, GraphMetadata metadata, List<WireHandler> wireHandlers,
-                                        Map<String, NodeHandler> nodeHandlers) {
+    private static void installHandlers(Node node, GraphMetadata metadata, AnchorPointTable anchorPointTable,
+                                        List<WireHandler> wireHandlers, Map<String, NodeHandler> nodeHandlers) {
         if ((node.getId() != null) && !node.getId().isEmpty()) {
             GraphMetadata.NodeMetadata nodeMetadata = metadata.getNodeMetadata(node.getId());
             if (nodeMetadata != null) {
@@ -99,7 +104,7 @@ public final class SubstationDiagramView extends BorderPane {
                     if (nodeHandler2 == null) {
                         throw new PowsyblException("Node 2 " + wireMetadata.getNodeId2() + " not found");
                     }
-                    WireHandler wireHandler = new WireHandler((Polyline) node, nodeHandler1, nodeHandler2, metadata);
+                    WireHandler wireHandler = new WireHandler((Polyline) node, nodeHandler1, nodeHandler2, anchorPointTable);
                     LOGGER.trace(" Added handler to wire between {} and {}", wireMetadata.getNodeId1(), wireMetadata.getNodeId2());
                     wireHandlers.add(wireHandler);
                 }
@@ -110,17 +115,57 @@ public final class SubstationDiagramView extends BorderPane {
         if (node instanceof Group) {
             Group group = (Group) node;
             for (Node child : group.getChildren()) {
-                installHandlers(child, metadata, wireHandlers, nodeHandlers);
+                installHandlers(child, metadata, anchorPointTable, wireHandlers, nodeHandlers);
             }
         }
     }
 
+    /**
+     * Install the handlers on the nodes of the elements, found by id
+     */
+    private static void installHandlers(Map<String, Node> nodesById, GraphMetadata metadata) {
+        Map<String, NodeHandler> nodeHandlers = new HashMap<>();
+        for (GraphMetadata.NodeMetadata nodeMetadata : metadata.getNodeMetadata()) {
+            Node node = nodesById.get(nodeMetadata.getId());
+            if (node != null) {
+                nodeHandlers.put(nodeMetadata.getId(), new NodeHandler(node, nodeMetadata.getComponentType(), nodeMetadata.isRotated(), metadata));
+            }
+        }
+
+        AnchorPointTable anchorPointTable = new AnchorPointTable(metadata);
+        for (GraphMetadata.WireMetadata wireMetadata : metadata.getWireMetadata()) {
+            Node node = nodesById.get(wireMetadata.getId());
+            NodeHandler nodeHandler1 = nodeHandlers.get(wireMetadata.getNodeId1());
+            NodeHandler nodeHandler2 = nodeHandlers.get(wireMetadata.getNodeId2());
+            if (node instanceof Polyline && nodeHandler1 != null && nodeHandler2 != null) {
+                WireHandler wireHandler = new WireHandler((Polyline) node, nodeHandler1, nodeHandler2, anchorPointTable);
+                nodeHandler1.addWire(wireHandler);
+                nodeHandler2.addWire(wireHandler);
+            }
+        }
+    }
+
+    /**
+     * Build the view directly from a layout result of a graph, without writing and parsing SVG and metadata.
+     */
+    public static SubstationDiagramView render(GraphCoordinates coordinates, ComponentLibrary componentLibrary,
+                                               LayoutParameters layoutParameters) {
+        Objects.requireNonNull(coordinates);
+
+        JavaFxSVGOutput output = new JavaFxSVGOutput();
+        GraphMetadata metadata = new SVGWriter(componentLibrary, layoutParameters).write(coordinates, output);
+
+        installHandlers(output.getNodesById(), metadata);
+
+        return new SubstationDiagramView(output.getRoot());
+    }
+
     public static SubstationDiagramView load(InputStream svgInputStream, InputStream metadataInputStream) {
         Objects.requireNonNull(svgInputStream);
         Objects.requireNonNull(metadataInputStream);
 
-        // convert svg file to JavaFX components
-        Group svgImage = new SvgLoader().loadSvg(svgInputStream);
+        // convert svg file to JavaFX components, the loader does not handle symbols
+        Group svgImage = new SvgLoader().loadSvg(SvgUseExpander.expand(svgInputStream));
 
         // load metadata
         GraphMetadata metadata = GraphMetadata.parseJson(metadataInputStream);
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.view;
+
+import com.google.common.io.ByteStreams;
+import com.powsybl.commons.exceptions.UncheckedParserConfigurationException;
+import com.powsybl.commons.exceptions.UncheckedSaxException;
+import com.powsybl.commons.exceptions.UncheckedTransformerException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JavaFX SVG loader does not handle symbols: when the SVG has been written with symbols, each use of a symbol
+ * is replaced by a copy of its content, which gives the same elements as an SVG written without symbols.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+final class SvgUseExpander {
+
+    private static final String SVG_NAMESPACE = "http://www.w3.org/2000/svg";
+    private static final String XLINK_NAMESPACE = "http://www.w3.org/1999/xlink";
+
+    private SvgUseExpander() {
+    }
+
+    /**
+     * @return the SVG without symbols
+     */
+    static InputStream expand(InputStream svgInputStream) {
+        byte[] svg;
+        Document document;
+        try {
+            svg = ByteStreams.toByteArray(svgInputStream);
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(svg));
+        } catch (ParserConfigurationException e) {
+            throw new UncheckedParserConfigurationException(e);
+        } catch (SAXException e) {
+            throw new UncheckedSaxException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!expand(document)) {
+            return new ByteArrayInputStream(svg);
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try {
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document), new StreamResult(os));
+        } catch (TransformerException e) {
+            throw new UncheckedTransformerException(e);
+        }
+        return new ByteArrayInputStream(os.toByteArray());
+    }
+
+    /**
+     * @return false if the document does not use any symbol
+     */
+    private static boolean expand(Document document) {
+        NodeList defsList = document.getElementsByTagNameNS(SVG_NAMESPACE, "defs");
+        if (defsList.getLength() == 0) {
+            return false;
+        }
+
+        Map<String, Element> symbolsById = new HashMap<>();
+        NodeList symbols = document.getElementsByTagNameNS(SVG_NAMESPACE, "symbol");
+        for (int i = 0; i < symbols.getLength(); i++) {
+            Element symbol = (Element) symbols.item(i);
+            symbolsById.put(symbol.getAttribute("id"), symbol);
+        }
+
+        // the node list is live, so copy it before replacing the elements
+        List<Element> uses = new ArrayList<>();
+        NodeList useList = document.getElementsByTagNameNS(SVG_NAMESPACE, "use");
+        for (int i = 0; i < useList.getLength(); i++) {
+            uses.add((Element) useList.item(i));
+        }
+        for (Element use : uses) {
+            String href = use.hasAttributeNS(XLINK_NAMESPACE, "href") ? use.getAttributeNS(XLINK_NAMESPACE, "href")
+                                                                       : use.getAttribute("href");
+            Element symbol = symbolsById.get(href.substring(1));
+            if (symbol != null) {
+                Node parent = use.getParentNode();
+                NodeList children = symbol.getChildNodes();
+                for (int i = 0; i < children.getLength(); i++) {
+                    parent.insertBefore(children.item(i).cloneNode(true), use);
+                }
+            }
+            use.getParentNode().removeChild(use);
+        }
+
+        List<Node> defs = new ArrayList<>();
+        for (int i = 0; i < defsList.getLength(); i++) {
+            defs.add(defsList.item(i));
+        }
+        defs.forEach(d -> d.getParentNode().removeChild(d));
+        return true;
+    }
+}
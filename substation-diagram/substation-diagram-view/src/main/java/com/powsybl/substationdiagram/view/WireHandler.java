@@ -7,7 +7,7 @@
 package com.powsybl.substationdiagram.view;
 
 import com.powsybl.substationdiagram.library.AnchorOrientation;
-import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.AnchorPointTable;
 import com.powsybl.substationdiagram.svg.WireConnection;
 import javafx.scene.Node;
 import javafx.scene.shape.Polyline;
@@ -27,14 +27,14 @@ public class WireHandler {
 
     private final NodeHandler nodeHandler2;
 
-    private final GraphMetadata metadata;
+    private final AnchorPointTable anchorPointTable;
 
     public WireHandler(Polyline node, NodeHandler nodeHandler1, NodeHandler nodeHandler2,
-                       GraphMetadata metadata) {
+                       AnchorPointTable anchorPointTable) {
         this.node = Objects.requireNonNull(node);
         this.nodeHandler1 = Objects.requireNonNull(nodeHandler1);
         this.nodeHandler2 = Objects.requireNonNull(nodeHandler2);
-        this.metadata = Objects.requireNonNull(metadata);
+        this.anchorPointTable = Objects.requireNonNull(anchorPointTable);
     }
 
     public Node getNode() {
@@ -50,7 +50,7 @@ public class WireHandler {
     }
 
     public void refresh() {
-        WireConnection wireConnection = WireConnection.searchBetterAnchorPoints(metadata, nodeHandler1, nodeHandler2);
+        WireConnection wireConnection = WireConnection.searchBetterAnchorPoints(anchorPointTable, nodeHandler1, nodeHandler2);
 
         // update polyline
         double x1 = nodeHandler1.getX() + wireConnection.getAnchorPoint1().getX();
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.view.app;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Least recently used cache of the layout results of the viewer, so that showing again a diagram with the same
+ * parameters does not build and lay it out again. The views are rendered from these results, as a JavaFX node cannot
+ * be shown by several panes.
+ * <p>
+ * Results are keyed by the voltage level id, the cache key of the layout factory (see
+ * {@link VoltageLevelLayoutFactory#getCacheKey()}), the layout parameters value and the use of names. The least
+ * recently used results are evicted when their estimated memory size exceeds the maximum size. The cache has to be
+ * cleared when the network changes: a result calculated from the previous network, which ends after the clearing, is
+ * then returned to its caller but not cached.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+class DiagramResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiagramResultCache.class);
+
+    /**
+     * Estimated memory size of a node of a laid out graph, with its cell, block and coordinates
+     */
+    private static final long NODE_SIZE = 512;
+
+    private static final long EDGE_SIZE = 64;
+
+    private static final class Key {
+
+        private final String voltageLevelId;
+
+        private final Object layoutFactoryKey;
+
+        private final LayoutParameters layoutParameters;
+
+        private final boolean showNames;
+
+        private Key(String voltageLevelId, VoltageLevelLayoutFactory layoutFactory, LayoutParameters layoutParameters,
+                    boolean showNames) {
+            this.voltageLevelId = Objects.requireNonNull(voltageLevelId);
+            // taken now as the factories are mutable
+            this.layoutFactoryKey = layoutFactory.getCacheKey();
+            // copied as the parameters are mutable
+            this.layoutParameters = new LayoutParameters(layoutParameters);
+            this.showNames = showNames;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return layoutFactoryKey.equals(other.layoutFactoryKey)
+                    && showNames == other.showNames
+                    && voltageLevelId.equals(other.voltageLevelId)
+                    && layoutParameters.equals(other.layoutParameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(voltageLevelId, layoutFactoryKey, layoutParameters, showNames);
+        }
+    }
+
+    private static final class Entry {
+
+        private final GraphCoordinates coordinates;
+
+        private final long size;
+
+        private Entry(GraphCoordinates coordinates) {
+            this.coordinates = coordinates;
+            Graph graph = coordinates.getGraph();
+            size = graph.getNodeCount() * NODE_SIZE + graph.getEdgeCount() * EDGE_SIZE;
+        }
+    }
+
+    private final long maxSize;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size = 0;
+
+    /**
+     * Number of clearings, so that a result calculated before a clearing is not cached
+     */
+    private long generation = 0;
+
+    DiagramResultCache(long maxSize) {
+        if (maxSize < 1) {
+            throw new PowsyblException("Invalid cache size: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Estimated memory size of the cached results, in bytes
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        size = 0;
+        generation++;
+    }
+
+    /**
+     * Get the layout result from the cache, or calculate it and put it in the cache
+     */
+    GraphCoordinates get(String voltageLevelId, VoltageLevelLayoutFactory layoutFactory, LayoutParameters layoutParameters,
+                         boolean showNames, Supplier<GraphCoordinates> calculator) {
+        Key key = new Key(voltageLevelId, layoutFactory, layoutParameters, showNames);
+        long calculationGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                LOGGER.debug("Diagram of '{}' found in cache", voltageLevelId);
+                return entry.coordinates;
+            }
+            calculationGeneration = generation;
+        }
+        // calculated outside of the lock, not to block the other diagrams
+        Entry entry = new Entry(calculator.get());
+        synchronized (this) {
+            if (calculationGeneration != generation) {
+                LOGGER.debug("Diagram of '{}' calculated before the cache clearing, not cached", voltageLevelId);
+                return entry.coordinates;
+            }
+            Entry cached = entries.putIfAbsent(key, entry);
+            if (cached != null) {
+                return cached.coordinates;
+            }
+            size += entry.size;
+            evict();
+            return entry.coordinates;
+        }
+    }
+
+    /**
+     * Evict the least recently used results, the last one is kept even if larger than the maximum size
+     */
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (size > maxSize && entries.size() > 1) {
+            Entry eldest = it.next();
+            it.remove();
+            size -= eldest.size;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.view.app;
+
+import com.powsybl.commons.PowsyblException;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the diagram computations of the viewer on a bounded number of threads.
+ * <p>
+ * Requests are coalesced per owner, usually a diagram pane: a new request of an owner cancels its previous one, which
+ * is dropped if not started yet. A started computation is cancelled cooperatively, by checking
+ * {@link Request#checkCancelled()} between its stages, and the result of a cancelled request is never delivered.
+ * When a thread is free, the pending request of a visible owner is run first, then the oldest one.
+ * <p>
+ * Requests have to be submitted and cancelled from the JavaFX application thread, the results are delivered on it.
+ * The visibility of the owners is checked on the computation threads, to pick the next request: the visibility
+ * suppliers have to be thread-safe, for instance by reading a volatile field updated on the JavaFX application thread.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+class DiagramScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiagramScheduler.class);
+
+    private static final Comparator<Request> PRIORITY_COMPARATOR = Comparator
+            .comparing((Request request) -> !request.visible.getAsBoolean())
+            .thenComparingLong(request -> request.sequence);
+
+    /**
+     * A diagram computation of an owner
+     */
+    static final class Request {
+
+        private final Object owner;
+
+        private final BooleanSupplier visible;
+
+        private final long sequence;
+
+        private Consumer<Request> body;
+
+        private volatile boolean cancelled = false;
+
+        private Request(Object owner, BooleanSupplier visible, long sequence) {
+            this.owner = owner;
+            this.visible = visible;
+            this.sequence = sequence;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Stop the computation if the request has been cancelled
+         */
+        void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+    }
+
+    private final ExecutorService executor;
+
+    /**
+     * Thread the results are delivered on
+     */
+    private final Executor resultExecutor;
+
+    /**
+     * Not started request of each owner
+     */
+    private final Map<Object, Request> pendingRequests = new HashMap<>();
+
+    /**
+     * Last request of each owner, not delivered yet
+     */
+    private final Map<Object, Request> latestRequests = new HashMap<>();
+
+    private long sequence = 0;
+
+    DiagramScheduler(int threadCount) {
+        this(threadCount, Platform::runLater);
+    }
+
+    DiagramScheduler(int threadCount, Executor resultExecutor) {
+        if (threadCount < 1) {
+            throw new PowsyblException("Invalid thread count: " + threadCount);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "diagram-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.resultExecutor = Objects.requireNonNull(resultExecutor);
+    }
+
+    /**
+     * Submit a computation of an owner, cancelling its previous one
+     *
+     * @param owner the owner of the request
+     * @param visible true when the owner is visible, the request is then run first, called on the computation threads
+     * @param work the computation, checking the cancellation of the request between its stages
+     * @param onSucceeded called with the result of the computation, if not cancelled
+     * @param onFailed called with the failure of the computation, if not cancelled
+     */
+    <T> void submit(Object owner, BooleanSupplier visible, Function<Request, T> work, Consumer<T> onSucceeded,
+                    Consumer<Throwable> onFailed) {
+        Objects.requireNonNull(owner);
+        Objects.requireNonNull(visible);
+        Objects.requireNonNull(work);
+        Objects.requireNonNull(onSucceeded);
+        Objects.requireNonNull(onFailed);
+        synchronized (this) {
+            Request request = new Request(owner, visible, sequence++);
+            request.body = r -> run(r, work, onSucceeded, onFailed);
+            Request previous = latestRequests.put(owner, request);
+            if (previous != null) {
+                previous.cancelled = true;
+            }
+            pendingRequests.put(owner, request);
+        }
+        // one run per submission: the runs of the coalesced requests find nothing to do
+        executor.execute(this::runNext);
+    }
+
+    /**
+     * Cancel the request of an owner, for instance when it is closed
+     */
+    synchronized void cancel(Object owner) {
+        pendingRequests.remove(owner);
+        Request request = latestRequests.remove(owner);
+        if (request != null) {
+            request.cancelled = true;
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runNext() {
+        Request request;
+        synchronized (this) {
+            request = pendingRequests.values().stream().min(PRIORITY_COMPARATOR).orElse(null);
+            if (request == null) {
+                return;
+            }
+            pendingRequests.remove(request.owner);
+        }
+        request.body.accept(request);
+    }
+
+    private <T> void run(Request request, Function<Request, T> work, Consumer<T> onSucceeded, Consumer<Throwable> onFailed) {
+        try {
+            request.checkCancelled();
+            T result = work.apply(request);
+            resultExecutor.execute(() -> {
+                if (complete(request)) {
+                    onSucceeded.accept(result);
+                }
+            });
+        } catch (CancellationException e) {
+            LOGGER.trace("Diagram computation cancelled");
+        } catch (RuntimeException e) {
+            resultExecutor.execute(() -> {
+                if (complete(request)) {
+                    onFailed.accept(e);
+                }
+            });
+        }
+    }
+
+    private synchronized boolean complete(Request request) {
+        if (request.cancelled) {
+            return false;
+        }
+        latestRequests.remove(request.owner, request);
+        return true;
+    }
+}
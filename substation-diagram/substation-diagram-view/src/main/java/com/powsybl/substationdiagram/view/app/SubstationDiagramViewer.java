@@ -18,6 +18,9 @@ import com.powsybl.substationdiagram.layout.*;
 import com.powsybl.substationdiagram.layout.force.ForceVoltageLevelLayoutFactory;
 import com.powsybl.substationdiagram.library.ComponentLibrary;
 import com.powsybl.substationdiagram.library.ResourcesComponentLibrary;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.svg.GraphMetadata;
+import com.powsybl.substationdiagram.svg.SVGWriter;
 import com.powsybl.substationdiagram.view.SubstationDiagramView;
 import javafx.application.Application;
 import javafx.beans.property.BooleanProperty;
@@ -25,6 +28,7 @@ import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableBooleanValue;
 import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
@@ -46,7 +50,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashSet;
@@ -76,7 +79,7 @@ public class SubstationDiagramViewer extends Application {
                               "Random", new RandomVoltageLevelLayoutFactory(500, 500),
                               "Force", new ForceVoltageLevelLayoutFactory());
 
-    private final ComponentLibrary componentLibrary = new ResourcesComponentLibrary("/ConvergenceLibrary");
+    private final ComponentLibrary componentLibrary = ResourcesComponentLibrary.getInstance("/ConvergenceLibrary");
 
     private final ObservableList<SelectableVoltageLevel> selectableVoltageLevels = FXCollections.observableArrayList();
     private final FilteredList<SelectableVoltageLevel> filteredSelectableVoltageLevels = new FilteredList<>(selectableVoltageLevels, s -> true);
@@ -87,6 +90,8 @@ public class SubstationDiagramViewer extends Application {
     private final TextField casePathTextField = new TextField();
     private final BorderPane selectedDiagramPane = new BorderPane();
     private final TabPane checkedDiagramsPane = new TabPane();
+    private final Tab selectedDiagramTab = new Tab("Selected", selectedDiagramPane);
+    private final Tab checkedDiagramsTab = new Tab("Checked", checkedDiagramsPane);
     private GridPane parametersPane;
 
     private final ObjectProperty<Network> networkProperty = new SimpleObjectProperty<>();
@@ -102,6 +107,10 @@ public class SubstationDiagramViewer extends Application {
 
     private final CheckBox showNames = new CheckBox("Show names");
 
+    private final DiagramResultCache diagramResultCache = new DiagramResultCache(Runtime.getRuntime().maxMemory() / 4);
+
+    private final DiagramScheduler diagramScheduler = new DiagramScheduler(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
     private class SubstationDiagramPane extends BorderPane {
 
         private final FlowPane flowPane = new FlowPane();
@@ -124,7 +133,16 @@ public class SubstationDiagramViewer extends Application {
 
         private final ChangeListener<LayoutParameters> listener;
 
-        SubstationDiagramPane(VoltageLevel vl) {
+        // kept to be referenced as long as the pane, its listener being weak
+        private final ObservableBooleanValue shownProperty;
+
+        private final ChangeListener<Boolean> shownListener;
+
+        private volatile boolean shown;
+
+        private SubstationDiagramResult result;
+
+        SubstationDiagramPane(VoltageLevel vl, ObservableBooleanValue shownProperty) {
             svgArea.setEditable(false);
             metadataArea.setEditable(false);
             infoArea.setEditable(false);
@@ -135,10 +153,16 @@ public class SubstationDiagramViewer extends Application {
             tab1.setClosable(false);
             tab2.setClosable(false);
             tab3.setClosable(false);
+            tabPane.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> showSvg());
             setCenter(tabPane);
             setBottom(titledPane);
             listener = (observable, oldValue, newValue) -> loadDiagram(vl);
             layoutParameters.addListener(new WeakChangeListener<>(listener));
+            // the diagram of the visible pane is computed first
+            this.shownProperty = shownProperty;
+            shown = shownProperty.get();
+            shownListener = (observable, oldValue, newValue) -> shown = newValue;
+            shownProperty.addListener(new WeakChangeListener<>(shownListener));
             loadDiagram(vl);
         }
 
@@ -146,84 +170,76 @@ public class SubstationDiagramViewer extends Application {
 
             private final SubstationDiagramView view;
 
-            private final String svgData;
+            private final GraphCoordinates coordinates;
 
-            private final String metadataData;
+            private final LayoutParameters layoutParameters;
 
-            SubstationDiagramResult(SubstationDiagramView view, String svgData, String metadataData) {
+            SubstationDiagramResult(SubstationDiagramView view, GraphCoordinates coordinates, LayoutParameters layoutParameters) {
                 this.view = view;
-                this.svgData = svgData;
-                this.metadataData = metadataData;
+                this.coordinates = coordinates;
+                this.layoutParameters = layoutParameters;
             }
 
             SubstationDiagramView getView() {
                 return view;
             }
 
-            String getSvgData() {
-                return svgData;
-            }
-
-            String getMetadataData() {
-                return metadataData;
+            /**
+             * Write the SVG and the metadata of the diagram, only needed to display them
+             */
+            void writeSvg(TextArea svgArea, TextArea metadataArea) {
+                try (StringWriter svgWriter = new StringWriter();
+                     StringWriter metadataWriter = new StringWriter()) {
+                    GraphMetadata metadata = new SVGWriter(componentLibrary, layoutParameters).write(coordinates, svgWriter);
+                    metadata.writeJson(metadataWriter);
+                    svgArea.setText(svgWriter.toString());
+                    metadataArea.setText(metadataWriter.toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
             }
         }
 
-        private SubstationDiagramResult createSubstationDiagramView(VoltageLevel vl) {
-            String svgData;
-            String metadataData;
-            try (StringWriter svgWriter = new StringWriter();
-                 StringWriter metadataWriter = new StringWriter()) {
-                SubstationDiagram diagram = SubstationDiagram.build(vl, getLayoutFactory(), showNames.isSelected());
-                diagram.writeSvg(componentLibrary, layoutParameters.get(), svgWriter, metadataWriter, null);
-                svgWriter.flush();
-                metadataWriter.flush();
-                svgData = svgWriter.toString();
-                metadataData = metadataWriter.toString();
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
+        private SubstationDiagramResult createSubstationDiagramView(VoltageLevel vl, VoltageLevelLayoutFactory layoutFactory,
+                                                                    LayoutParameters parameters, boolean useName,
+                                                                    DiagramScheduler.Request request) {
+            // the view is built directly from the layout result, the SVG is written only if displayed
+            GraphCoordinates coordinates = diagramResultCache.get(vl.getId(), layoutFactory, parameters, useName, () -> {
+                SubstationDiagram diagram = SubstationDiagram.build(vl, layoutFactory, useName);
+                request.checkCancelled();
+                return diagram.calculateCoordinates(parameters);
+            });
+            request.checkCancelled();
+            SubstationDiagramView diagramView = SubstationDiagramView.render(coordinates, componentLibrary, parameters);
+            return new SubstationDiagramResult(diagramView, coordinates, parameters);
+        }
 
-            SubstationDiagramView diagramView;
-            try (InputStream svgInputStream = new ByteArrayInputStream(svgData.getBytes(StandardCharsets.UTF_8));
-                 InputStream metadataInputStream = new ByteArrayInputStream(metadataData.getBytes(StandardCharsets.UTF_8))) {
-                diagramView = SubstationDiagramView.load(svgInputStream, metadataInputStream);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
+        private void showSvg() {
+            if (result != null && svgArea.getText().isEmpty() && (tab2.isSelected() || tab3.isSelected())) {
+                result.writeSvg(svgArea, metadataArea);
             }
-            return new SubstationDiagramResult(diagramView, svgData, metadataData);
         }
 
         private void loadDiagram(VoltageLevel vl) {
-            Service<SubstationDiagramResult> loader = new Service<SubstationDiagramResult>() {
-                @Override
-                protected Task<SubstationDiagramResult> createTask() {
-                    return new Task<SubstationDiagramResult>() {
-                        @Override
-                        protected SubstationDiagramResult call() {
-                            return createSubstationDiagramView(vl);
-                        }
-                    };
-                }
-            };
-            loader.setOnScheduled(event -> {
-                Text loading = new Text("Loading...");
-                loading.setFont(Font.font(30));
-                flowPane.getChildren().setAll(loading);
-                svgArea.setText("");
-                metadataArea.setText("");
-            });
-            loader.setOnSucceeded(event -> {
-                SubstationDiagramResult result = (SubstationDiagramResult) event.getSource().getValue();
-                flowPane.getChildren().setAll(result.getView());
-                svgArea.setText(result.getSvgData());
-                metadataArea.setText(result.getMetadataData());
-            });
-            loader.setOnFailed(event -> {
-                Throwable e = event.getSource().getException();
-                LOGGER.error(e.toString(), e);
-            });
-            loader.start();
+            Text loading = new Text("Loading...");
+            loading.setFont(Font.font(30));
+            flowPane.getChildren().setAll(loading);
+            result = null;
+            svgArea.setText("");
+            metadataArea.setText("");
+
+            // the parameters are read on the application thread, a later change submits a new request
+            VoltageLevelLayoutFactory layoutFactory = getLayoutFactory();
+            LayoutParameters parameters = layoutParameters.get();
+            boolean useName = showNames.isSelected();
+            diagramScheduler.submit(this, () -> shown,
+                (DiagramScheduler.Request request) -> createSubstationDiagramView(vl, layoutFactory, parameters, useName, request),
+                newResult -> {
+                    result = newResult;
+                    flowPane.getChildren().setAll(result.getView());
+                    showSvg();
+                },
+                e -> LOGGER.error(e.toString(), e));
         }
     }
 
@@ -249,13 +265,20 @@ public class SubstationDiagramViewer extends Application {
         }
 
         private void removeDiagramTab() {
-            checkedDiagramsPane.getTabs().removeIf(tab -> tab.getText().equals(id));
+            checkedDiagramsPane.getTabs().removeIf(tab -> {
+                if (tab.getText().equals(id)) {
+                    diagramScheduler.cancel(tab.getContent());
+                    return true;
+                }
+                return false;
+            });
         }
 
         private void addDiagramTab() {
             VoltageLevel vl = networkProperty.get().getVoltageLevel(id);
             if (vl != null) {
-                Tab tab = new Tab(id, new SubstationDiagramPane(vl));
+                Tab tab = new Tab(id);
+                tab.setContent(new SubstationDiagramPane(vl, tab.selectedProperty().and(checkedDiagramsTab.selectedProperty())));
                 tab.setOnCloseRequest(event -> checkedProperty.set(false));
                 checkedDiagramsPane.getTabs().add(tab);
                 checkedDiagramsPane.getSelectionModel().select(tab);
@@ -343,6 +366,7 @@ public class SubstationDiagramViewer extends Application {
         stackCb.setSelected(layoutFactory instanceof PositionVoltageLevelLayoutFactory && ((PositionVoltageLevelLayoutFactory) layoutFactory).isStack());
         stackCb.setDisable(!(layoutFactory instanceof PositionVoltageLevelLayoutFactory));
         stackCb.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            // the cached layouts are keyed by the configuration of the factory, the ones of the other state are kept
             ((PositionVoltageLevelLayoutFactory) layoutFactory).setStack(newValue);
             // just to trigger diagram update
             refreshDiagram();
@@ -398,6 +422,7 @@ public class SubstationDiagramViewer extends Application {
         });
 
         networkProperty.addListener((observable, oldNetwork, newNetwork) -> {
+            diagramResultCache.clear();
             if (newNetwork == null) {
                 selectableVoltageLevels.clear();
             } else {
@@ -408,8 +433,7 @@ public class SubstationDiagramViewer extends Application {
         });
         TabPane diagramsPane = new TabPane();
         diagramsPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
-        diagramsPane.getTabs().setAll(new Tab("Selected", selectedDiagramPane),
-                                      new Tab("Checked", checkedDiagramsPane));
+        diagramsPane.getTabs().setAll(selectedDiagramTab, checkedDiagramsTab);
 
         createParametersPane();
 
@@ -455,7 +479,8 @@ public class SubstationDiagramViewer extends Application {
             while (c.next()) {
                 for (SelectableVoltageLevel s : c.getAddedSubList()) {
                     VoltageLevel vl = networkProperty.get().getVoltageLevel(s.getId());
-                    selectedDiagramPane.setCenter(new SubstationDiagramPane(vl));
+                    diagramScheduler.cancel(selectedDiagramPane.getCenter());
+                    selectedDiagramPane.setCenter(new SubstationDiagramPane(vl, selectedDiagramTab.selectedProperty()));
                 }
             }
         });
@@ -481,6 +506,11 @@ public class SubstationDiagramViewer extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        diagramScheduler.shutdown();
+    }
+
     private void loadNetwork(Path file) {
         Service<Network> networkService = new Service<Network>() {
             @Override
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.view.app;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.substationdiagram.layout.LayoutParameters;
+import com.powsybl.substationdiagram.layout.PositionVoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.layout.VoltageLevelLayoutFactory;
+import com.powsybl.substationdiagram.model.FicticiousNode;
+import com.powsybl.substationdiagram.model.Graph;
+import com.powsybl.substationdiagram.model.GraphCoordinates;
+import com.powsybl.substationdiagram.model.Node;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class DiagramResultCacheTest {
+
+    /**
+     * Estimated size of a result with one node and no edge
+     */
+    private static final long RESULT_SIZE = 512;
+
+    private final VoltageLevelLayoutFactory layoutFactory = new PositionVoltageLevelLayoutFactory();
+
+    private final LayoutParameters layoutParameters = new LayoutParameters();
+
+    private List<String> calculated;
+
+    @Before
+    public void setUp() {
+        calculated = new ArrayList<>();
+    }
+
+    private static GraphCoordinates createCoordinates(int nodeCount) {
+        Graph graph = new Graph(false);
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = new FicticiousNode(graph, "n" + i);
+            graph.addNode(node);
+            nodes.add(node);
+        }
+        for (int i = 1; i < nodeCount; i++) {
+            graph.addEdge(nodes.get(i - 1), nodes.get(i));
+        }
+        return GraphCoordinates.of(graph);
+    }
+
+    private GraphCoordinates get(DiagramResultCache cache, String voltageLevelId) {
+        return cache.get(voltageLevelId, layoutFactory, layoutParameters, false, () -> {
+            calculated.add(voltageLevelId);
+            return createCoordinates(1);
+        });
+    }
+
+    @Test(expected = PowsyblException.class)
+    public void testInvalidSize() {
+        new DiagramResultCache(0);
+    }
+
+    @Test
+    public void testKey() {
+        DiagramResultCache cache = new DiagramResultCache(100 * RESULT_SIZE);
+        GraphCoordinates coordinates = get(cache, "vl");
+        assertSame(coordinates, get(cache, "vl"));
+
+        // the parameters are compared by value
+        assertSame(coordinates, cache.get("vl", layoutFactory, new LayoutParameters(layoutParameters), false, () -> {
+            throw new AssertionError();
+        }));
+        LayoutParameters otherLayoutParameters = new LayoutParameters(layoutParameters)
+                .setCellWidth(layoutParameters.getCellWidth() + 1);
+        assertNotSame(coordinates, cache.get("vl", layoutFactory, otherLayoutParameters, false, () -> createCoordinates(1)));
+
+        // the layout factories by configuration
+        assertSame(coordinates, cache.get("vl", new PositionVoltageLevelLayoutFactory(), layoutParameters, false, () -> {
+            throw new AssertionError();
+        }));
+        PositionVoltageLevelLayoutFactory notStackedLayoutFactory = new PositionVoltageLevelLayoutFactory();
+        notStackedLayoutFactory.setStack(false);
+        assertNotSame(coordinates, cache.get("vl", notStackedLayoutFactory, layoutParameters, false,
+                                             () -> createCoordinates(1)));
+        assertNotSame(coordinates, cache.get("vl", layoutFactory, layoutParameters, true, () -> createCoordinates(1)));
+        assertEquals(1, calculated.size());
+    }
+
+    @Test
+    public void testSize() {
+        DiagramResultCache cache = new DiagramResultCache(100 * RESULT_SIZE);
+        assertEquals(0, cache.getSize());
+        cache.get("vl1", layoutFactory, layoutParameters, false, () -> createCoordinates(3));
+        assertEquals(3 * RESULT_SIZE + 2 * 64, cache.getSize());
+        cache.get("vl2", layoutFactory, layoutParameters, false, () -> createCoordinates(1));
+        assertEquals(4 * RESULT_SIZE + 2 * 64, cache.getSize());
+
+        // a result found in the cache is not counted again
+        cache.get("vl2", layoutFactory, layoutParameters, false, () -> createCoordinates(1));
+        assertEquals(4 * RESULT_SIZE + 2 * 64, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        DiagramResultCache cache = new DiagramResultCache(3 * RESULT_SIZE);
+        get(cache, "vl1");
+        get(cache, "vl2");
+        get(cache, "vl3");
+        assertEquals(3 * RESULT_SIZE, cache.getSize());
+
+        // vl1 is used again, so vl2 is the least recently used one
+        get(cache, "vl1");
+        get(cache, "vl4");
+        assertEquals(3 * RESULT_SIZE, cache.getSize());
+        get(cache, "vl1");
+        get(cache, "vl3");
+        get(cache, "vl4");
+        assertEquals(4, calculated.size());
+        get(cache, "vl2");
+        assertEquals(5, calculated.size());
+        assertEquals("vl2", calculated.get(4));
+        assertEquals(3 * RESULT_SIZE, cache.getSize());
+    }
+
+    @Test
+    public void testLargerThanMaxSize() {
+        DiagramResultCache cache = new DiagramResultCache(RESULT_SIZE);
+        cache.get("vl1", layoutFactory, layoutParameters, false, () -> createCoordinates(3));
+        GraphCoordinates coordinates = get(cache, "vl2");
+
+        // the last result is kept even if larger than the maximum size
+        GraphCoordinates largeCoordinates = cache.get("vl3", layoutFactory, layoutParameters, false, () -> createCoordinates(3));
+        assertEquals(3 * RESULT_SIZE + 2 * 64, cache.getSize());
+        assertSame(largeCoordinates, cache.get("vl3", layoutFactory, layoutParameters, false, () -> createCoordinates(3)));
+        assertNotSame(coordinates, get(cache, "vl2"));
+    }
+
+    @Test
+    public void testClearDuringCalculation() {
+        DiagramResultCache cache = new DiagramResultCache(100 * RESULT_SIZE);
+        GraphCoordinates coordinates = createCoordinates(1);
+
+        // a layout of the previous network ending after the clearing is returned but not cached
+        assertSame(coordinates, cache.get("vl", layoutFactory, layoutParameters, false, () -> {
+            cache.clear();
+            return coordinates;
+        }));
+        assertEquals(0, cache.getSize());
+        GraphCoordinates newCoordinates = get(cache, "vl");
+        assertNotSame(coordinates, newCoordinates);
+        assertEquals(RESULT_SIZE, cache.getSize());
+        assertSame(newCoordinates, get(cache, "vl"));
+        assertEquals(1, calculated.size());
+    }
+}
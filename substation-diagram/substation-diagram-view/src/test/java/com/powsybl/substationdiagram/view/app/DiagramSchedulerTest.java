@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2019, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.substationdiagram.view.app;
+
+import com.powsybl.commons.PowsyblException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * The test thread plays the JavaFX application thread: the results are queued, and delivered when the test runs them.
+ *
+ * @author Benoit Jeanson <benoit.jeanson at rte-france.com>
+ * @author Nicolas Duchene
+ * @author Geoffroy Jamgotchian <geoffroy.jamgotchian at rte-france.com>
+ */
+public class DiagramSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final BlockingQueue<Runnable> deliveries = new LinkedBlockingQueue<>();
+
+    private final CountDownLatch blockingStarted = new CountDownLatch(1);
+
+    private final CountDownLatch blockingReleased = new CountDownLatch(1);
+
+    /**
+     * Names of the computations run, in run order
+     */
+    private final List<String> runs = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Names of the results delivered, in delivery order
+     */
+    private final List<String> results = new ArrayList<>();
+
+    private DiagramScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        // a single thread, so that the requests submitted while the blocking one runs are pending
+        scheduler = new DiagramScheduler(1, deliveries::add);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private void submit(Object owner, boolean visible, String name) {
+        scheduler.submit(owner, () -> visible, request -> {
+            runs.add(name);
+            return name;
+        }, results::add, e -> fail(e.toString()));
+    }
+
+    /**
+     * Submit a computation blocking the thread until released, and wait for it to start
+     */
+    private DiagramScheduler.Request[] submitBlocking(Object owner, String name) throws InterruptedException {
+        DiagramScheduler.Request[] blockingRequest = new DiagramScheduler.Request[1];
+        scheduler.submit(owner, () -> false, request -> {
+            blockingRequest[0] = request;
+            runs.add(name);
+            blockingStarted.countDown();
+            try {
+                blockingReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // the result is returned without checking the cancellation, it has to be dropped on delivery
+            return name;
+        }, results::add, e -> fail(e.toString()));
+        assertTrue(blockingStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return blockingRequest;
+    }
+
+    /**
+     * Release the blocking computation, and deliver the results until the one of a last computation submitted after
+     * all the others, so that all the runs are done
+     */
+    private void releaseAndDeliverAll() throws InterruptedException {
+        submit(new Object(), false, "last");
+        blockingReleased.countDown();
+        while (!results.contains("last")) {
+            Runnable delivery = deliveries.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(delivery);
+            delivery.run();
+        }
+    }
+
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        DiagramScheduler.Request[] blockingRequest = submitBlocking("a", "a1");
+
+        // the pending request of b is dropped, the running one of a is cancelled
+        submit("b", false, "b1");
+        submit("b", false, "b2");
+        assertFalse(blockingRequest[0].isCancelled());
+        submit("a", false, "a2");
+        assertTrue(blockingRequest[0].isCancelled());
+
+        releaseAndDeliverAll();
+        assertEquals(Arrays.asList("a1", "b2", "a2", "last"), runs);
+
+        // the result of the cancelled request is never delivered
+        assertEquals(Arrays.asList("b2", "a2", "last"), results);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        DiagramScheduler.Request[] blockingRequest = submitBlocking("a", "a1");
+        submit("b", false, "b1");
+
+        scheduler.cancel("a");
+        scheduler.cancel("b");
+        assertTrue(blockingRequest[0].isCancelled());
+
+        releaseAndDeliverAll();
+        assertEquals(Arrays.asList("a1", "last"), runs);
+        assertEquals(Collections.singletonList("last"), results);
+    }
+
+    @Test
+    public void testVisibleFirst() throws InterruptedException {
+        submitBlocking("a", "a1");
+
+        // the request of the visible owner runs before the older one of the invisible owner
+        submit("b", false, "b1");
+        submit("c", true, "c1");
+
+        releaseAndDeliverAll();
+        assertEquals(Arrays.asList("a1", "c1", "b1", "last"), runs);
+        assertEquals(Arrays.asList("a1", "c1", "b1", "last"), results);
+    }
+
+    @Test
+    public void testFailure() throws InterruptedException {
+        submitBlocking("a", "a1");
+
+        List<Throwable> failures = new ArrayList<>();
+        scheduler.submit("b", () -> false, request -> {
+            throw new PowsyblException("failure");
+        }, result -> fail("unexpected result"), failures::add);
+
+        releaseAndDeliverAll();
+        assertEquals(1, failures.size());
+        assertEquals("failure", failures.get(0).getMessage());
+    }
+}